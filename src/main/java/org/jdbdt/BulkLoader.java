@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Bulk loader for table data.
+ *
+ * <p>
+ * Bulk loaders insert rows through engine-specific mechanisms 
+ * (e.g., <code>COPY</code> for PostgreSQL), 
+ * in place of regular <code>INSERT</code> statements. 
+ * They are used by {@link JDBDT#insert(DataSet)} and {@link JDBDT#populate(DataSet)} 
+ * for data sets with at least {@link DB#getBulkLoadThreshold()} rows.
+ * A custom loader may be set using {@link DB#setBulkLoader(BulkLoader)}, 
+ * otherwise a built-in loader is used for the database engine, if available.
+ * </p>
+ * 
+ * @see DB#setBulkLoader(BulkLoader)
+ * @see DB#setBulkLoadThreshold(int)
+ * @since 1.5
+ */
+@FunctionalInterface
+public interface BulkLoader {
+  /**
+   * Load rows into a table.
+   * 
+   * <p>
+   * If the loader does not apply to the given table or rows, it should return <code>false</code> 
+   * without changing the database, in which case rows are inserted as usual.
+   * </p>
+   * 
+   * @param connection Database connection.
+   * @param table Table.
+   * @param rows Rows, each given by an array of column values in the order of 
+   *    {@link Table#getColumns()} (arrays should not be modified).
+   * @return <code>true</code> if rows were loaded, <code>false</code> if the
+   *   loader does not apply.
+   * @throws SQLException If a database error occurs.
+   */
+  boolean load(Connection connection, Table table, Iterable<Object[]> rows) throws SQLException;
+}
@@ -0,0 +1,604 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * Built-in bulk loaders.
+ * 
+ * <p>
+ * Rows are rendered in CSV format, and either streamed to the database 
+ * engine by the JDBC driver (PostgreSQL and MySQL), or first written 
+ * to a temporary CSV file that is then read by the engine (H2 and HSQLDB).
+ * Loaders do not apply (see {@link BulkLoader#load}) if some value has 
+ * no textual representation (e.g., binary data).
+ * </p>
+ * 
+ * @see DB#setBulkLoadThreshold(int)
+ * @since 1.5
+ */
+final class BulkLoaders {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private BulkLoaders() { }
+
+  /**
+   * Get built-in bulk loader for a database dialect.
+   * @param dialect Dialect.
+   * @return Bulk loader for the dialect, or <code>null</code> if there is none.
+   */
+  static BulkLoader forDialect(Dialect dialect) {
+    switch (dialect) {
+      case H2:
+        return BulkLoaders::h2CSVRead;
+      case HSQLDB:
+        return BulkLoaders::hsqldbTextTable;
+      case POSTGRESQL:
+        return BulkLoaders::postgreSQLCopy;
+      case MYSQL:
+        return BulkLoaders::mySQLLoadData;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Load rows for H2 using <code>CSVREAD</code>.
+   * 
+   * <p>
+   * <code>CSVREAD</code> reads files on the database server, hence 
+   * the loader only applies to embedded databases (in-memory or file-based), 
+   * not to connections to a server (<code>tcp:</code> or <code>ssl:</code> URLs).
+   * </p>
+   * 
+   * @param conn Connection.
+   * @param table Table.
+   * @param rows Rows.
+   * @return <code>true</code> if rows were loaded.
+   * @throws SQLException If a database error occurs.
+   */
+  static boolean h2CSVRead(Connection conn, Table table, Iterable<Object[]> rows) throws SQLException {
+    if (!isEmbeddedH2(conn.getMetaData().getURL())) {
+      return false;
+    }
+    File file = writeCSV(null, table, rows, "", false);
+    if (file == null) {
+      return false;
+    }
+    try {
+      StringBuilder cols = new StringBuilder("C1");
+      for (int i = 2; i <= table.getColumnCount(); i++) {
+        cols.append(",C").append(i);
+      }
+      execute(conn, String.format("INSERT INTO %s(%s) SELECT * FROM CSVREAD(%s, '%s', 'charset=UTF-8')",
+                                  table.getName(), 
+                                  Misc.sqlArgumentList(table.getColumns().toArray()), 
+                                  literal(file.getAbsolutePath()),
+                                  cols));
+      return true;
+    }
+    finally {
+      delete(file);
+    }
+  }
+
+  /**
+   * Check if an H2 connection URL refers to an embedded database.
+   * @param url Connection URL.
+   * @return <code>true</code> for <code>jdbc:h2:mem:</code>, <code>jdbc:h2:file:</code>
+   *   and <code>jdbc:h2:</code><i>path</i> URLs.
+   */
+  static boolean isEmbeddedH2(String url) {
+    final String prefix = "jdbc:h2:";
+    if (url == null || !url.startsWith(prefix)) {
+      return false;
+    }
+    String db = url.substring(prefix.length());
+    return !db.startsWith("tcp:") && !db.startsWith("ssl:");
+  }
+
+  /**
+   * Load rows for HSQLDB using a temporary text table.
+   * 
+   * <p>
+   * HSQLDB only allows text tables for file-based databases, 
+   * with source files in the database directory.
+   * The loader also does not apply if the connection is not in 
+   * auto-commit mode, since it executes DDL statements (that 
+   * would implicitly commit the current transaction).
+   * </p>
+   * 
+   * @param conn Connection.
+   * @param table Table.
+   * @param rows Rows.
+   * @return <code>true</code> if rows were loaded.
+   * @throws SQLException If a database error occurs.
+   */
+  static boolean hsqldbTextTable(Connection conn, Table table, Iterable<Object[]> rows) throws SQLException {
+    final String prefix = "jdbc:hsqldb:file:";
+    final String url = conn.getMetaData().getURL();
+    if (url == null || !url.startsWith(prefix) || !conn.getAutoCommit()) {
+      return false;
+    }
+    String path = url.substring(prefix.length());
+    int sep = path.indexOf(';');
+    if (sep >= 0) {
+      path = path.substring(0, sep);
+    }
+    File dir = new File(path).getAbsoluteFile().getParentFile();
+    File file = writeCSV(dir, table, rows, "", false);
+    if (file == null) {
+      return false;
+    }
+    final String tmp = "JDBDT_" + file.getName().replaceAll("[^A-Za-z0-9]", "_").toUpperCase();
+    try {
+      execute(conn, String.format("CREATE TEXT TABLE %s AS (SELECT %s FROM %s) WITH NO DATA",
+                                  tmp, Misc.sqlArgumentList(table.getColumns().toArray()), table.getName()));
+      try {
+        execute(conn, String.format("SET TABLE %s SOURCE %s", 
+                                    tmp, literal(file.getName() + ";fs=,;quoted=true;encoding=UTF-8")));
+        execute(conn, String.format("INSERT INTO %s(%s) SELECT * FROM %s", 
+                                    table.getName(), Misc.sqlArgumentList(table.getColumns().toArray()), tmp));
+      }
+      finally {
+        execute(conn, "DROP TABLE " + tmp);
+      }
+      return true;
+    }
+    finally {
+      delete(file);
+    }
+  }
+
+  /**
+   * Load rows for PostgreSQL using <code>COPY FROM STDIN</code>.
+   * 
+   * <p>
+   * The <code>CopyManager</code> API of the PostgreSQL JDBC driver is accessed
+   * through reflection, and the loader does not apply if it is not available.
+   * Rows are rendered as they are read by the driver.
+   * </p>
+   * 
+   * @param conn Connection.
+   * @param table Table.
+   * @param rows Rows.
+   * @return <code>true</code> if rows were loaded.
+   * @throws SQLException If a database error occurs.
+   */
+  static boolean postgreSQLCopy(Connection conn, Table table, Iterable<Object[]> rows) throws SQLException {
+    final Object copyManager;
+    final Method copyIn;
+    try {
+      ClassLoader cl = conn.getClass().getClassLoader();
+      Class<?> pgConnection = Class.forName("org.postgresql.PGConnection", true, cl);
+      if (!conn.isWrapperFor(pgConnection)) {
+        return false;
+      }
+      copyManager = pgConnection.getMethod("getCopyAPI").invoke(conn.unwrap(pgConnection));
+      copyIn = Class.forName("org.postgresql.copy.CopyManager", true, cl)
+                    .getMethod("copyIn", String.class, Reader.class);
+    }
+    catch (ReflectiveOperationException e) {
+      return false;
+    }
+    if (!hasText(table, rows)) {
+      return false;
+    }
+    try (Reader in = new CSVReader(table, rows, "", false)) {
+      copyIn.invoke(copyManager,
+                    String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)", 
+                                  table.getName(), 
+                                  Misc.sqlArgumentList(table.getColumns().toArray())),
+                    in);
+      return true;
+    }
+    catch (InvocationTargetException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      }
+      throw new InternalErrorException(e.getCause());
+    }
+    catch (IllegalAccessException e) {
+      throw new InternalErrorException(e);
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+  }
+
+  /**
+   * Load rows for MySQL using <code>LOAD DATA LOCAL INFILE</code>.
+   * 
+   * <p>
+   * Rows are streamed using the <code>setLocalInfileInputStream</code> 
+   * statement method of the MySQL JDBC driver (Connector/J), accessed 
+   * through reflection, and the loader does not apply if it is not available.
+   * Local files must also be enabled for the connection 
+   * (<code>allowLoadLocalInfile</code> property of the driver).
+   * </p>
+   * 
+   * @param conn Connection.
+   * @param table Table.
+   * @param rows Rows.
+   * @return <code>true</code> if rows were loaded.
+   * @throws SQLException If a database error occurs.
+   */
+  static boolean mySQLLoadData(Connection conn, Table table, Iterable<Object[]> rows) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      Statement target = null;
+      Method setStream = null;
+      ClassLoader cl = conn.getClass().getClassLoader();
+      // Connector/J 8.x and 5.x statement interfaces, respectively.
+      for (String name : new String[] { "com.mysql.cj.jdbc.JdbcStatement", "com.mysql.jdbc.Statement" }) {
+        try {
+          Class<?> c = Class.forName(name, true, cl);
+          if (stmt.isWrapperFor(c)) {
+            setStream = c.getMethod("setLocalInfileInputStream", InputStream.class);
+            target = (Statement) stmt.unwrap(c);
+            break;
+          }
+        }
+        catch (ReflectiveOperationException e) {
+          // Try next.
+        }
+      }
+      if (setStream == null || !hasText(table, rows)) {
+        return false;
+      }
+      try (CSVReader in = new CSVReader(table, rows, "NULL", true)) {
+        setStream.invoke(target, in.asInputStream());
+        target.execute(
+            String.format("LOAD DATA LOCAL INFILE 'stream' INTO TABLE %s CHARACTER SET utf8 "
+                          + "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' "
+                          + "LINES TERMINATED BY '\\n' (%s)",
+                          table.getName(), 
+                          Misc.sqlArgumentList(table.getColumns().toArray())));
+        return true;
+      }
+      catch (InvocationTargetException e) {
+        if (e.getCause() instanceof SQLException) {
+          throw (SQLException) e.getCause();
+        }
+        throw new InternalErrorException(e.getCause());
+      }
+      catch (IllegalAccessException e) {
+        throw new InternalErrorException(e);
+      }
+    }
+  }
+
+  /**
+   * Check if all values have a textual representation.
+   * 
+   * <p>
+   * Loaders that stream rows check this beforehand, since 
+   * failing in the middle of a load may abort the current 
+   * transaction, rather than let rows be inserted by other means.
+   * </p>
+   * 
+   * @param table Table.
+   * @param rows Rows.
+   * @return <code>true</code> if all values other than <code>NULL</code>
+   *    have a textual representation.
+   * @see #text(Object, JDBCType, boolean)
+   */
+  static boolean hasText(Table table, Iterable<Object[]> rows) {
+    final MetaData md = table.getMetaData();
+    final int n = table.getColumnCount();
+    for (Object[] row : rows) {
+      for (int i = 0; i < n; i++) {
+        if (row[i] != null && text(row[i], type(md, i), false) == null) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write rows to a temporary CSV file, rendered by {@link CSVReader}.
+   * 
+   * @param dir Directory for the file (<code>null</code> for the default temporary directory).
+   * @param table Table.
+   * @param rows Rows.
+   * @param nullText Text for <code>NULL</code> values.
+   * @param numericBooleans Write boolean values as <code>1</code> or <code>0</code>.
+   * @return The file, or <code>null</code> if a value could not be written.
+   */
+  static File writeCSV(File dir, Table table, Iterable<Object[]> rows, 
+                       String nullText, boolean numericBooleans) {
+    if (!hasText(table, rows)) {
+      return null;
+    }
+    File file = null;
+    boolean ok = false;
+    try {
+      file = File.createTempFile("jdbdt", ".csv", dir);
+      try (Reader in = new CSVReader(table, rows, nullText, numericBooleans);
+           Writer out = new BufferedWriter(
+             new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+        char[] buf = new char[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buf, 0, buf.length)) >= 0) {
+          out.write(buf, 0, count);
+        }
+      }
+      ok = true;
+      return file;
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+    finally {
+      if (!ok && file != null) {
+        delete(file);
+      }
+    }
+  }
+
+  /**
+   * Buffer size for writing CSV files.
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Reader that renders rows in CSV format as they are read.
+   * 
+   * <p>
+   * Fields are separated by commas and lines by <code>'\n'</code>.
+   * Values other than <code>NULL</code> are enclosed in double quotes, 
+   * with any double quotes doubled.
+   * </p>
+   */
+  static final class CSVReader extends Reader {
+    /**
+     * Table meta-data (may be <code>null</code>).
+     */
+    private final MetaData md;
+    /**
+     * Number of columns.
+     */
+    private final int n;
+    /**
+     * Rows to render.
+     */
+    private final Iterator<Object[]> rows;
+    /**
+     * Text for <code>NULL</code> values.
+     */
+    private final String nullText;
+    /**
+     * Write boolean values as <code>1</code> or <code>0</code>.
+     */
+    private final boolean numericBooleans;
+    /**
+     * Current line.
+     */
+    private String line = "";
+    /**
+     * Position in current line.
+     */
+    private int pos = 0;
+
+    /**
+     * Constructor.
+     * @param table Table.
+     * @param rows Rows.
+     * @param nullText Text for <code>NULL</code> values.
+     * @param numericBooleans Write boolean values as <code>1</code> or <code>0</code>.
+     */
+    CSVReader(Table table, Iterable<Object[]> rows, String nullText, boolean numericBooleans) {
+      this.md = table.getMetaData();
+      this.n = table.getColumnCount();
+      this.rows = rows.iterator();
+      this.nullText = nullText;
+      this.numericBooleans = numericBooleans;
+    }
+
+    /**
+     * Render next row.
+     * @return CSV line for the next row, including the line terminator,
+     *   or <code>null</code> if there are no more rows.
+     * @throws IOException If a value has no textual representation.
+     */
+    String nextLine() throws IOException {
+      if (!rows.hasNext()) {
+        return null;
+      }
+      Object[] row = rows.next();
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < n; i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        if (row[i] == null) {
+          sb.append(nullText);
+          continue;
+        }
+        String s = text(row[i], type(md, i), numericBooleans);
+        if (s == null) {
+          throw new IOException("No textual representation for value in column " + (i + 1) + ".");
+        }
+        sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+      }
+      return sb.append('\n').toString();
+    }
+
+    @Override
+    public int read(char[] buf, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (pos == line.length()) {
+        String next = nextLine();
+        if (next == null) {
+          return -1;
+        }
+        line = next;
+        pos = 0;
+      }
+      int count = Math.min(len, line.length() - pos);
+      line.getChars(pos, pos + count, buf, off);
+      pos += count;
+      return count;
+    }
+
+    /**
+     * Get input stream for the rows, encoded in UTF-8.
+     * @return Input stream that reads from this reader.
+     */
+    InputStream asInputStream() {
+      return new InputStream() {
+        private byte[] bytes = new byte[0];
+        private int bpos = 0;
+
+        @Override
+        public int read() throws IOException {
+          return fill() ? bytes[bpos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+          if (len == 0) {
+            return 0;
+          }
+          if (!fill()) {
+            return -1;
+          }
+          int count = Math.min(len, bytes.length - bpos);
+          System.arraycopy(bytes, bpos, buf, off, count);
+          bpos += count;
+          return count;
+        }
+
+        private boolean fill() throws IOException {
+          while (bpos == bytes.length) {
+            String next = nextLine();
+            if (next == null) {
+              return false;
+            }
+            bytes = next.getBytes(StandardCharsets.UTF_8);
+            bpos = 0;
+          }
+          return true;
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      // Nothing to release.
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static JDBCType type(MetaData md, int i) {
+    return md != null ? md.getType(i) : JDBCType.OTHER;
+  }
+
+  /**
+   * Get textual representation of a value.
+   * 
+   * <p>
+   * Date/time values are converted according to the column type,
+   * since the database engine parses them from text.
+   * </p>
+   * 
+   * @param value Value (not <code>null</code>).
+   * @param type Column type.
+   * @param numericBooleans Represent boolean values as <code>1</code> or <code>0</code>.
+   * @return Textual representation, or <code>null</code> if the value 
+   *   has no textual representation.
+   */
+  static String text(Object value, JDBCType type, boolean numericBooleans) {
+    if (value instanceof String || value instanceof Character
+        || value instanceof Integer || value instanceof Long 
+        || value instanceof Short || value instanceof Byte
+        || value instanceof Double || value instanceof Float) {
+      return value.toString();
+    }
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString();
+    }
+    if (value instanceof Boolean) {
+      return numericBooleans ? ((Boolean) value ? "1" : "0") : value.toString();
+    }
+    if (value instanceof Date) {
+      long time = ((Date) value).getTime();
+      switch (type) {
+        case DATE:
+          return new java.sql.Date(time).toString();
+        case TIME:
+          return new Time(time).toString();
+        case TIMESTAMP:
+          return value instanceof Timestamp ? value.toString() : new Timestamp(time).toString();
+        default:
+          return null;
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String literal(String s) {
+    return '\'' + s.replace("'", "''") + '\'';
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void execute(Connection conn, String sql) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void delete(File file) {
+    if (!file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigger-based change capture for a table.
+ * 
+ * <p>
+ * Database triggers record the key values of inserted, updated and deleted 
+ * rows onto an auxiliary capture table. The delta between the last snapshot
+ * and the current database state may then be computed from the changed
+ * rows only, instead of querying the entire table.
+ * </p>
+ * 
+ * @see DB.Option#CHANGE_CAPTURE
+ * @since 1.5
+ */
+final class ChangeCapture {
+  /**
+   * Prefix for capture table names.
+   */
+  private static final String CAPTURE_TABLE_PREFIX = "JDBDT_CC_";
+
+  /**
+   * Key columns.
+   */
+  private final List<String> keyColumns;
+
+  /**
+   * Capture table name.
+   */
+  private final String captureTable;
+
+  /**
+   * Trigger names.
+   */
+  private final List<String> triggers;
+
+  /**
+   * Snapshot being tracked.
+   */
+  private DataSet snapshot;
+
+  /**
+   * Snapshot rows indexed by key (computed lazily).
+   */
+  private Map<Row, List<Row>> snapshotIndex;
+
+  /**
+   * Constructor.
+   * @param keyColumns Key columns.
+   * @param captureTable Capture table name.
+   * @param triggers Trigger names.
+   */
+  private ChangeCapture(List<String> keyColumns, String captureTable, List<String> triggers) {
+    this.keyColumns = keyColumns;
+    this.captureTable = captureTable;
+    this.triggers = triggers;
+  }
+
+  /**
+   * Install change capture for a table.
+   * 
+   * <p>
+   * Leftovers from a previous installation for the same table that was
+   * not properly removed (e.g., due to an abnormal program termination)
+   * are discarded first.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param table Table (must have key columns).
+   * @return Change capture for the table, or <code>null</code> if
+   *   change capture is not supported for the database in use, or 
+   *   the triggers or capture table could not be created.
+   */
+  static ChangeCapture install(CallInfo callInfo, Table table) {
+    final DB db = table.getDB();
+    final Dialect dialect = db.getDialect();
+    final String captureTable = 
+        CAPTURE_TABLE_PREFIX + table.getName().toUpperCase().replaceAll("[^A-Z0-9_]", "_");
+    final List<String> keyColumns = table.getKeyColumns();
+    final String createTableSQL = dialect.captureTableSQL(captureTable, table.getName(), keyColumns);
+    if (createTableSQL == null) {
+      return null;
+    }
+    final Map<String, String> triggerSQL = 
+        dialect.captureTriggerSQL(captureTable, table.getName(), keyColumns);
+    final ChangeCapture cc = 
+        new ChangeCapture(keyColumns, captureTable, new ArrayList<>(triggerSQL.keySet()));
+    cc.remove(db);
+    try {
+      DBSetup.executeAuxiliary(callInfo, db, createTableSQL);
+      for (String sql : triggerSQL.values()) {
+        DBSetup.executeAuxiliary(callInfo, db, sql);
+      }
+    }
+    catch (DBExecutionException e) {
+      // E.g., the H2 trigger class is not available to the database.
+      cc.remove(db);
+      return null;
+    }
+    return cc;
+  }
+
+  /**
+   * Get key columns.
+   * @return Key columns used for change capture.
+   */
+  List<String> getKeyColumns() {
+    return keyColumns;
+  }
+
+  /**
+   * Get snapshot being tracked.
+   * @return Snapshot for which changes are being captured.
+   */
+  DataSet getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Start tracking changes relative to a new snapshot.
+   * @param callInfo Call info.
+   * @param s Snapshot.
+   */
+  void reset(CallInfo callInfo, DataSet s) {
+    DBSetup.executeAuxiliary(callInfo, s.getSource().getDB(), "DELETE FROM " + captureTable);
+    snapshot = s;
+    snapshotIndex = null;
+  }
+
+  /**
+   * Stop tracking changes for the current snapshot, 
+   * e.g., after a table truncation, which does not fire triggers.
+   */
+  void invalidate() {
+    snapshot = null;
+    snapshotIndex = null;
+  }
+
+  /**
+   * Compute delta between the tracked snapshot and 
+   * the current database state.
+   * 
+   * <p>
+   * Only the rows with captured key values are considered, 
+   * both in the snapshot and in the database.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param table Table.
+   * @return The database delta.
+   */
+  Delta delta(CallInfo callInfo, Table table) {
+    final DB db = table.getDB();
+    if (snapshotIndex == null) {
+      final int[] key = table.getKeyColumnIndices();
+      snapshotIndex = new HashMap<>();
+      for (Row r : snapshot.getRows()) {
+        snapshotIndex.computeIfAbsent(Delta.key(r, key), k -> new ArrayList<>(1)).add(r);
+      }
+    }
+    final String keys = Misc.sqlArgumentList(keyColumns.toArray(new String[keyColumns.size()]));
+    final StringBuilder match = new StringBuilder();
+    for (String k : keyColumns) {
+      match.append(match.length() == 0 ? "" : " AND ")
+           .append("c.").append(k).append(" = t.").append(k);
+    }
+    final String keysSQL = String.format("SELECT DISTINCT %s FROM %s", keys, captureTable);
+    final String rowsSQL = 
+        String.format("SELECT %s FROM %s t WHERE EXISTS (SELECT 1 FROM %s c WHERE %s)",
+                      Misc.sqlArgumentList(table.getColumns().toArray()), table.getName(), 
+                      captureTable, match);
+    return db.access(callInfo, () -> {
+      ArrayList<Row> before = new ArrayList<>();
+      for (Row k : rows(db, keysSQL, keyColumns.size())) {
+        List<Row> list = snapshotIndex.get(k);
+        if (list != null) {
+          before.addAll(list);
+        }
+      }
+      List<Row> after = rows(db, rowsSQL, table.getColumns().size());
+      return new Delta(before.iterator(), after.iterator(), table.getRowHasher());
+    });
+  }
+
+  @SuppressWarnings("javadoc")
+  private static List<Row> rows(DB db, String sql, int colCount) throws SQLException {
+    ArrayList<Row> list = new ArrayList<>();
+    try (WrappedStatement ws = db.compile(sql); 
+         ResultSet rs = ws.getStatement().executeQuery()) {
+      while (rs.next()) {
+        Object[] data = new Object[colCount];
+        for (int i = 0; i < colCount; i++) {
+          data[i] = rs.getObject(i + 1);
+        }
+        list.add(new Row(data));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Remove triggers and capture table from the database.
+   * 
+   * <p>
+   * Errors are ignored, e.g., triggers will no longer exist 
+   * if the table was dropped.
+   * </p>
+   * 
+   * @param db Database handle.
+   */
+  void remove(DB db) {
+    Connection conn = db.getConnection();
+    for (String trigger : triggers) {
+      ignoreSQLException(conn, "DROP TRIGGER " + trigger);
+    }
+    ignoreSQLException(conn, "DROP TABLE " + captureTable);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void ignoreSQLException(Connection conn, String sql) {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+    catch (SQLException e) {
+      // Do nothing.
+    }
+  }
+}
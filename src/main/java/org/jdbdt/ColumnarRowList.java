@@ -0,0 +1,419 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.JDBCType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Row list with column-wise storage.
+ * 
+ * <p>
+ * Values are kept per column, rather than per row. 
+ * Columns of type <code>INTEGER</code>, <code>BIGINT</code>, and
+ * <code>DOUBLE</code> / <code>FLOAT</code> are stored in primitive arrays 
+ * along with a bitmap for <code>NULL</code> values, and character columns 
+ * are dictionary-encoded. Should a column value not be of the 
+ * expected class (e.g. a {@link Long} value for an <code>INTEGER</code> column), 
+ * the column falls back to an array of objects. 
+ * </p>
+ * 
+ * <p>
+ * Rows are not retained: {@link #get(int)} yields a fresh 
+ * row view, with values equal to those of the row that was added.
+ * The list only supports appending rows and clearing.
+ * It is used for snapshots taken with {@link DB.Option#COLUMNAR_SNAPSHOTS} enabled.
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class ColumnarRowList extends AbstractList<Row> {
+
+  /**
+   * Initial capacity.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Column storage.
+   */
+  private abstract static class Column {
+    /**
+     * Set value.
+     * @param i Row index.
+     * @param v Value.
+     * @return <code>false</code> if the value cannot be stored by this column.
+     */
+    abstract boolean set(int i, Object v);
+
+    /**
+     * Get value.
+     * @param i Row index.
+     * @return Value.
+     */
+    abstract Object get(int i);
+
+    /**
+     * Resize column.
+     * @param capacity New capacity.
+     */
+    abstract void resize(int capacity);
+  }
+
+  /**
+   * Base class for columns of primitive values.
+   */
+  private abstract static class PrimitiveColumn extends Column {
+    /** Bitmap for null values. */
+    final BitSet nulls = new BitSet();
+
+    @Override
+    final boolean set(int i, Object v) {
+      if (v == null) {
+        nulls.set(i);
+        return true;
+      }
+      return setValue(i, v);
+    }
+
+    @Override
+    final Object get(int i) {
+      return nulls.get(i) ? null : getValue(i);
+    }
+
+    /**
+     * Set non-null value.
+     * @param i Row index.
+     * @param v Value.
+     * @return <code>false</code> if the value cannot be stored by this column.
+     */
+    abstract boolean setValue(int i, Object v);
+
+    /**
+     * Get non-null value.
+     * @param i Row index.
+     * @return Value.
+     */
+    abstract Object getValue(int i);
+  }
+
+  /**
+   * Column for {@link Integer} values.
+   */
+  private static final class IntColumn extends PrimitiveColumn {
+    /** Values. */
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    @Override
+    boolean setValue(int i, Object v) {
+      if (!(v instanceof Integer)) {
+        return false;
+      }
+      values[i] = (Integer) v;
+      return true;
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Column for {@link Long} values.
+   */
+  private static final class LongColumn extends PrimitiveColumn {
+    /** Values. */
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    @Override
+    boolean setValue(int i, Object v) {
+      if (!(v instanceof Long)) {
+        return false;
+      }
+      values[i] = (Long) v;
+      return true;
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Column for {@link Double} values.
+   */
+  private static final class DoubleColumn extends PrimitiveColumn {
+    /** Values. */
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    @Override
+    boolean setValue(int i, Object v) {
+      if (!(v instanceof Double)) {
+        return false;
+      }
+      values[i] = (Double) v;
+      return true;
+    }
+
+    @Override
+    Object getValue(int i) {
+      return values[i];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Dictionary-encoded column for {@link String} values.
+   */
+  private static final class StringColumn extends Column {
+    /** Dictionary codes (-1 for null values). */
+    private int[] codes = new int[INITIAL_CAPACITY];
+    /** Dictionary entries. */
+    private final ArrayList<String> dictionary = new ArrayList<>();
+    /** Dictionary index. */
+    private final HashMap<String, Integer> index = new HashMap<>();
+
+    @Override
+    boolean set(int i, Object v) {
+      if (v == null) {
+        codes[i] = -1;
+        return true;
+      }
+      if (!(v instanceof String)) {
+        return false;
+      }
+      Integer code = index.get(v);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.add((String) v);
+        index.put((String) v, code);
+      }
+      codes[i] = code;
+      return true;
+    }
+
+    @Override
+    Object get(int i) {
+      int code = codes[i];
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    @Override
+    void resize(int capacity) {
+      codes = Arrays.copyOf(codes, capacity);
+    }
+  }
+
+  /**
+   * Column for arbitrary values.
+   */
+  private static final class ObjectColumn extends Column {
+    /** Values. */
+    private Object[] values;
+
+    /**
+     * Constructor.
+     * @param capacity Capacity.
+     */
+    ObjectColumn(int capacity) {
+      values = new Object[capacity];
+    }
+
+    /**
+     * Constructor for fall back from another column.
+     * @param other Column.
+     * @param n Number of values in <code>other</code>.
+     * @param capacity Capacity.
+     */
+    ObjectColumn(Column other, int n, int capacity) {
+      this(capacity);
+      for (int i = 0; i < n; i++) {
+        values[i] = other.get(i);
+      }
+    }
+
+    @Override
+    boolean set(int i, Object v) {
+      values[i] = v;
+      return true;
+    }
+
+    @Override
+    Object get(int i) {
+      return values[i];
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Column types.
+   */
+  private final JDBCType[] types;
+
+  /**
+   * Columns.
+   */
+  private final Column[] columns;
+
+  /**
+   * Number of rows.
+   */
+  private int size;
+
+  /**
+   * Capacity.
+   */
+  private int capacity;
+
+  /**
+   * Constructor.
+   * @param md Meta-data for rows.
+   */
+  ColumnarRowList(MetaData md) {
+    this(md.columns().stream().map(MetaData.ColumnInfo::type).toArray(JDBCType[]::new));
+  }
+
+  /**
+   * Constructor.
+   * @param types Column types.
+   */
+  ColumnarRowList(JDBCType... types) {
+    this.types = types.clone();
+    this.columns = new Column[types.length];
+    init();
+  }
+
+  @SuppressWarnings("javadoc")
+  private void init() {
+    size = 0;
+    capacity = INITIAL_CAPACITY;
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = columnFor(types[c]);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static Column columnFor(JDBCType type) {
+    switch (type) {
+      case INTEGER:
+        return new IntColumn();
+      case BIGINT:
+        return new LongColumn();
+      case FLOAT:
+      case DOUBLE:
+        return new DoubleColumn();
+      case CHAR:
+      case VARCHAR:
+      case LONGVARCHAR:
+      case NCHAR:
+      case NVARCHAR:
+      case LONGNVARCHAR:
+        return new StringColumn();
+      default:
+        return new ObjectColumn(INITIAL_CAPACITY);
+    }
+  }
+
+  @Override
+  public boolean add(Row r) {
+    Object[] data = r.data();
+    if (data.length != columns.length) {
+      throw new InternalErrorException("Row length mismatch.");
+    }
+    if (size == capacity) {
+      capacity *= 2;
+      for (Column c : columns) {
+        c.resize(capacity);
+      }
+    }
+    for (int c = 0; c < columns.length; c++) {
+      if (!columns[c].set(size, data[c])) {
+        columns[c] = new ObjectColumn(columns[c], size, capacity);
+        columns[c].set(size, data[c]);
+      }
+    }
+    size++;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public Row get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(Integer.toString(i));
+    }
+    Object[] data = new Object[columns.length];
+    for (int c = 0; c < columns.length; c++) {
+      data[c] = columns[c].get(i);
+    }
+    return new Row(data);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    init();
+    modCount++;
+  }
+
+  /**
+   * Check if a column is stored in compact form, i.e., as primitive 
+   * values with a bitmap for <code>NULL</code> values, or dictionary-encoded.
+   * @param c Column index.
+   * @return <code>false</code> if the column holds an array of objects, 
+   *   either due to its type or as a fallback.
+   */
+  boolean isCompact(int c) {
+    return !(columns[c] instanceof ObjectColumn);
+  }
+}
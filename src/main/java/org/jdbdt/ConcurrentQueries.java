@@ -0,0 +1,345 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent execution of data source queries.
+ * 
+ * <p>
+ * Queries are executed by the worker threads of the database handle 
+ * (see {@link DB#getExecutor()}), each query over a separate connection.
+ * For PostgreSQL, all queries share the snapshot of a coordinating transaction
+ * (see {@link Dialect#exportSnapshotSQL()}), hence their results reflect
+ * a single consistent database state. For other databases, queries
+ * are executed independently of each other.
+ * </p>
+ * 
+ * @see DB#setConcurrentQueries(javax.sql.DataSource, int)
+ * @see ParallelSnapshot
+ * @since 1.5
+ */
+final class ConcurrentQueries {
+
+  /**
+   * Query over a connection.
+   * @param <T> Type of result.
+   */
+  @FunctionalInterface
+  interface Query<T> {
+    /**
+     * Execute the query.
+     * @param conn Connection.
+     * @return Query result.
+     * @throws SQLException if a database error occurs.
+     */
+    T execute(Connection conn) throws SQLException;
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private ConcurrentQueries() { }
+
+  /**
+   * Create executor for concurrent database access.
+   * @param threads Number of threads.
+   * @return A new executor service, to be shut down by the caller.
+   */
+  static ExecutorService newExecutor(int threads) {
+    return Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "jdbdt-query");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Execute tasks concurrently, using the executor of a database handle.
+   * 
+   * <p>
+   * At most <code>threads</code> tasks execute at the same time. 
+   * If a task fails, tasks that did not start yet are skipped.
+   * </p>
+   * 
+   * @param <T> Type of results.
+   * @param db Database handle.
+   * @param tasks Tasks.
+   * @param threads Maximum number of threads.
+   * @return Task results, in the same order as the tasks.
+   * @throws SQLException if a database error occurs in one of the tasks.
+   */
+  static <T> List<T> run(DB db, List<Callable<T>> tasks, int threads) throws SQLException {
+    final ExecutorService executor = db.getExecutor();
+    final int n = tasks.size();
+    final Object[] results = new Object[n];
+    final AtomicInteger next = new AtomicInteger();
+    final List<Future<?>> workers = new ArrayList<>();
+    for (int w = 0; w < Math.min(threads, n); w++) {
+      workers.add(executor.submit(() -> {
+        for (int i = next.getAndIncrement(); i < n; i = next.getAndIncrement()) {
+          try {
+            results[i] = tasks.get(i).call();
+          }
+          catch (Exception e) {
+            next.set(n);
+            throw e;
+          }
+        }
+        return null;
+      }));
+    }
+    Throwable error = null;
+    for (Future<?> f : workers) {
+      try {
+        f.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        next.set(n);
+        for (Future<?> g : workers) {
+          g.cancel(true);
+        }
+        throw new InternalErrorException(e);
+      }
+      catch (ExecutionException e) {
+        if (error == null) {
+          error = e.getCause();
+        }
+      }
+    }
+    if (error instanceof SQLException) {
+      throw (SQLException) error;
+    }
+    if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    }
+    if (error != null) {
+      throw new InternalErrorException(error);
+    }
+    @SuppressWarnings("unchecked")
+    List<T> list = (List<T>) Arrays.asList(results);
+    return list;
+  }
+
+  /**
+   * Execute queries concurrently, each over a separate connection.
+   * 
+   * <p>
+   * If the database supports exporting transaction snapshots
+   * (see {@link Dialect#exportSnapshotSQL()}), a snapshot is exported
+   * by a transaction over an additional connection, and each query executes 
+   * in a read-only transaction that uses that snapshot. 
+   * The queries then observe one consistent database state, 
+   * regardless of concurrent modifications. Otherwise, each query 
+   * observes the database state at the time it executes.
+   * </p>
+   * 
+   * @param <T> Type of results.
+   * @param db Database handle.
+   * @param xds Source of connections.
+   * @param queries Queries.
+   * @param threads Maximum number of threads.
+   * @return Query results, in the same order as the queries.
+   * @throws SQLException if a database error occurs.
+   */
+  static <T> List<T> 
+  query(DB db, javax.sql.DataSource xds, List<Query<T>> queries, int threads) throws SQLException {
+    final Dialect dialect = db.getDialect();
+    final String exportSQL = dialect.exportSnapshotSQL();
+    if (exportSQL == null) {
+      return run(db, tasks(xds, dialect, queries, null), threads);
+    }
+    try (Connection conn = xds.getConnection()) {
+      return inTransaction(conn, dialect, null, c -> {
+        final String snapshot;
+        try (Statement stmt = c.createStatement();
+             ResultSet rs = stmt.executeQuery(exportSQL)) {
+          rs.next();
+          snapshot = rs.getString(1);
+        }
+        return run(db, tasks(xds, dialect, queries, snapshot), threads);
+      });
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static <T> List<Callable<T>> 
+  tasks(javax.sql.DataSource xds, Dialect dialect, List<Query<T>> queries, String snapshot) {
+    List<Callable<T>> tasks = new ArrayList<>();
+    for (Query<T> q : queries) {
+      tasks.add(() -> {
+        try (Connection conn = xds.getConnection()) {
+          return snapshot != null || dialect.incrementalFetchRequiresTransaction() ?
+              inTransaction(conn, dialect, snapshot, q)
+            : q.execute(conn);
+        }
+      });
+    }
+    return tasks;
+  }
+
+  /**
+   * Execute a query within a read-only transaction that is rolled back afterwards.
+   * @param <T> Type of result.
+   * @param conn Connection.
+   * @param dialect Database dialect.
+   * @param snapshot Snapshot to use (<code>null</code> for none).
+   * @param q Query.
+   * @return Query result.
+   * @throws SQLException if a database error occurs.
+   */
+  private static <T> T 
+  inTransaction(Connection conn, Dialect dialect, String snapshot, Query<T> q) throws SQLException {
+    final boolean autoCommit = conn.getAutoCommit();
+    final int isolation = conn.getTransactionIsolation();
+    final boolean readOnly = conn.isReadOnly();
+    conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    conn.setReadOnly(true);
+    conn.setAutoCommit(false);
+    try {
+      if (snapshot != null) {
+        try (Statement stmt = conn.createStatement()) {
+          stmt.execute(dialect.importSnapshotSQL(snapshot));
+        }
+      }
+      return q.execute(conn);
+    }
+    finally {
+      conn.rollback();
+      conn.setAutoCommit(autoCommit);
+      conn.setReadOnly(readOnly);
+      conn.setTransactionIsolation(isolation);
+    }
+  }
+
+  /**
+   * Fetch query results for several data sources concurrently, if possible.
+   * 
+   * <p>
+   * Queries are executed concurrently if enabled for the database handle 
+   * of the data sources, all data sources share that handle, 
+   * and its connection is in auto-commit mode (changes that
+   * are not committed are not visible to other connections).
+   * Query results are then completed (set as snapshot if 
+   * <code>takeSnapshot</code> is set, and logged) in the calling thread,
+   * in the order of the data sources.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param sources Data sources.
+   * @param takeSnapshot Indicates that snapshots should be taken.
+   * @return Query results, in the same order as the data sources, or 
+   *    <code>null</code> if queries were not executed.
+   * @see #query(DB, javax.sql.DataSource, List, int)
+   */
+  static List<DataSet> 
+  fetch(CallInfo callInfo, List<DataSource> sources, boolean takeSnapshot) {
+    if (sources.size() < 2) {
+      return null;
+    }
+    final DB db = sources.get(0).getDB();
+    final javax.sql.DataSource xds = db.getConcurrentQueriesDataSource();
+    if (xds == null) {
+      return null;
+    }
+    for (DataSource source : sources) {
+      if (source.getDB() != db) {
+        return null;
+      }
+    }
+    return db.access(callInfo, () -> {
+      if (!db.getConnection().getAutoCommit()) {
+        return null;
+      }
+      List<DataSet> dataSets = new ArrayList<>();
+      List<Query<DataSet>> queries = new ArrayList<>();
+      try {
+        for (DataSource source : sources) {
+          // Meta-data is resolved here, over the database handle's connection.
+          final DataSet data = source.newQueryDataSet(takeSnapshot);
+          dataSets.add(data);
+          queries.add(conn -> query(conn, source, data));
+        }
+        List<DataSet> results = query(db, xds, queries, db.getConcurrentQueriesThreads());
+        for (DataSet data : results) {
+          data.getSource().completeQuery(callInfo, data, takeSnapshot);
+        }
+        return results;
+      }
+      catch (SQLException | RuntimeException e) {
+        for (DataSet data : dataSets) {
+          DataSource.discardQuery(data);
+        }
+        throw e;
+      }
+    });
+  }
+
+  /**
+   * Query a data source.
+   * @param conn Connection.
+   * @param source Data source.
+   * @param data Data set for query results.
+   * @return The <code>data</code> argument.
+   * @throws SQLException if a database error occurs.
+   */
+  private static DataSet 
+  query(Connection conn, DataSource source, DataSet data) throws SQLException {
+    final Dialect dialect = source.getDB().getDialect();
+    try (PreparedStatement stmt = conn.prepareStatement(source.getSQLForQuery())) {
+      Object[] args = source.getQueryArguments();
+      if (args != null) {
+        for (int i = 0; i < args.length; i++) {
+          stmt.setObject(i + 1, args[i]);
+        }
+      }
+      stmt.setFetchSize(dialect.driverFetchSize(source.getFetchSize()));
+      stmt.setQueryTimeout(source.getQueryTimeout());
+      try (ResultSet rs = stmt.executeQuery()) {
+        final RowReader reader = source.newRowReader();
+        final int n = reader.getColumnCount();
+        while (rs.next()) {
+          data.addRow(new Row(reader.read(rs, new Object[n])));
+        }
+      }
+    }
+    return data;
+  }
+}
@@ -28,11 +28,16 @@ import java.io.File;
 import java.io.PrintStream;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Database handle.
@@ -108,7 +113,210 @@ public final class DB {
      * 
      * @since 1.1
      */
-    CASE_SENSITIVE_COLUMN_NAMES;
+    CASE_SENSITIVE_COLUMN_NAMES,
+
+    /**
+     * Match rows by key in delta assertions.
+     *
+     * For tables with key columns (see {@link TableBuilder#key(String...)}),
+     * the database delta is computed by hashing key column values
+     * alone, and unexpected row updates are logged as such
+     * (old row, new row, and changed columns) rather than as
+     * separate deleted and inserted rows.
+     * The option has no effect for tables without key columns,
+     * and JDBDT falls back to the standard delta computation
+     * if key values are found not to be unique.
+     *
+     * @since 1.5
+     */
+    KEY_BASED_DELTA,
+
+    /**
+     * Compute deltas by merging ordered data.
+     *
+     * For data sources with a known row order,
+     * delta assertions walk the snapshot and the current
+     * query results in step rather than hashing all rows.
+     * A row order is known for queries built using 
+     * {@link QueryBuilder#orderBy(String...)} with plain column
+     * names, and for tables with key columns created while the option
+     * is enabled, whose query will then order rows by key.
+     * JDBDT falls back to the standard delta computation if 
+     * rows are found not to be in the expected order, 
+     * e.g., due to the collation rules of the database.
+     *
+     * @since 1.5
+     */
+    MERGE_DELTA,
+
+    /**
+     * Compute deltas in parallel for large data sets.
+     *
+     * When enabled, deltas for data sets with at least
+     * {@link DB#getParallelDeltaThreshold()} rows
+     * are computed in parallel, using the common fork-join pool.
+     *
+     * @see DB#setParallelDeltaThreshold(int)
+     * @since 1.5
+     */
+    PARALLEL_DELTA,
+
+    /**
+     * Keep only row fingerprints for snapshots.
+     *
+     * When enabled, snapshots taken subsequently keep a 
+     * 128-bit fingerprint per row (and the number of occurrences of each
+     * fingerprint), rather than the snapshot rows themselves.
+     * Fingerprints are computed as rows are read from the database,
+     * and rows are never retained: the data set returned by 
+     * {@link JDBDT#takeSnapshot(DataSource)} only reports its size,
+     * and accessing its rows throws {@link InvalidOperationException}.
+     * Delta assertions work as usual, but diagnostics only ever show fingerprints 
+     * for snapshot rows, i.e., snapshot rows that are no longer found 
+     * in the database are reported by fingerprint if an assertion fails, 
+     * and logged snapshots (see {@link #LOG_SNAPSHOTS}) list fingerprints.
+     * The option takes precedence over {@link #OFF_HEAP_SNAPSHOTS} 
+     * and {@link #COLUMNAR_SNAPSHOTS}.
+     *
+     * @since 1.5
+     */
+    FINGERPRINT_SNAPSHOTS,
+
+    /**
+     * Use server-side checksums for unchanged-data assertions.
+     *
+     * When enabled, snapshots taken subsequently also record
+     * a row count and an order-independent checksum of the data source's
+     * query results, computed by the database engine.
+     * Assertions that the data source is unchanged first compare
+     * that checksum with a fresh one, and only fetch all rows 
+     * if they differ. Checksums are only computed for 
+     * H2, PostgreSQL and MySQL databases; the option has no effect 
+     * for other database engines.
+     *
+     * @since 1.5
+     */
+    SERVER_CHECKSUMS,
+
+    /**
+     * Capture table changes using database triggers.
+     *
+     * When enabled, snapshots taken subsequently for tables with key columns
+     * install triggers that record the keys of inserted, updated and deleted rows 
+     * onto an auxiliary table (unless already installed). Delta assertions 
+     * then only query the changed rows, rather than the entire table.
+     * Triggers and auxiliary tables are removed by 
+     * {@link JDBDT#teardown(DB, boolean)}.
+     * Triggers do not fire for <code>TRUNCATE TABLE</code> statements: 
+     * changes are no longer captured for a snapshot after {@link JDBDT#truncate(Table)}
+     * is called for the table, but truncations executed by other means go unnoticed.
+     * If triggers cannot be created (e.g., H2 triggers are implemented by a JDBDT
+     * class that must be visible to the database engine), delta assertions query
+     * the entire table as usual.
+     * Change capture is only supported for H2, HSQLDB, Derby and SQLite databases;
+     * the option has no effect for other database engines.
+     *
+     * @since 1.5
+     */
+    CHANGE_CAPTURE,
+
+    /**
+     * Store snapshot rows column-wise.
+     *
+     * When enabled, snapshots taken subsequently through queries store 
+     * values per column rather than per row, using primitive arrays for 
+     * integer and floating-point columns, and dictionary encoding for character columns.
+     * This reduces the memory required for snapshots, in particular for tables 
+     * with mostly numeric columns. 
+     *
+     * @since 1.5
+     */
+    COLUMNAR_SNAPSHOTS,
+
+    /**
+     * Store snapshot rows off-heap.
+     *
+     * When enabled, snapshots taken subsequently through queries store 
+     * rows in a compact binary encoding, in a memory-mapped temporary file. 
+     * Only row offsets are kept in the Java heap, and rows are decoded 
+     * as they are read, e.g. during delta computation. This allows snapshots 
+     * of data sources that would otherwise not fit in the Java heap.
+     * The option takes precedence over {@link #COLUMNAR_SNAPSHOTS}.
+     *
+     * @since 1.5
+     */
+    OFF_HEAP_SNAPSHOTS,
+
+    /**
+     * Cache statement meta-data.
+     *
+     * When enabled, the meta-data for the query of a table or query data source
+     * (column names and types) is cached by SQL code, and reused 
+     * when other data sources are created for the same SQL code.
+     * The cache, along with reused statements (see {@link #REUSE_STATEMENTS}), 
+     * is cleared when tables are dropped using {@link JDBDT#drop(Table)} 
+     * (or variants), or when DDL statements (<code>CREATE</code>, <code>ALTER</code>, 
+     * <code>DROP</code> or <code>RENAME</code>) are executed using 
+     * {@link JDBDT#execute(DB, String, Object...)}. 
+     * The cache is not aware of schema changes made by other means 
+     * (e.g., migrations run by the code under test, or DDL statements executed 
+     * directly over JDBC), in which case data sources may report outdated columns 
+     * and types. {@link DB#schemaChanged()} should then be called after such changes.
+     * The option is disabled by default.
+     *
+     * @since 1.5
+     */
+    CACHE_METADATA,
+
+    /**
+     * Multi-row inserts.
+     *
+     * When enabled, {@link JDBDT#insert(DataSet)} and {@link JDBDT#populate(DataSet)}
+     * insert several rows per statement, using <code>INSERT</code> statements
+     * with multiple rows in the <code>VALUES</code> clause. The number of rows
+     * per statement is the largest that keeps the number of statement parameters
+     * within the limits of the database engine. This provides better performance
+     * for JDBC drivers that execute batch updates one row at a time 
+     * (see {@link #BATCH_UPDATES}). The option has no effect for database 
+     * engines other than H2, HSQLDB, Derby, SQLite, PostgreSQL and MySQL.
+     *
+     * @since 1.5
+     */
+    MULTI_ROW_INSERTS,
+
+    /**
+     * Incremental table population.
+     *
+     * When enabled, {@link JDBDT#populate(DataSet)} and {@link JDBDT#populateIfChanged(DataSet)} 
+     * only apply the changes required for a table with key columns
+     * (see {@link TableBuilder#key(String...)}) to match the data set, 
+     * rather than deleting all rows and then inserting the entire data set.
+     * Rows are matched by key against the current table contents, or against captured
+     * changes for the table's last snapshot (see {@link #CHANGE_CAPTURE}), and
+     * then deleted, updated, or inserted as needed. The option has no effect
+     * for tables without key columns, or if key values are not unique.
+     *
+     * @since 1.5
+     */
+    INCREMENTAL_POPULATE,
+
+    /**
+     * Foreign key order for population of several tables.
+     *
+     * When enabled, {@link JDBDT#populate(DataSet...)} and 
+     * {@link JDBDT#populateIfChanged(DataSet...)} process tables according 
+     * to the foreign key dependencies between them, as reported by the
+     * database meta-data, rather than in argument order. Tables are
+     * first cleared with referencing tables before the tables they refer to,
+     * and data sets are then inserted with referenced tables before 
+     * the tables that refer to them. Independent tables may be populated 
+     * in parallel (see {@link DB#setParallelPopulate(javax.sql.DataSource, int)}).
+     * Tables in dependency cycles are processed in argument order, 
+     * after all other tables.
+     *
+     * @since 1.5
+     */
+    FOREIGN_KEY_ORDER;
   }
 
   /**
@@ -131,6 +339,21 @@ public final class DB {
    */
   private final boolean savepointSupport;
 
+  /**
+   * Indicates if <code>NULL</code> values come first in ascending order.
+   */
+  private final boolean nullsFirstAsc;
+
+  /**
+   * Indicates if <code>NULL</code> values come first in descending order.
+   */
+  private final boolean nullsFirstDesc;
+
+  /**
+   * Database dialect.
+   */
+  private final Dialect dialect;
+
   /**
    * Log to use. 
    */
@@ -141,6 +364,21 @@ public final class DB {
    */
   private Map<String, WrappedStatement> pool;
 
+  /**
+   * Meta-data cache.
+   */
+  private Map<String, MetaData> metaDataCache;
+
+  /**
+   * Cache of tables referenced by foreign keys, per table name.
+   */
+  private Map<String, Set<String>> foreignKeyCache;
+
+  /**
+   * Change capture per table name (created lazily).
+   */
+  private Map<String, ChangeCapture> changeCaptures;
+
   /**
    * Savepoint (non-null if set).
    */
@@ -151,6 +389,86 @@ public final class DB {
    */
   private int maxBatchUpdateSize = 0;
 
+  /**
+   * Minimum number of rows for parallel delta computation.
+   */
+  private int parallelDeltaThreshold = DEFAULT_PARALLEL_DELTA_THRESHOLD;
+
+  /**
+   * Source of connections for parallel snapshots (if set).
+   */
+  private javax.sql.DataSource snapshotDataSource = null;
+
+  /**
+   * Number of partitions for parallel snapshots.
+   */
+  private int snapshotPartitions = 0;
+
+  /**
+   * Source of connections for concurrent queries (if set).
+   */
+  private javax.sql.DataSource concurrentQueriesDataSource = null;
+
+  /**
+   * Maximum number of threads for concurrent queries.
+   */
+  private int concurrentQueriesThreads = 0;
+
+  /**
+   * Source of connections for parallel population of tables (if set).
+   */
+  private javax.sql.DataSource populateDataSource = null;
+
+  /**
+   * Maximum number of threads for parallel population of tables.
+   */
+  private int populateThreads = 0;
+
+  /**
+   * Executor for concurrent database access (created on demand).
+   */
+  private ExecutorService executor = null;
+
+  /**
+   * Row count threshold for spilling query results to disk (0 if disabled).
+   */
+  private int spillThreshold = 0;
+
+  /**
+   * Segment size for off-heap snapshots.
+   */
+  private int offHeapSegmentSize = OffHeapRowList.DEFAULT_SEGMENT_SIZE;
+
+  /**
+   * Row count threshold for bulk loading (0 if disabled).
+   */
+  private int bulkLoadThreshold = 0;
+
+  /**
+   * Custom bulk loader (if set).
+   */
+  private BulkLoader bulkLoader = null;
+
+  /**
+   * Fetch size for queries (0 for driver default).
+   */
+  private int fetchSize = 0;
+
+  /**
+   * Timeout for queries in seconds (0 for no limit).
+   */
+  private int queryTimeout = 0;
+
+  /**
+   * Default value for the minimum number of rows 
+   * for parallel delta computation.
+   * @see #setParallelDeltaThreshold(int)
+   * @see #getParallelDeltaThreshold()
+   * @see DB.Option#PARALLEL_DELTA
+   * @since 1.5
+   */
+  public static final int DEFAULT_PARALLEL_DELTA_THRESHOLD = 100000;
+
   /**
    * Default value for maximum batch update size (if batch updates enabled).
    * @see #setMaximumBatchUpdateSize(int)
@@ -174,6 +492,11 @@ public final class DB {
 
       batchUpdateSupport = dbMetaData.supportsBatchUpdates();
       savepointSupport = dbMetaData.supportsSavepoints();
+      boolean atStart = dbMetaData.nullsAreSortedAtStart();
+      boolean atEnd = dbMetaData.nullsAreSortedAtEnd();
+      nullsFirstAsc = atStart || (!atEnd && !dbMetaData.nullsAreSortedHigh());
+      nullsFirstDesc = atStart || (!atEnd && dbMetaData.nullsAreSortedHigh());
+      dialect = Dialect.of(dbMetaData.getDatabaseProductName());
 
       if (batchUpdateSupport) {
         maxBatchUpdateSize = DEFAULT_MAX_BATCH_UPDATE_SIZE;
@@ -197,6 +520,58 @@ public final class DB {
     }
   }
 
+  /**
+   * Check how <code>NULL</code> values are sorted.
+   * @param descending Sort order.
+   * @return <code>true</code> if <code>NULL</code> values come first 
+   *   for the given sort order.
+   */
+  boolean nullsSortedFirst(boolean descending) {
+    return descending ? nullsFirstDesc : nullsFirstAsc;
+  }
+
+  /**
+   * Get database dialect.
+   * @return The dialect for the database engine in use.
+   */
+  Dialect getDialect() {
+    return dialect;
+  }
+
+  /**
+   * Get change capture installed for a table.
+   * @param tableName Table name.
+   * @return Change capture for the table, or 
+   *   <code>null</code> if none is installed.
+   */
+  ChangeCapture getChangeCapture(String tableName) {
+    return changeCaptures != null ? changeCaptures.get(tableName.toUpperCase()) : null;
+  }
+
+  /**
+   * Register change capture installed for a table.
+   * @param tableName Table name.
+   * @param cc Change capture.
+   */
+  void addChangeCapture(String tableName, ChangeCapture cc) {
+    if (changeCaptures == null) {
+      changeCaptures = new HashMap<>();
+    }
+    changeCaptures.put(tableName.toUpperCase(), cc);
+  }
+
+  /**
+   * Remove change capture installed for a table, if any.
+   * @param tableName Table name.
+   */
+  void removeChangeCapture(String tableName) {
+    ChangeCapture cc = 
+      changeCaptures != null ? changeCaptures.remove(tableName.toUpperCase()) : null;
+    if (cc != null) {
+      cc.remove(this);
+    }
+  }
+
   /**
    * Set maximum size for batch updates.
    * @param size The size to set.
@@ -229,6 +604,403 @@ public final class DB {
     return batchUpdateSupport ? maxBatchUpdateSize : 0;
   }
 
+  /**
+   * Enable parallel snapshots for tables with a numeric key.
+   * 
+   * <p>
+   * When set, snapshots of tables with a single key column of an integer SQL type
+   * (<code>TINYINT</code>, <code>SMALLINT</code>, <code>INTEGER</code> or <code>BIGINT</code>)
+   * split the range of key values (given by their minimum and maximum) 
+   * into <code>partitions</code> sub-ranges of equal width. 
+   * The rows for each sub-range are then queried concurrently, 
+   * each on a separate connection obtained from <code>xds</code>,
+   * and assembled into a single snapshot. For PostgreSQL, the queries
+   * share one transaction snapshot (see {@link #setConcurrentQueries(javax.sql.DataSource, int)}).
+   * </p>
+   * <p>
+   * Since changes that are not committed are not visible to other connections,
+   * parallel snapshots are only taken while the connection of this database handle
+   * is in auto-commit mode (see {@link #getAutoCommit()}). 
+   * Otherwise, or for other tables and queries, snapshots are taken as usual.
+   * </p>
+   * 
+   * @param xds Source of connections to the same database, or <code>null</code>
+   *   to disable parallel snapshots.
+   * @param partitions Number of partitions, at least 2 (ignored if <code>xds</code> is <code>null</code>).
+   * @throws InvalidOperationException for an invalid number of partitions.
+   * @see JDBDT#takeSnapshot(DataSource)
+   * @since 1.5
+   */
+  public void setParallelSnapshots(javax.sql.DataSource xds, int partitions) {
+    if (xds != null && partitions < 2) {
+      throw new InvalidOperationException("Invalid number of partitions: " + partitions);
+    }
+    snapshotDataSource = xds;
+    snapshotPartitions = xds != null ? partitions : 0;
+    shutdownExecutor();
+  }
+
+  /**
+   * Get source of connections for parallel snapshots.
+   * @return Data source, or <code>null</code> if parallel snapshots are disabled.
+   * @see #setParallelSnapshots(javax.sql.DataSource, int)
+   */
+  javax.sql.DataSource getSnapshotDataSource() {
+    return snapshotDataSource;
+  }
+
+  /**
+   * Get number of partitions for parallel snapshots.
+   * @return Number of partitions (0 if parallel snapshots are disabled).
+   * @see #setParallelSnapshots(javax.sql.DataSource, int)
+   */
+  int getSnapshotPartitions() {
+    return snapshotPartitions;
+  }
+
+  /**
+   * Enable concurrent queries for operations over several data sources.
+   * 
+   * <p>
+   * When set, {@link JDBDT#takeSnapshot(DataSource...)} and 
+   * {@link JDBDT#assertUnchanged(DataSource...)} query the given data sources
+   * concurrently, using at most <code>threads</code> threads. Each query
+   * is executed on a separate connection obtained from <code>xds</code>.
+   * Snapshots are then set, and assertions verified, in the order of the data sources.
+   * </p>
+   * <p>
+   * For PostgreSQL, the queries share one transaction snapshot 
+   * (exported using <code>pg_export_snapshot()</code>), hence their results
+   * reflect one consistent database state. For other databases, queries 
+   * execute independently of each other, and their results reflect a consistent
+   * database state only if no other connections modify the database meanwhile.
+   * Moreover, since changes that are not committed are not visible to other connections,
+   * concurrent queries are only executed while the connection of this database handle
+   * is in auto-commit mode (see {@link #getAutoCommit()}). 
+   * Otherwise, data sources are queried one at a time, as usual.
+   * </p>
+   * 
+   * @param xds Source of connections to the same database, or <code>null</code>
+   *   to disable concurrent queries.
+   * @param threads Maximum number of threads, at least 2 (ignored if <code>xds</code> is <code>null</code>).
+   * @throws InvalidOperationException for an invalid number of threads.
+   * @see #setParallelSnapshots(javax.sql.DataSource, int)
+   * @since 1.5
+   */
+  public void setConcurrentQueries(javax.sql.DataSource xds, int threads) {
+    if (xds != null && threads < 2) {
+      throw new InvalidOperationException("Invalid number of threads: " + threads);
+    }
+    concurrentQueriesDataSource = xds;
+    concurrentQueriesThreads = xds != null ? threads : 0;
+    shutdownExecutor();
+  }
+
+  /**
+   * Get source of connections for concurrent queries.
+   * @return Data source, or <code>null</code> if concurrent queries are disabled.
+   * @see #setConcurrentQueries(javax.sql.DataSource, int)
+   */
+  javax.sql.DataSource getConcurrentQueriesDataSource() {
+    return concurrentQueriesDataSource;
+  }
+
+  /**
+   * Get maximum number of threads for concurrent queries.
+   * @return Number of threads (0 if concurrent queries are disabled).
+   * @see #setConcurrentQueries(javax.sql.DataSource, int)
+   */
+  int getConcurrentQueriesThreads() {
+    return concurrentQueriesThreads;
+  }
+
+  /**
+   * Set parallel population of independent tables.
+   * 
+   * <p>
+   * When set, and {@link Option#FOREIGN_KEY_ORDER} is enabled, 
+   * {@link JDBDT#populate(DataSet...)} and {@link JDBDT#populateIfChanged(DataSet...)} 
+   * insert data sets for tables that do not depend on each other 
+   * concurrently, using at most <code>threads</code> threads. 
+   * Each data set is inserted and committed on a separate connection 
+   * obtained from <code>xds</code>. Tables are still cleared using
+   * the connection of this database handle, and tables that depend
+   * on others are only populated once these are committed.
+   * </p>
+   * <p>
+   * Since changes that are not committed are not visible to other connections,
+   * parallel population only takes place while the connection of this database handle
+   * is in auto-commit mode (see {@link #getAutoCommit()}), and 
+   * if {@link Option#INCREMENTAL_POPULATE} is disabled.
+   * Otherwise, tables are populated one at a time, as usual.
+   * </p>
+   * 
+   * @param xds Source of connections to the same database, or <code>null</code>
+   *   to disable parallel population.
+   * @param threads Maximum number of threads, at least 2 (ignored if <code>xds</code> is <code>null</code>).
+   * @throws InvalidOperationException for an invalid number of threads.
+   * @since 1.5
+   */
+  public void setParallelPopulate(javax.sql.DataSource xds, int threads) {
+    if (xds != null && threads < 2) {
+      throw new InvalidOperationException("Invalid number of threads: " + threads);
+    }
+    populateDataSource = xds;
+    populateThreads = xds != null ? threads : 0;
+    shutdownExecutor();
+  }
+
+  /**
+   * Get executor for concurrent database access.
+   * 
+   * <p>
+   * The executor is created on first use, with as many threads as required 
+   * for parallel snapshots, concurrent queries, and parallel population of tables, 
+   * and reused until these settings change or the database handle is torn down.
+   * </p>
+   * 
+   * @return Executor service.
+   */
+  ExecutorService getExecutor() {
+    if (executor == null) {
+      int threads = Math.max(snapshotPartitions, Math.max(concurrentQueriesThreads, populateThreads));
+      executor = ConcurrentQueries.newExecutor(Math.max(threads, 1));
+    }
+    return executor;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void shutdownExecutor() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Get source of connections for parallel population of tables.
+   * @return Data source, or <code>null</code> if parallel population is disabled.
+   * @see #setParallelPopulate(javax.sql.DataSource, int)
+   */
+  javax.sql.DataSource getParallelPopulateDataSource() {
+    return populateDataSource;
+  }
+
+  /**
+   * Get maximum number of threads for parallel population of tables.
+   * @return Number of threads (0 if parallel population is disabled).
+   * @see #setParallelPopulate(javax.sql.DataSource, int)
+   */
+  int getParallelPopulateThreads() {
+    return populateThreads;
+  }
+
+  /**
+   * Set row count threshold for spilling query results to disk.
+   * 
+   * <p>
+   * When set, rows of query results beyond the threshold
+   * are written to a temporary file rather than kept in memory, 
+   * and read back from the file as needed. This applies to data sets 
+   * obtained by querying data sources other than snapshots, 
+   * e.g., for state assertions or {@link JDBDT#dump(DataSource, java.io.PrintStream)}.
+   * </p>
+   * 
+   * @param rows Number of rows kept in memory, or 0 to disable spilling.
+   * @see #getSpillThreshold()
+   * @since 1.5
+   */
+  public void setSpillThreshold(int rows) {
+    if (rows < 0) {
+      throw new InvalidOperationException("Invalid spill threshold: " + rows);
+    }
+    spillThreshold = rows;
+  }
+
+  /**
+   * Get current setting for the row count threshold 
+   * for spilling query results to disk.
+   * @return The value set (0 if disabled).
+   * @see #setSpillThreshold(int)
+   * @since 1.5
+   */
+  public int getSpillThreshold() {
+    return spillThreshold;
+  }
+
+  /**
+   * Set segment size for off-heap snapshots (for testing purposes).
+   * @param bytes Segment size in bytes.
+   * @see Option#OFF_HEAP_SNAPSHOTS
+   */
+  void setOffHeapSegmentSize(int bytes) {
+    offHeapSegmentSize = bytes;
+  }
+
+  /**
+   * Get segment size for off-heap snapshots.
+   * @return Segment size in bytes.
+   * @see Option#OFF_HEAP_SNAPSHOTS
+   */
+  int getOffHeapSegmentSize() {
+    return offHeapSegmentSize;
+  }
+
+  /**
+   * Set row count threshold for bulk loading.
+   * 
+   * <p>
+   * When set, data sets with at least the given number of rows are 
+   * inserted by {@link JDBDT#insert(DataSet)} and {@link JDBDT#populate(DataSet)} using 
+   * a bulk loader, if one is available: a custom loader set using {@link #setBulkLoader(BulkLoader)},
+   * or otherwise a built-in loader for PostgreSQL (<code>COPY FROM STDIN</code>), 
+   * MySQL (<code>LOAD DATA LOCAL INFILE</code>), H2 (<code>CSVREAD</code>),
+   * or HSQLDB (text tables, for file-based databases only).
+   * Rows are inserted as usual if no loader is available,
+   * or if the loader does not apply to the data set.
+   * </p>
+   * 
+   * @param rows Minimum number of rows for bulk loading, or 0 to disable bulk loading.
+   * @see #getBulkLoadThreshold()
+   * @see BulkLoader
+   * @since 1.5
+   */
+  public void setBulkLoadThreshold(int rows) {
+    if (rows < 0) {
+      throw new InvalidOperationException("Invalid bulk load threshold: " + rows);
+    }
+    bulkLoadThreshold = rows;
+  }
+
+  /**
+   * Get current setting for the row count threshold for bulk loading.
+   * @return The value set (0 if disabled).
+   * @see #setBulkLoadThreshold(int)
+   * @since 1.5
+   */
+  public int getBulkLoadThreshold() {
+    return bulkLoadThreshold;
+  }
+
+  /**
+   * Set custom bulk loader.
+   * @param loader Bulk loader, or <code>null</code> to use the built-in
+   *   loader for the database engine (if any).
+   * @see #setBulkLoadThreshold(int)
+   * @since 1.5
+   */
+  public void setBulkLoader(BulkLoader loader) {
+    bulkLoader = loader;
+  }
+
+  /**
+   * Get bulk loader in use.
+   * @return The custom bulk loader if set, otherwise the built-in 
+   *   loader for the database engine (<code>null</code> if there is none).
+   * @see #setBulkLoader(BulkLoader)
+   */
+  BulkLoader getBulkLoader() {
+    return bulkLoader != null ? bulkLoader : BulkLoaders.forDialect(dialect);
+  }
+
+  /**
+   * Set fetch size for data source queries.
+   * 
+   * <p>
+   * The fetch size is a hint for the number of rows that the JDBC driver 
+   * should read from the database at a time, and applies to data sources
+   * that do not define their own fetch size. 
+   * For PostgreSQL, rows are only fetched incrementally outside auto-commit mode,
+   * hence auto-commit is temporarily disabled (if enabled) for queries 
+   * with a positive fetch size. For MySQL, a positive fetch size
+   * enables the driver's row-by-row streaming mode.
+   * </p>
+   * 
+   * @param size Fetch size (0 for driver default).
+   * @see #getFetchSize()
+   * @see TableBuilder#fetchSize(int)
+   * @see QueryBuilder#fetchSize(int)
+   * @since 1.5
+   */
+  public void setFetchSize(int size) {
+    if (size < 0) {
+      throw new InvalidOperationException("Invalid fetch size: " + size);
+    }
+    fetchSize = size;
+  }
+
+  /**
+   * Get current setting for fetch size of data source queries.
+   * @return The value set (0 for driver default).
+   * @see #setFetchSize(int)
+   * @since 1.5
+   */
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * Set timeout for data source queries.
+   * 
+   * <p>
+   * The timeout applies to data sources that do not 
+   * define their own timeout.
+   * </p>
+   * 
+   * @param seconds Timeout in seconds (0 for no limit).
+   * @see #getQueryTimeout()
+   * @see TableBuilder#queryTimeout(int)
+   * @see QueryBuilder#queryTimeout(int)
+   * @since 1.5
+   */
+  public void setQueryTimeout(int seconds) {
+    if (seconds < 0) {
+      throw new InvalidOperationException("Invalid query timeout: " + seconds);
+    }
+    queryTimeout = seconds;
+  }
+
+  /**
+   * Get current setting for timeout of data source queries.
+   * @return The value set in seconds (0 for no limit).
+   * @see #setQueryTimeout(int)
+   * @since 1.5
+   */
+  public int getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  /**
+   * Set minimum number of rows for parallel delta computation.
+   * @param rows The number of rows to set.
+   * @see #getParallelDeltaThreshold()
+   * @see #DEFAULT_PARALLEL_DELTA_THRESHOLD
+   * @see DB.Option#PARALLEL_DELTA
+   * @since 1.5
+   */
+  public void setParallelDeltaThreshold(int rows) {
+    if (! isEnabled(DB.Option.PARALLEL_DELTA)) {
+      throw new InvalidOperationException(DB.Option.PARALLEL_DELTA + " option is not enabled.");
+    }
+    if (rows < 1) {
+      throw new InvalidOperationException("Invalid parallel delta threshold: " + rows);
+    }
+    parallelDeltaThreshold = rows;
+  }
+
+  /**
+   * Get current setting for minimum number of rows for 
+   * parallel delta computation.
+   * @return The value set.
+   * @see #setParallelDeltaThreshold(int)
+   * @see #DEFAULT_PARALLEL_DELTA_THRESHOLD
+   * @see DB.Option#PARALLEL_DELTA
+   * @since 1.5
+   */
+  public int getParallelDeltaThreshold() {
+    return parallelDeltaThreshold;
+  }
+
   /** 
    * Enable all logging options.
    */
@@ -378,6 +1150,134 @@ public final class DB {
     return ws;
   }
 
+  /**
+   * Get meta-data for a query.
+   * 
+   * <p>
+   * The meta-data is obtained from the cache if {@link Option#CACHE_METADATA}
+   * is enabled and the query was previously compiled, otherwise 
+   * it is obtained by compiling the query.
+   * </p>
+   * 
+   * @param sql SQL code for query.
+   * @return Meta-data for the query.
+   * @throws SQLException If there is a error preparing the statement.
+   * @since 1.5
+   */
+  MetaData getMetaData(String sql) throws SQLException {
+    final boolean useCache = isEnabled(Option.CACHE_METADATA);
+    MetaData md = useCache && metaDataCache != null ? metaDataCache.get(sql) : null;
+    if (md == null) {
+      try (WrappedStatement ws = compile(sql)) {
+        md = new MetaData(ws.getStatement());
+      }
+      if (useCache) {
+        if (metaDataCache == null) {
+          metaDataCache = new HashMap<>();
+        }
+        metaDataCache.put(sql, md);
+      }
+    }
+    return md;
+  }
+
+  /**
+   * Get names of the tables referenced by foreign keys of a table.
+   * 
+   * <p>
+   * The result is obtained from the cache if {@link Option#CACHE_METADATA}
+   * is enabled and the table was previously looked up, otherwise
+   * it is obtained from the database meta-data.
+   * Table names are given as reported by the database meta-data.
+   * </p>
+   * 
+   * @param tableName Table name, possibly qualified by a schema name.
+   * @return Set of referenced table names.
+   * @throws SQLException If a database error occurs.
+   * @since 1.5
+   */
+  Set<String> getReferencedTables(String tableName) throws SQLException {
+    final boolean useCache = isEnabled(Option.CACHE_METADATA);
+    Set<String> refs = useCache && foreignKeyCache != null ? foreignKeyCache.get(tableName) : null;
+    if (refs == null) {
+      final DatabaseMetaData dbmd = connection.getMetaData();
+      final int dot = tableName.lastIndexOf('.');
+      final String schema = dot >= 0 ? identifier(dbmd, tableName.substring(0, dot)) : null;
+      final String name = identifier(dbmd, tableName.substring(dot + 1));
+      refs = new HashSet<>();
+      try (ResultSet rs = dbmd.getImportedKeys(null, schema, name)) {
+        while (rs.next()) {
+          refs.add(rs.getString("PKTABLE_NAME"));
+        }
+      }
+      if (useCache) {
+        if (foreignKeyCache == null) {
+          foreignKeyCache = new HashMap<>();
+        }
+        foreignKeyCache.put(tableName, refs);
+      }
+    }
+    return refs;
+  }
+
+  /**
+   * Convert identifier to the form used in database meta-data.
+   * @param dbmd Database meta-data.
+   * @param id Identifier, possibly quoted.
+   * @return Unquoted identifier, in upper or lower case 
+   *   if the database stores unquoted identifiers that way.
+   * @throws SQLException If a database error occurs.
+   */
+  private static String identifier(DatabaseMetaData dbmd, String id) throws SQLException {
+    if (id.length() > 1 && "\"`[".indexOf(id.charAt(0)) >= 0) {
+      return id.substring(1, id.length() - 1);
+    }
+    if (dbmd.storesUpperCaseIdentifiers()) {
+      return id.toUpperCase();
+    }
+    if (dbmd.storesLowerCaseIdentifiers()) {
+      return id.toLowerCase();
+    }
+    return id;
+  }
+
+  /**
+   * Discard cached meta-data and statements, after a change
+   * to the database schema.
+   * 
+   * <p>
+   * Pooled statements are also closed, since statements compiled 
+   * before the change may no longer be valid (or report 
+   * outdated meta-data). This method is called internally by
+   * {@link JDBDT#drop(Table)} (and variants) and, for DDL statements,
+   * {@link JDBDT#execute(DB, String, Object...)}. It should be called
+   * explicitly if {@link Option#CACHE_METADATA} is enabled and
+   * the database schema is changed by other means.
+   * </p>
+   * 
+   * @see Option#CACHE_METADATA
+   * @see Option#REUSE_STATEMENTS
+   * @since 1.5
+   */
+  public void schemaChanged() {
+    metaDataCache = null;
+    foreignKeyCache = null;
+    clearStatementPool();
+  }
+
+  /**
+   * Close and discard pooled statements.
+   */
+  private void clearStatementPool() {
+    if (pool != null) {
+      for (WrappedStatement ws : pool.values()) {
+        ignoreSQLException(ws.getStatement()::close);
+      }
+      pool.clear();
+      pool = null;
+    }
+  }
+
   /**
    * Set JDBDT save-point.
    * @param callInfo Call info.
@@ -454,13 +1354,16 @@ public final class DB {
    */
   void teardown(CallInfo callInfo, boolean closeConn) {
     logSetup(callInfo);
-    if (pool != null) {
-      for (WrappedStatement ws : pool.values()) {
-        ignoreSQLException(ws.getStatement()::close);
+    if (changeCaptures != null) {
+      for (ChangeCapture cc : changeCaptures.values()) {
+        cc.remove(this);
       }
-      pool.clear();
-      pool = null;
+      changeCaptures = null;
     }
+    metaDataCache = null;
+    foreignKeyCache = null;
+    shutdownExecutor();
+    clearStatementPool();
     clearSavePointIfSet();
     log.close();
     log = null;
@@ -26,6 +26,9 @@ package org.jdbdt;
 
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Consumer;
 
 /**
  * Utility class with methods for assertion execution.
@@ -42,6 +45,13 @@ final class DBAssert {
    * actual verification to this method.
    * </p>
    * 
+   * <p>
+   * If no changes are expected and the server-side checksum
+   * recorded for the last snapshot still matches 
+   * (see {@link DB.Option#SERVER_CHECKSUMS}), the assertion
+   * passes without fetching the query results.
+   * </p>
+   * 
    * @param callInfo Call info.
    * @param oldData Old data expected.
    * @param newData New data expected.
@@ -49,25 +59,276 @@ final class DBAssert {
    * @throws InvalidOperationException If the arguments are invalid. 
    */
   static void deltaAssertion(CallInfo callInfo, DataSet oldData, DataSet newData) {
-    validateDeltaAssertion(oldData, newData);
+    deltaAssertion(callInfo, oldData, newData, null);
+  }
+
+  /**
+   * Perform a delta assertion, given the current database state
+   * if already fetched.
+   * 
+   * @param callInfo Call info.
+   * @param oldData Old data expected.
+   * @param newData New data expected.
+   * @param stateNow Current query results for the data source, 
+   *   or <code>null</code> if they should be fetched as needed.
+   * @throws DBAssertionError If the assertion fails.
+   * @throws InvalidOperationException If the arguments are invalid. 
+   * @see #requiresQuery(DataSource)
+   */
+  static void deltaAssertion(CallInfo callInfo, DataSet oldData, DataSet newData, DataSet stateNow) {
+    final DeltaAssertion da = newDeltaAssertion(callInfo, oldData, newData, stateNow);
     final DataSource source = oldData.getSource();
-    final DB db = source.getDB();
-    final DataSet snapshot = source.getSnapshot();
-    final DataSet stateNow = source.executeQuery(callInfo, false);
-    final Delta dbDelta = new Delta(snapshot, stateNow);
-    final Delta oldDataMatch 
-      = new Delta(oldData.getRows().iterator(), dbDelta.deleted());
-    final Delta newDataMatch 
-      = new Delta(newData.getRows().iterator(), dbDelta.inserted());
-    final DeltaAssertion da = 
-      new DeltaAssertion(oldData, newData, oldDataMatch, newDataMatch);
-    db.log(callInfo, da);
+    source.getDB().log(callInfo, da);
     source.setDirtyStatus(!da.passed() || oldData.size() > 0 || newData.size() > 0);
     if (!da.passed()) {
       throw new DBAssertionError(callInfo.getMessage());
     }
   }
+
+  /**
+   * Build a delta assertion, without logging or verifying it.
+   * 
+   * @param callInfo Call info.
+   * @param oldData Old data expected.
+   * @param newData New data expected.
+   * @param stateNow Current query results for the data source, 
+   *   or <code>null</code> if they should be fetched as needed.
+   * @return A delta assertion.
+   * @throws InvalidOperationException If the arguments are invalid. 
+   * @see #deltaAssertion(CallInfo, DataSet, DataSet, DataSet)
+   */
+  static DeltaAssertion 
+  newDeltaAssertion(CallInfo callInfo, DataSet oldData, DataSet newData, DataSet stateNow) {
+    validateDeltaAssertion(oldData, newData);
+    final DataSource source = oldData.getSource();
+    final FingerprintSet fingerprints = source.getSnapshotFingerprints();
+    final DeltaAssertion da;
+    if (stateNow == null
+        && oldData.isEmpty() && newData.isEmpty() 
+        && source.matchesSnapshotChecksum(callInfo)) {
+      final Delta noChanges
+        = new Delta(Collections.emptyIterator(), Collections.emptyIterator());
+      da = new DeltaAssertion(oldData, newData, noChanges, noChanges);
+    }
+    else if (fingerprints != null) {
+      da = fingerprintDeltaAssertion(callInfo, source, fingerprints, oldData, newData, stateNow);
+    }
+    else {
+      final int[] key = deltaKey(source);
+      final Delta dbDelta = databaseDelta(callInfo, source, key, stateNow);
+      final RowHasher hasher = source.getRowHasher();
+      final Delta oldDataMatch
+        = new Delta(oldData.getRows().iterator(), dbDelta.deleted(), hasher);
+      final Delta newDataMatch
+        = new Delta(newData.getRows().iterator(), dbDelta.inserted(), hasher);
+      da = new DeltaAssertion(oldData, newData, oldDataMatch, newDataMatch, key);
+    }
+    return da;
+  }
   
+  /**
+   * Build a delta assertion for a data source whose snapshot
+   * only has row fingerprints.
+   * 
+   * <p>
+   * Current rows whose fingerprint is not found in the snapshot are 
+   * taken as inserted rows. Snapshot fingerprints not matched by current rows
+   * identify deleted rows, and are in turn matched against the expected old data.
+   * Snapshot rows are not available, hence unmatched fingerprints are reported
+   * as such by the assertion.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param source Data source.
+   * @param fingerprints Snapshot fingerprints.
+   * @param oldData Old data expected.
+   * @param newData New data expected.
+   * @param stateNow Current query results (may be <code>null</code>).
+   * @return A delta assertion.
+   */
+  private static DeltaAssertion 
+  fingerprintDeltaAssertion(CallInfo callInfo, DataSource source, FingerprintSet fingerprints, 
+                            DataSet oldData, DataSet newData, DataSet stateNow) {
+    final RowHasher hasher = source.getRowHasher();
+    final FingerprintSet.Encoder encoder = new FingerprintSet.Encoder();
+    final FingerprintSet deleted = fingerprints.copy();
+    final ArrayList<Row> inserted = new ArrayList<>();
+    final Consumer<Row> action = r -> { 
+      if (!deleted.remove(encoder.digest(r))) {
+        inserted.add(r);
+      }
+    };
+    if (stateNow != null) {
+      stateNow.getRows().forEach(action);
+    }
+    else if (source.getDB().isEnabled(DB.Option.LOG_QUERIES)) {
+      source.executeQuery(callInfo, false).getRows().forEach(action);
+    }
+    else {
+      source.executeQuery(callInfo, action);
+    }
+    final ArrayList<Row> oldDataErrors = new ArrayList<>();
+    for (Row r : oldData.getRows()) {
+      if (!deleted.remove(encoder.digest(r))) {
+        oldDataErrors.add(r);
+      }
+    }
+    final Delta oldDataMatch
+      = new Delta(oldDataErrors.iterator(), Collections.emptyIterator(), hasher);
+    final Delta newDataMatch
+      = new Delta(newData.getRows().iterator(), inserted.iterator(), hasher);
+    return new DeltaAssertion(oldData, newData, oldDataMatch, newDataMatch, null, deleted);
+  }
+
+  /**
+   * Compute database delta for a data source, i.e., the 
+   * delta between the last snapshot and the current database state.
+   * 
+   * <p>
+   * Rows are matched by key if {@link DB.Option#KEY_BASED_DELTA}
+   * is enabled and the data source is a table with key columns.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param source Data source.
+   * @return The database delta.
+   * @see DeltaResult
+   */
+  static Delta databaseDelta(CallInfo callInfo, DataSource source) {
+    return databaseDelta(callInfo, source, deltaKey(source), null);
+  }
+
+  /**
+   * Check if a delta assertion for a data source requires 
+   * querying the data source entirely.
+   * 
+   * <p>
+   * This is not the case if changes are being captured for the data source
+   * (see {@link DB.Option#CHANGE_CAPTURE}) or a server-side checksum 
+   * was recorded for its last snapshot (see {@link DB.Option#SERVER_CHECKSUMS}).
+   * </p>
+   * 
+   * @param source Data source.
+   * @return <code>true</code> if query results for the data source 
+   *   should be fetched beforehand, when delta assertions are performed 
+   *   for several data sources at once.
+   * @see #deltaAssertion(CallInfo, DataSet, DataSet, DataSet)
+   */
+  static boolean requiresQuery(DataSource source) {
+    return source.hasSnapshot()
+        && !source.hasSnapshotChecksum()
+        && !(source instanceof Table && ((Table) source).getChangeCapture() != null);
+  }
+
+  /**
+   * Compute database delta for a data source, i.e., the 
+   * delta between the last snapshot and the current database state.
+   * 
+   * <p>
+   * If changes are being captured for the data source 
+   * (see {@link DB.Option#CHANGE_CAPTURE}), the delta 
+   * is computed from the changed rows only. 
+   * Otherwise, a merge is tried first if {@link DB.Option#MERGE_DELTA} is enabled
+   * and the data source has a known row order. In this case, unless
+   * {@link DB.Option#LOG_QUERIES} is enabled, the current database
+   * state is not kept in memory, and the query is executed again 
+   * if the merge fails.
+   * Otherwise, the delta is computed by key, if <code>key</code>
+   * is not <code>null</code>, and finally by hashing entire rows.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param source Data source.
+   * @param key Key column indices (may be <code>null</code>).
+   * @param prefetched Current query results for the data source
+   *   (may be <code>null</code>).
+   * @return The database delta.
+   */
+  private static Delta 
+  databaseDelta(CallInfo callInfo, DataSource source, int[] key, DataSet prefetched) {
+    final DB db = source.getDB();
+    if (prefetched == null && source instanceof Table) {
+      final ChangeCapture cc = ((Table) source).getChangeCapture();
+      if (cc != null) {
+        return cc.delta(callInfo, (Table) source);
+      }
+    }
+    final DataSet snapshot = source.getSnapshot();
+    final RowOrder order = source.getRowOrder();
+    final RowHasher hasher = source.getRowHasher();
+    DataSet stateNow = prefetched;
+    Delta dbDelta = null;
+    if (order != null && db.isEnabled(DB.Option.MERGE_DELTA)) {
+      Delta.Merge merge = new Delta.Merge(snapshot.getRows().iterator(), order, hasher);
+      if (stateNow != null) {
+        stateNow.getRows().forEach(merge::next);
+      }
+      else if (db.isEnabled(DB.Option.LOG_QUERIES)) {
+        stateNow = source.executeQuery(callInfo, false);
+        stateNow.getRows().forEach(merge::next);
+      }
+      else {
+        source.executeQuery(callInfo, merge::next);
+      }
+      dbDelta = merge.end();
+    }
+    if (dbDelta == null) {
+      if (stateNow == null) {
+        stateNow = source.executeQuery(callInfo, false);
+      }
+      if (key != null) {
+        dbDelta = Delta.byKey(snapshot.getRows().iterator(),
+                              stateNow.getRows().iterator(),
+                              key,
+                              hasher);
+      }
+      if (dbDelta == null) {
+        dbDelta = delta(db, snapshot, stateNow);
+      }
+    }
+    return dbDelta;
+  }
+
+  /**
+   * Compute delta between data sets by hashing entire rows.
+   * 
+   * <p>
+   * The delta is computed in parallel if {@link DB.Option#PARALLEL_DELTA} 
+   * is enabled and one of the data sets has at least 
+   * {@link DB#getParallelDeltaThreshold()} rows.
+   * </p>
+   * 
+   * @param db Database handle.
+   * @param ref Reference data set.
+   * @param upd Updated data set.
+   * @return A new delta.
+   */
+  private static Delta delta(DB db, DataSet ref, DataSet upd) {
+    if (db.isEnabled(DB.Option.PARALLEL_DELTA)
+        && Math.max(ref.size(), upd.size()) >= db.getParallelDeltaThreshold()) {
+      return Delta.parallel(ref.getRows(), upd.getRows(), ref.getSource().getRowHasher());
+    }
+    return new Delta(ref, upd);
+  }
+
+  /**
+   * Get key columns to use in delta computation for a data source.
+   * @param source Data source.
+   * @return Key column indices, or <code>null</code> if
+   *   {@link DB.Option#KEY_BASED_DELTA} is disabled or the data source
+   *   is not a table with key columns.
+   */
+  private static int[] deltaKey(DataSource source) {
+    if (source instanceof Table
+        && source.getDB().isEnabled(DB.Option.KEY_BASED_DELTA)) {
+      Table table = (Table) source;
+      if (!table.getKeyColumns().isEmpty()) {
+        return table.getKeyColumnIndices();
+      }
+    }
+    return null;
+  }
+
   @SuppressWarnings("javadoc")
   private static void
   validateDeltaAssertion(DataSet oldData, DataSet newData) {
@@ -80,7 +341,7 @@ final class DBAssert {
     if (oldData.getSource() != newData.getSource()) {
       throw new InvalidOperationException("Data source mismatch between data sets.");
     }
-    if (oldData.getSource().getSnapshot() == null) {
+    if (!oldData.getSource().hasSnapshot()) {
       throw new InvalidOperationException("Undefined snapshot for data source.");
     } 
   }
@@ -96,6 +357,16 @@ final class DBAssert {
   static void stateAssertion(CallInfo callInfo, DataSet expected) {
     DataSource source =  expected.getSource();
     source.setDirtyStatus(true);
+    if (passFailOnly(source.getDB()) 
+        && !source.getDB().isEnabled(DB.Option.LOG_QUERIES)) {
+      // Stream query results, stopping at the first unmatched row.
+      final RowMultiset expectedRows = multiset(expected);
+      if (!source.executeQueryWhile(callInfo, r -> expectedRows.update(r, -1) >= 0) 
+          || !expectedRows.isEmpty()) {
+        throw new DBAssertionError(callInfo.getMessage());
+      }
+      return;
+    }
     dataSetAssertion(callInfo, 
                      expected,   
                      source.executeQuery(callInfo, false));
@@ -113,7 +384,13 @@ final class DBAssert {
   static void dataSetAssertion(CallInfo callInfo, DataSet expected, DataSet actual) {
     validateDataSetAssertion(expected, actual);
     DataSource source = expected.getSource();
-    Delta delta = new Delta(expected, actual); 
+    if (passFailOnly(source.getDB())) {
+      if (!quickMatch(expected, actual)) {
+        throw new DBAssertionError(callInfo.getMessage());
+      }
+      return;
+    }
+    Delta delta = delta(source.getDB(), expected, actual); 
     DataSetAssertion assertion = new DataSetAssertion(expected, delta);
     source.getDB().log(callInfo, assertion);
     
@@ -122,6 +399,47 @@ final class DBAssert {
     }
   }
 
+  /**
+   * Check if only the outcome of assertions matters, i.e., 
+   * if assertions are not logged.
+   * @param db Database handle.
+   * @return <code>true</code> if neither {@link DB.Option#LOG_ASSERTIONS}
+   *   nor {@link DB.Option#LOG_ASSERTION_ERRORS} are enabled.
+   */
+  private static boolean passFailOnly(DB db) {
+    return !db.isEnabled(DB.Option.LOG_ASSERTIONS) 
+        && !db.isEnabled(DB.Option.LOG_ASSERTION_ERRORS);
+  }
+
+  /**
+   * Check if two data sets are equivalent, stopping 
+   * at the first mismatch found.
+   * @param expected Expected data.
+   * @param actual Actual data.
+   * @return <code>true</code> if the data sets are equivalent.
+   */
+  private static boolean quickMatch(DataSet expected, DataSet actual) {
+    if (expected.size() != actual.size()) {
+      return false;
+    }
+    RowMultiset expectedRows = multiset(expected);
+    for (Row r : actual.getRows()) {
+      if (expectedRows.update(r, -1) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static RowMultiset multiset(DataSet data) {
+    RowMultiset ms = new RowMultiset(data.getSource().getRowHasher());
+    for (Row r : data.getRows()) {
+      ms.update(r, 1);
+    }
+    return ms;
+  }
+
   @SuppressWarnings("javadoc")
   private static void
   validateDataSetAssertion(DataSet expected, DataSet actual) {
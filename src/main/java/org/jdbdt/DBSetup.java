@@ -24,10 +24,17 @@
 
 package org.jdbdt;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Utility class with methods for database setup.
@@ -92,44 +99,450 @@ final class DBSetup {
    * @param data Data set.
    */
   private static void doPopulate(CallInfo callInfo, Table table, DataSet data) {
-    doDeleteAll(callInfo, table);
-    doInsert(callInfo, table, data);
+    DataSet[] changes = incrementalChanges(callInfo, table, data);
+    applyDeletes(callInfo, table, changes);
+    applyUpdatesAndInserts(callInfo, table, data, changes);
+    populated(callInfo, table, data);
+  }
+
+  /**
+   * Complete the population of a table, setting the data set as 
+   * the table's snapshot.
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param data Data set.
+   */
+  private static void populated(CallInfo callInfo, Table table, DataSet data) {
     table.setSnapshot(data);
+    table.getDB().access(callInfo, () -> {
+      table.setSnapshotChecksum();
+      return 0;
+    });
+    table.captureChanges(callInfo);
+  }
+
+  /**
+   * Populate database with several data sets, in foreign key order, 
+   * if {@link DB.Option#FOREIGN_KEY_ORDER} is enabled.
+   * 
+   * <p>
+   * All tables are cleared first, in reverse dependency order, and 
+   * data sets are then inserted level by level (see {@link TableDependencies}).
+   * The data sets in each level are inserted in parallel if configured
+   * (see {@link DB#setParallelPopulate(javax.sql.DataSource, int)}).
+   * If {@link DB.Option#INCREMENTAL_POPULATE} is enabled, 
+   * rows are instead deleted from all tables first, in reverse dependency order, 
+   * and then updated and inserted, in dependency order.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param dataSets Data sets.
+   * @param ifChanged Indicates that only changed tables should be populated.
+   * @return <code>true</code> if tables were populated, <code>false</code> if 
+   *   foreign key order does not apply, i.e., if the option is disabled, 
+   *   or the data sets are not all defined for tables of the same database.
+   * @see #populate(CallInfo, DataSet)
+   * @see #populateIfChanged(CallInfo, DataSet)
+   */
+  static boolean populate(CallInfo callInfo, DataSet[] dataSets, boolean ifChanged) {
+    if (dataSets == null || dataSets.length < 2) {
+      return false;
+    }
+    final DB db = dataSets[0].getSource().getDB();
+    if (!db.isEnabled(DB.Option.FOREIGN_KEY_ORDER)) {
+      return false;
+    }
+    final List<Table> tables = new ArrayList<>();
+    final Map<Table, DataSet> dataFor = new HashMap<>();
+    for (DataSet data : dataSets) {
+      Table table = asTable(data.getSource());
+      if (table.getDB() != db) {
+        return false;
+      }
+      if (!ifChanged || table.getDirtyStatus()) {
+        tables.add(table);
+        dataFor.put(table, data);
+      }
+    }
+    final List<List<Table>> levels = 
+      db.access(callInfo, () -> TableDependencies.levels(db, tables));
+    for (Table table : tables) {
+      table.setDirtyStatus(true);
+    }
+    if (db.isEnabled(DB.Option.INCREMENTAL_POPULATE)) {
+      final Map<Table, DataSet[]> changesFor = new HashMap<>();
+      for (Table table : tables) {
+        changesFor.put(table, incrementalChanges(callInfo, table, dataFor.get(table)));
+      }
+      for (int i = levels.size() - 1; i >= 0; i--) {
+        List<Table> level = levels.get(i);
+        for (int j = level.size() - 1; j >= 0; j--) {
+          applyDeletes(callInfo, level.get(j), changesFor.get(level.get(j)));
+        }
+      }
+      for (List<Table> level : levels) {
+        for (Table table : level) {
+          applyUpdatesAndInserts(callInfo, table, dataFor.get(table), changesFor.get(table));
+          populated(callInfo, table, dataFor.get(table));
+        }
+      }
+      return true;
+    }
+    for (int i = levels.size() - 1; i >= 0; i--) {
+      List<Table> level = levels.get(i);
+      for (int j = level.size() - 1; j >= 0; j--) {
+        doDeleteAll(callInfo, level.get(j));
+      }
+    }
+    for (List<Table> level : levels) {
+      insertLevel(callInfo, db, level, dataFor);
+      for (Table table : level) {
+        populated(callInfo, table, dataFor.get(table));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Insert data sets for a level of independent tables,
+   * in parallel if possible.
+   * @param callInfo Call info.
+   * @param db Database handle.
+   * @param level Tables.
+   * @param dataFor Data set per table.
+   * @see DB#setParallelPopulate(javax.sql.DataSource, int)
+   */
+  private static void 
+  insertLevel(CallInfo callInfo, DB db, List<Table> level, Map<Table, DataSet> dataFor) {
+    final javax.sql.DataSource xds = db.getParallelPopulateDataSource();
+    final List<Table> nonEmpty = new ArrayList<>();
+    for (Table table : level) {
+      if (!dataFor.get(table).isEmpty()) {
+        nonEmpty.add(table);
+      }
+    }
+    if (xds == null 
+        || nonEmpty.size() < 2 
+        || !db.access(callInfo, () -> db.getConnection().getAutoCommit())) {
+      for (Table table : nonEmpty) {
+        doInsert(callInfo, table, dataFor.get(table));
+      }
+      return;
+    }
+    final boolean batchMode = db.useBatchUpdates();
+    final int maxBatchSize = db.getMaximumBatchUpdateSize();
+    final List<Callable<Integer>> tasks = new ArrayList<>();
+    for (Table table : nonEmpty) {
+      // Meta-data is resolved here, over the database handle's connection.
+      final String sql = insertSQL(table, 1);
+      final DataSet data = dataFor.get(table);
+      db.logDataSetOperation(callInfo, data);
+      tasks.add(() -> insert(xds, table, data, sql, batchMode, maxBatchSize));
+    }
+    db.access(callInfo, () -> ConcurrentQueries.run(db, tasks, db.getParallelPopulateThreads()));
+  }
+
+  /**
+   * Insert a data set over a new connection, in a single transaction.
+   * 
+   * <p>
+   * A bulk loader is used if one applies (see {@link DB#setBulkLoadThreshold(int)}),
+   * otherwise rows are inserted using <code>sql</code>.
+   * </p>
+   * 
+   * @param xds Source of connections.
+   * @param table Table.
+   * @param data Data set.
+   * @param sql SQL code for insertion of one row.
+   * @param batchMode Use batch updates.
+   * @param maxBatchSize Maximum batch size (0 for no limit).
+   * @return Number of inserted rows.
+   * @throws SQLException if a database error occurs.
+   */
+  private static int insert(javax.sql.DataSource xds, Table table, DataSet data, 
+                            String sql, boolean batchMode, int maxBatchSize) throws SQLException {
+    final DB db = table.getDB();
+    final BulkLoader loader = db.getBulkLoader();
+    try (Connection conn = xds.getConnection()) {
+      final boolean autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+      try {
+        boolean loaded = 
+          loader != null
+          && db.getBulkLoadThreshold() > 0 
+          && data.size() >= db.getBulkLoadThreshold()
+          && loader.load(conn, table, () -> data.getRows().stream().map(Row::data).iterator());
+        if (!loaded) {
+          try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setRows(stmt, table, data, allColumns(table.getColumnCount()), batchMode, maxBatchSize);
+          }
+        }
+        conn.commit();
+      }
+      catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      }
+      finally {
+        conn.setAutoCommit(autoCommit);
+      }
+    }
+    return data.size();
+  }
+
+  /**
+   * Compute the changes required to populate a table incrementally,
+   * if {@link DB.Option#INCREMENTAL_POPULATE} is enabled.
+   * 
+   * <p>
+   * The table must have key columns. Changes are given by 
+   * captured changes if the data set is the table's last snapshot
+   * and changes are being captured for it (see {@link DB.Option#CHANGE_CAPTURE}),
+   * or otherwise by comparing the current table contents with the data set by key.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param data Data set.
+   * @return Data sets with the rows to delete, update and insert, in this order, 
+   *   or <code>null</code> if incremental population does not apply, 
+   *   e.g., if key values are not unique.
+   */
+  private static DataSet[] incrementalChanges(CallInfo callInfo, Table table, DataSet data) {
+    if (!table.getDB().isEnabled(DB.Option.INCREMENTAL_POPULATE) 
+        || table.getKeyColumns().isEmpty()) {
+      return null;
+    }
+    final int[] key = table.getKeyColumnIndices();
+    final Iterator<Row> toRemove, toAdd;
+    final ChangeCapture cc = table.getChangeCapture();
+    if (cc != null && table.getSnapshot() == data) {
+      Delta changes = cc.delta(callInfo, table);
+      toRemove = changes.inserted();
+      toAdd = changes.deleted();
+    } 
+    else {
+      Delta changes = Delta.byKey(table.executeQuery(callInfo, false).getRows().iterator(), 
+                                  data.getRows().iterator(), 
+                                  key, 
+                                  table.getRowHasher());
+      if (changes == null) {
+        return null;
+      }
+      toRemove = changes.deleted();
+      toAdd = changes.inserted();
+    }
+    final LinkedHashMap<Row, Row> removeByKey = new LinkedHashMap<>();
+    while (toRemove.hasNext()) {
+      Row r = toRemove.next();
+      if (removeByKey.put(Delta.key(r, key), r) != null) {
+        return null;
+      }
+    }
+    final DataSet deletes = new DataSet(table);
+    final DataSet updates = new DataSet(table);
+    final DataSet inserts = new DataSet(table);
+    while (toAdd.hasNext()) {
+      Row r = toAdd.next();
+      if (removeByKey.remove(Delta.key(r, key)) != null) {
+        updates.addRow(r);
+      } else {
+        inserts.addRow(r);
+      }
+    }
+    for (Row r : removeByKey.values()) {
+      deletes.addRow(r);
+    }
+    return new DataSet[] { deletes, updates, inserts };
+  }
+
+  /**
+   * Delete rows from a table, as the first step of its population.
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param changes Incremental changes, or <code>null</code> if all rows
+   *   should be deleted.
+   * @see #incrementalChanges(CallInfo, Table, DataSet)
+   */
+  private static void applyDeletes(CallInfo callInfo, Table table, DataSet[] changes) {
+    if (changes == null) {
+      doDeleteAll(callInfo, table);
+    }
+    else if (!changes[0].isEmpty()) {
+      delete(callInfo, changes[0]);
+    }
+  }
+
+  /**
+   * Update and insert rows in a table, as the second step of its population.
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param data Data set.
+   * @param changes Incremental changes, or <code>null</code> if all rows
+   *   of the data set should be inserted.
+   * @see #incrementalChanges(CallInfo, Table, DataSet)
+   */
+  private static void 
+  applyUpdatesAndInserts(CallInfo callInfo, Table table, DataSet data, DataSet[] changes) {
+    if (changes == null) {
+      doInsert(callInfo, table, data);
+      return;
+    }
+    if (!changes[1].isEmpty()) {
+      update(callInfo, changes[1]);
+    }
+    if (!changes[2].isEmpty()) {
+      doInsert(callInfo, table, changes[2]);
+    }
   }
 
   /**
    * Utility method to perform actual data insertion.
+   * The data set is logged once, before rows are inserted 
+   * by a bulk loader, multi-row inserts, or one row at a time.
    * @param callInfo Call Info.
    * @param table Table.
    * @param data Data set.
    */
   private static void doInsert(CallInfo callInfo, Table table, DataSet data) {
+    DB db = table.getDB();
+    int columnCount = table.getColumnCount();
+    db.logDataSetOperation(callInfo, data);
+    if (db.getBulkLoadThreshold() > 0 
+        && data.size() >= db.getBulkLoadThreshold()
+        && bulkLoad(callInfo, table, data)) {
+      return;
+    }
+    int rowsPerStatement = db.isEnabled(DB.Option.MULTI_ROW_INSERTS) ? 
+        db.getDialect().maxInsertParameters() / columnCount : 0;
+    if (rowsPerStatement > 1 && data.size() > 1) {
+      multiRowInsert(callInfo, table, data, rowsPerStatement);
+      return;
+    }
+    executeRows(callInfo, table, data, insertSQL(table, 1), allColumns(columnCount));
+  }
+
+  /**
+   * Get parameter columns for statements that take all columns in order.
+   * @param columnCount Number of columns.
+   * @return Array with column index <code>i</code> for parameter <code>i+1</code>.
+   */
+  private static int[] allColumns(int columnCount) {
+    int[] paramCols = new int[columnCount];
+    for (int i=0; i < columnCount; i++) {
+      paramCols[i] = i;
+    }
+    return paramCols;
+  }
+
+  /**
+   * Insert rows using a bulk loader, if available.
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param data Data set.
+   * @return <code>true</code> if the rows were inserted.
+   * @see DB#setBulkLoadThreshold(int)
+   */
+  private static boolean bulkLoad(CallInfo callInfo, Table table, DataSet data) {
+    DB db = table.getDB();
+    BulkLoader loader = db.getBulkLoader();
+    if (loader == null) {
+      return false;
+    }
+    checkColumnCount(table, data);
+    Iterable<Object[]> rows = () -> data.getRows().stream().map(Row::data).iterator();
+    return db.access(callInfo, () -> loader.load(db.getConnection(), table, rows));
+  }
+
+  /**
+   * Check that all rows of a data set have the table's number of columns,
+   * before any of them is inserted.
+   * @param table Table.
+   * @param data Data set.
+   * @throws InvalidOperationException If a row has an invalid number of columns.
+   */
+  private static void checkColumnCount(Table table, DataSet data) {
+    int columnCount = table.getColumnCount();
+    for (Row r : data.getRows()) {
+      if (r.length() != columnCount) {
+        throw new InvalidOperationException("Invalid number of columns for update.");
+      }
+    }
+  }
+
+  /**
+   * Get SQL code for row insertion.
+   * @param table Table.
+   * @param rows Number of rows to insert.
+   * @return An <code>INSERT</code> statement with <code>rows</code> rows
+   *   in the <code>VALUES</code> clause.
+   */
+  static String insertSQL(Table table, int rows) {
     StringBuilder sql = new StringBuilder("INSERT INTO ");
-    List<String> tableColumns = table.getColumns();
-    int columnCount = tableColumns.size();
-    int[] paramIdx = new int[columnCount];
-    int param = 0;
-    Iterator<String> itr = tableColumns.iterator();
-    String col = itr.next();
-    
-    paramIdx[param] = ++param;
+    Iterator<String> itr = table.getColumns().iterator();
     sql.append(table.getName())
        .append('(')
-       .append(col);
-    
+       .append(itr.next());
     while (itr.hasNext()) {
-      paramIdx[param] = ++param;
-      col = itr.next();
       sql.append(',')
-         .append(col);
+         .append(itr.next());
     }
-    sql.append(") VALUES (?");
-    for (int i=1; i < columnCount; i++) {
-      sql.append(",?");
+    sql.append(") VALUES ");
+    for (int r=0; r < rows; r++) {
+      if (r > 0) {
+        sql.append(',');
+      }
+      sql.append("(?");
+      for (int i=1; i < table.getColumnCount(); i++) {
+        sql.append(",?");
+      }
+      sql.append(')');
     }
-    sql.append(')');
+    return sql.toString();
+  }
 
-    dataSetOperation(callInfo, table, data, sql.toString(), paramIdx);
+  /**
+   * Insert rows using multi-row <code>INSERT</code> statements.
+   * 
+   * <p>
+   * Rows are inserted in chunks of <code>rowsPerStatement</code> rows, 
+   * plus a final chunk for the remaining rows, if any. The statements 
+   * for both chunk sizes are compiled only once (and pooled, if {@link DB.Option#REUSE_STATEMENTS}
+   * is enabled). The number of columns of all rows is checked before
+   * any row is inserted.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param table Table.
+   * @param data Data set.
+   * @param rowsPerStatement Maximum number of rows per statement.
+   * @throws InvalidOperationException If a row has an invalid number of columns.
+   * @see DB.Option#MULTI_ROW_INSERTS
+   */
+  static void multiRowInsert(CallInfo callInfo, Table table, DataSet data, int rowsPerStatement) {
+    DB db = table.getDB();
+    checkColumnCount(table, data);
+    db.access(callInfo, () -> {
+      Iterator<Row> itr = data.getRows().iterator();
+      int remaining = data.size();
+      while (remaining > 0) {
+        int rows = Math.min(rowsPerStatement, remaining);
+        try (WrappedStatement ws = db.compile(insertSQL(table, rows))) {
+          PreparedStatement stmt = ws.getStatement();
+          while (remaining >= rows) {
+            int param = 1;
+            for (int r = 0; r < rows; r++) {
+              for (Object v : itr.next().data()) {
+                stmt.setObject(param++, v);
+              }
+            }
+            stmt.execute();
+            remaining -= rows;
+          }
+        }
+      }
+      return 0;
+    });
   }
 
   /**
@@ -161,12 +574,12 @@ final class DBSetup {
     }
 
     // Build SQL statement
-    int[] paramIdx = new int[columnCount];
+    int[] paramCols = new int[columnCount];
     int param = 0;
     StringBuilder sql = new StringBuilder("UPDATE ");
     Iterator<String> itr = columnsToUpdate.iterator();
     String col = itr.next();
-    paramIdx[tableColumns.indexOf(col)] = ++param;
+    paramCols[param++] = tableColumns.indexOf(col);
     sql.append(table.getName())
        .append(" SET ")
        .append(col)
@@ -174,7 +587,7 @@ final class DBSetup {
     
     while (itr.hasNext()) {
       col = itr.next();
-      paramIdx[tableColumns.indexOf(col)] = ++param;
+      paramCols[param++] = tableColumns.indexOf(col);
       sql.append(',')
          .append(col)
          .append("=?");
@@ -182,21 +595,57 @@ final class DBSetup {
     
     itr = keyColumns.iterator();
     col = itr.next();
-    paramIdx[tableColumns.indexOf(col)] = ++param;
+    paramCols[param++] = tableColumns.indexOf(col);
     sql.append(WHERE_)
        .append(col)
        .append("=?");
     
     while (itr.hasNext()) {
       col = itr.next();
-      paramIdx[tableColumns.indexOf(col)] = ++param;
+      paramCols[param++] = tableColumns.indexOf(col);
       sql.append(AND_)
          .append(col)
          .append("=?");
     }
     
     table.setDirtyStatus(true);
-    dataSetOperation(callInfo, table, data, sql.toString(), paramIdx);
+    dataSetOperation(callInfo, table, data, sql.toString(), paramCols);
+  }
+
+  /**
+   * Merge data set onto the database, inserting rows 
+   * or updating rows with the same key.
+   * 
+   * <p>
+   * The data set must relate to a table with a defined key (see {@link TableBuilder#key(String...)}.
+   * </p>
+   * 
+   * @param callInfo Call Info.
+   * @param data Data set.
+   * @see Dialect#mergeSQL(String, List, List, List)
+   */
+  static void merge(CallInfo callInfo, DataSet data) {
+    Table table = asTable(data.getSource()); 
+    List<String> keyColumns = table.getKeyColumns();
+    
+    if (keyColumns.isEmpty()) {
+      throw new InvalidOperationException("No key columns defined.");
+    }
+
+    List<String> tableColumns = table.getColumns();
+    List<String> params = new ArrayList<>();
+    String sql = table.getDB().getDialect().mergeSQL(table.getName(), tableColumns, keyColumns, params);
+
+    if (sql == null) {
+      throw new InvalidOperationException("Merge is not supported for the database engine.");
+    }
+
+    int[] paramCols = new int[params.size()];
+    for (int p = 0; p < paramCols.length; p++) {
+      paramCols[p] = tableColumns.indexOf(params.get(p));
+    }
+    table.setDirtyStatus(true);
+    dataSetOperation(callInfo, table, data, sql, paramCols);
   }
 
   /**
@@ -218,12 +667,12 @@ final class DBSetup {
     
     List<String> tableColumns = table.getColumns();
     int param = 0;
-    int[] paramIdx = new int[tableColumns.size()];
+    int[] paramCols = new int[keyColumns.size()];
     Iterator<String> itr = keyColumns.iterator();
     StringBuilder sql = new StringBuilder();
     String kcol = itr.next();
     
-    paramIdx[tableColumns.indexOf(kcol)] = ++param;
+    paramCols[param++] = tableColumns.indexOf(kcol);
     sql.append(DELETE_FROM_)
        .append(table.getName())
        .append(WHERE_)
@@ -232,58 +681,64 @@ final class DBSetup {
     
     while (itr.hasNext()) {
       kcol = itr.next();
-      paramIdx[tableColumns.indexOf(kcol)] = ++param;
+      paramCols[param++] = tableColumns.indexOf(kcol);
       sql.append(AND_)
          .append(kcol)
          .append("=?");
     }
    
     table.setDirtyStatus(true);
-    dataSetOperation(callInfo, table, data, sql.toString(), paramIdx);
+    dataSetOperation(callInfo, table, data, sql.toString(), paramCols);
   }
   
   @SuppressWarnings("javadoc")
-  private static void dataSetOperation(CallInfo callInfo, Table table, DataSet data, String sql, int[] paramIndex) {
+  private static void dataSetOperation(CallInfo callInfo, Table table, DataSet data, String sql, int[] paramColumns) {
+    table.getDB().logDataSetOperation(callInfo, data);
+    executeRows(callInfo, table, data, sql, paramColumns);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void executeRows(CallInfo callInfo, Table table, DataSet data, String sql, int[] paramColumns) {
     DB db = table.getDB();
     boolean batchMode = db.useBatchUpdates();
     int maxBatchSize = db.getMaximumBatchUpdateSize();
-    int columnCount = table.getColumnCount();
 
-    db.logDataSetOperation(callInfo, data);
-    
     db.access(callInfo, () -> {
       try(WrappedStatement ws = db.compile(sql)) {
-        PreparedStatement stmt = ws.getStatement();
-        int batchSize = 0;
-        for (Row r : data.getRows()) {
-          Object[] colValues = r.data();
-          if (colValues.length != columnCount) {
-            throw new InvalidOperationException("Invalid number of columns for update.");
-          }
-          for (int c = 0; c < colValues.length; c++) {
-            int iParam = paramIndex[c];
-            if (iParam != 0) {
-              stmt.setObject(iParam, colValues[c]);   
-            }
-          }
-          if (batchMode) {
-            stmt.addBatch();
-            batchSize++;
-            if (batchSize == maxBatchSize) {
-              stmt.executeBatch();
-              batchSize = 0;
-            }
-          } else {
-            stmt.execute();
-          }
-        }
-        if (batchMode && batchSize > 0 ) {
-          stmt.executeBatch();
-        }
+        setRows(ws.getStatement(), table, data, paramColumns, batchMode, maxBatchSize);
       }
       return 0;
     });
   }
+
+  @SuppressWarnings("javadoc")
+  private static void setRows(PreparedStatement stmt, Table table, DataSet data, int[] paramColumns, 
+                              boolean batchMode, int maxBatchSize) throws SQLException {
+    int columnCount = table.getColumnCount();
+    int batchSize = 0;
+    for (Row r : data.getRows()) {
+      Object[] colValues = r.data();
+      if (colValues.length != columnCount) {
+        throw new InvalidOperationException("Invalid number of columns for update.");
+      }
+      for (int p = 0; p < paramColumns.length; p++) {
+        stmt.setObject(p + 1, colValues[paramColumns[p]]);   
+      }
+      if (batchMode) {
+        stmt.addBatch();
+        batchSize++;
+        if (batchSize == maxBatchSize) {
+          stmt.executeBatch();
+          batchSize = 0;
+        }
+      } else {
+        stmt.execute();
+      }
+    }
+    if (batchMode && batchSize > 0 ) {
+      stmt.executeBatch();
+    }
+  }
   /**
    * Delete all data from table.
    * @param callInfo Call info.
@@ -328,7 +783,11 @@ final class DBSetup {
       }
       return 0;
     });
-
+    // Triggers do not fire on truncation.
+    ChangeCapture cc = db.getChangeCapture(table.getName());
+    if (cc != null) {
+      cc.invalidate();
+    }
   }
 
   /**
@@ -368,12 +827,14 @@ final class DBSetup {
    */
   static void drop(CallInfo callInfo, DB db, String tableName) {
     String sql = String.format("DROP TABLE %s", tableName);
+    db.removeChangeCapture(tableName);
     db.access(callInfo, () -> {
       db.logSetup(callInfo, sql);
       try (WrappedStatement ws = db.compile(sql)) {
         PreparedStatement dropStmt = ws.getStatement();
         dropStmt.execute();
       }
+      db.schemaChanged();
       return 0; 
     });
   }
@@ -387,8 +848,34 @@ final class DBSetup {
    * @return The value obtained through {@link PreparedStatement#getUpdateCount()}, after executing the statement.
    */
   static int execute(CallInfo callInfo, DB db, String sql, Object[] args) {
+    return doExecute(callInfo, db, sql, args, isDDL(sql));
+  }
+
+  /**
+   * Execute SQL code for auxiliary database objects created by JDBDT
+   * (e.g., for change capture).
+   * 
+   * <p>
+   * Unlike {@link #execute(CallInfo, DB, String, Object[])}, DDL statements 
+   * do not discard cached meta-data and statements, since auxiliary 
+   * objects are not used as data sources.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param db Database.
+   * @param sql SQL statement.
+   * @return The value obtained through {@link PreparedStatement#getUpdateCount()}, after executing the statement.
+   * @see DB#schemaChanged()
+   */
+  static int executeAuxiliary(CallInfo callInfo, DB db, String sql) {
+    return doExecute(callInfo, db, sql, null, false);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int doExecute(CallInfo callInfo, DB db, String sql, Object[] args, boolean schemaChange) {
     return db.access(callInfo, () -> {
       db.logSetup(callInfo, sql);
+      final int count;
       try (WrappedStatement ws = db.compile(sql)) {
         PreparedStatement stmt = ws.getStatement();
         if (args != null && args.length != 0) {
@@ -397,11 +884,40 @@ final class DBSetup {
           }
         }
         stmt.execute();
-        return stmt.getUpdateCount();
+        count = stmt.getUpdateCount();
       }
+      if (schemaChange) {
+        db.schemaChanged();
+      }
+      return count;
     });
   }
 
+  /**
+   * Check if SQL code is a DDL statement that may change 
+   * the structure of tables.
+   * @param sql SQL code.
+   * @return <code>true</code> if <code>sql</code> starts with 
+   *   <code>CREATE</code>, <code>ALTER</code>, <code>DROP</code> or <code>RENAME</code>.
+   * @see DB.Option#CACHE_METADATA
+   */
+  static boolean isDDL(String sql) {
+    String s = sql.trim();
+    int end = 0;
+    while (end < s.length() && Character.isLetter(s.charAt(end))) {
+      end++;
+    }
+    switch (s.substring(0, end).toUpperCase()) {
+      case "CREATE":
+      case "ALTER":
+      case "DROP":
+      case "RENAME":
+        return true;
+      default:
+        return false;
+    }
+  }
+
   /**
    * Private constructor to prevent instantiation.
    */
@@ -25,7 +25,7 @@
 package org.jdbdt;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -45,7 +45,7 @@ public class DataSet {
   /**
    * Rows in the data set.
    */
-  private final ArrayList<Row> rows;
+  private final List<Row> rows;
 
   /**
    * Read-only flag.
@@ -65,7 +65,7 @@ public class DataSet {
    * @param ds Data source.
    * @param list Row list. 
    */
-  DataSet(DataSource ds, ArrayList<Row> list) {
+  DataSet(DataSource ds, List<Row> list) {
     this.source = ds;
     this.rows = list;
   }
@@ -339,10 +339,25 @@ public class DataSet {
   }
 
   /**
-   * Sort rows in data set by row hash code (for testing purposes only).
+   * Sort rows in data set by row hash (for testing purposes only).
+   * @see DataSource#getRowHasher()
    */
   final void normalizeRowOrder() {
-    Collections.sort(rows, (a,b) -> Integer.compare(a.hashCode(), b.hashCode()));    
+    final RowHasher hasher = source.getRowHasher();
+    final int n = rows.size();
+    final long[] hash = new long[n];
+    final Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      hash[i] = hasher.hash(rows.get(i));
+      order[i] = i;
+    }
+    Arrays.sort(order, (a,b) -> Long.compare(hash[a], hash[b]));
+    Row[] sorted = new Row[n];
+    for (int i = 0; i < n; i++) {
+      sorted[i] = rows.get(order[i]);
+    }
+    rows.clear();
+    rows.addAll(Arrays.asList(sorted));
   }
   
   /**
@@ -24,13 +24,15 @@
 
 package org.jdbdt;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Base class for data sources.
@@ -51,10 +53,22 @@ public abstract class DataSource {
   private MetaData metaData = null;
 
   /**
-   * Columns.
+   * Columns (resolved lazily along with meta-data).
    */
   private List<String> columns;
 
+  /**
+   * Call info for data source creation, kept until 
+   * meta-data is resolved (<code>null</code> afterwards).
+   */
+  private CallInfo pendingCallInfo;
+
+  /**
+   * Case-sensitive column names, as set at creation time 
+   * (see {@link DB.Option#CASE_SENSITIVE_COLUMN_NAMES}).
+   */
+  private final boolean caseSensitiveColumns;
+
   /**
    * SQL code for query.
    */
@@ -70,6 +84,28 @@ public abstract class DataSource {
    */
   private DataSet snapshot = null;
 
+  /**
+   * Fingerprints for last snapshot, if taken with 
+   * {@link DB.Option#FINGERPRINT_SNAPSHOTS} enabled.
+   */
+  private FingerprintSet snapshotFingerprints = null;
+
+  /**
+   * Fetch size for queries (negative if not set).
+   */
+  private int fetchSize = -1;
+
+  /**
+   * Timeout for queries in seconds (negative if not set).
+   */
+  private int queryTimeout = -1;
+
+  /**
+   * Server-side checksum for last snapshot, if taken with
+   * {@link DB.Option#SERVER_CHECKSUMS} enabled.
+   */
+  private String snapshotChecksum = null;
+
   /**
    * The empty data set, as returned by {@link JDBDT#empty(DataSource)}
    * (computed lazily).
@@ -81,6 +117,22 @@ public abstract class DataSource {
    */
   private boolean dirty;
 
+  /**
+   * Row order for query results (<code>null</code> if unknown).
+   */
+  private RowOrder rowOrder = null;
+
+  /**
+   * ORDER BY fields for query results, kept until 
+   * row order is resolved (<code>null</code> afterwards).
+   */
+  private String[] orderByFields = null;
+
+  /**
+   * Row hasher (computed lazily).
+   */
+  private RowHasher rowHasher = null;
+
   /**
    * Constructor.
    * @param callInfo Call info.
@@ -93,27 +145,31 @@ public abstract class DataSource {
     this.querySQL = sql;
     this.queryArgs = queryArgs;
     this.dirty = true;
-    db.access(callInfo, () -> {
-      try (WrappedStatement stmt = db.compile(querySQL)) {
-        MetaData md = new MetaData(stmt.getStatement());
-        String[] cols = new String[md.getColumnCount()];
-        boolean caseSensitive = db.isEnabled(DB.Option.CASE_SENSITIVE_COLUMN_NAMES);
-        for (int i = 0; i < cols.length; i++) {
-          String cname = md.getLabel(i);
-          String cnameUC = cname.toUpperCase();
-          if (caseSensitive && !cname.equals(cnameUC)) {
-            cname = '\"' + cname +  '\"';
-          } else {
-            cname = cnameUC;
-          }
-          cols[i] = cname;
-        }
-        columns = Collections.unmodifiableList(Arrays.asList(cols));
-        metaData = md;
+    this.pendingCallInfo = callInfo;
+    this.caseSensitiveColumns = db.isEnabled(DB.Option.CASE_SENSITIVE_COLUMN_NAMES);
+  }
+
+  /**
+   * Resolve meta-data for the data source query, if not done yet.
+   * 
+   * <p>
+   * Meta-data is resolved on first use, rather than on creation,
+   * such that no database access is required for data sources that 
+   * are never used. Database errors (e.g., for an invalid query) 
+   * are reported at that point, against the call that created the data source.
+   * </p>
+   */
+  private void resolveMetaData() {
+    if (pendingCallInfo != null) {
+      db.access(pendingCallInfo, () -> {
+        metaData = db.getMetaData(querySQL);
+        columns = metaData.getColumnNames(caseSensitiveColumns);
         return 0;
-      }
-    });
+      });
+      pendingCallInfo = null;
+    }
   }
+
   /**
    * Constructor with supplied columns (testing purposes only).
    * @param db Database handle.
@@ -125,9 +181,11 @@ public abstract class DataSource {
     this.queryArgs = null;
     this.dirty = true;
     this.metaData = null;
+    this.pendingCallInfo = null;
+    this.caseSensitiveColumns = db.isEnabled(DB.Option.CASE_SENSITIVE_COLUMN_NAMES);
     ArrayList<String> list = new ArrayList<>();
     for (String c : columns) {
-      if (!db.isEnabled(DB.Option.CASE_SENSITIVE_COLUMN_NAMES)) {
+      if (!caseSensitiveColumns) {
         c = c.toUpperCase();
       }
       list.add(c);
@@ -151,6 +209,7 @@ public abstract class DataSource {
    * @return The list of columns for the data source.
    */
   public final List<String> getColumns() {
+    resolveMetaData();
     return columns;
   }
 
@@ -159,7 +218,7 @@ public abstract class DataSource {
    * @return Column count.
    */
   public final int getColumnCount() {
-    return columns.size();
+    return getColumns().size();
   }
 
   /**
@@ -168,12 +227,81 @@ public abstract class DataSource {
    * @return Name of column.
    */
   public final String getColumnName(int index) {
+    final List<String> columns = getColumns();
     if (index < 0 || index >= columns.size()) {
       throw new InvalidOperationException("Invalid column index: " + index);
     }
     return columns.get(index);
   }
 
+  /**
+   * Get index of column.
+   * 
+   * <p>
+   * Column names are matched in case-insensitive manner, unless
+   * {@link DB.Option#CASE_SENSITIVE_COLUMN_NAMES} was enabled
+   * when the data source was created.
+   * </p>
+   * 
+   * @param name Column name.
+   * @return Index of the column or <code>-1</code> if there is no such column.
+   */
+  final int getColumnIndex(String name) {
+    final List<String> columns = getColumns();
+    for (int i = 0; i < columns.size(); i++) {
+      String col = columns.get(i);
+      if (caseSensitiveColumns ? col.equals(name) : col.equalsIgnoreCase(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get row hasher for this data source.
+   * 
+   * <p>
+   * The hasher is derived from the data source's meta-data,
+   * or is {@link RowHasher#GENERIC} if no meta-data is available.
+   * </p>
+   * 
+   * @return Row hasher.
+   */
+  final RowHasher getRowHasher() {
+    if (rowHasher == null) {
+      final MetaData md = getMetaData();
+      rowHasher = md != null ? new RowHasher(md) : RowHasher.GENERIC;
+    }
+    return rowHasher;
+  }
+
+  /**
+   * Get row order for query results.
+   * @return Row order, or <code>null</code> if unknown.
+   */
+  final RowOrder getRowOrder() {
+    if (orderByFields != null) {
+      rowOrder = RowOrder.resolve(this, orderByFields);
+      orderByFields = null;
+    }
+    return rowOrder;
+  }
+
+  /**
+   * Set row order for query results.
+   * 
+   * <p>
+   * The row order is resolved on first use 
+   * (see {@link RowOrder#resolve(DataSource, String[])}).
+   * </p>
+   * 
+   * @param fields ORDER BY fields of the data source query.
+   */
+  final void setRowOrder(String[] fields) {
+    orderByFields = fields;
+    rowOrder = null;
+  }
+
   /**
    * Array list shared by all data set instances returned 
    * by {@link #theEmptySet()}.
@@ -198,6 +326,7 @@ public abstract class DataSource {
    * @return Meta-data for the data source query.
    */
   final MetaData getMetaData() {
+    resolveMetaData();
     return metaData;
   }
 
@@ -217,6 +346,44 @@ public abstract class DataSource {
     return querySQL;
   }
 
+  /**
+   * Get fetch size for queries.
+   * @return Fetch size defined for this data source, or 
+   *   the database handle's setting if not defined.
+   * @see DB#getFetchSize()
+   * @since 1.5
+   */
+  public final int getFetchSize() {
+    return fetchSize >= 0 ? fetchSize : db.getFetchSize();
+  }
+
+  /**
+   * Set fetch size for queries.
+   * @param size Fetch size (0 for driver default).
+   */
+  final void setFetchSize(int size) {
+    fetchSize = size;
+  }
+
+  /**
+   * Get timeout for queries.
+   * @return Timeout in seconds defined for this data source, or 
+   *   the database handle's setting if not defined.
+   * @see DB#getQueryTimeout()
+   * @since 1.5
+   */
+  public final int getQueryTimeout() {
+    return queryTimeout >= 0 ? queryTimeout : db.getQueryTimeout();
+  }
+
+  /**
+   * Set timeout for queries.
+   * @param seconds Timeout in seconds (0 for no limit).
+   */
+  final void setQueryTimeout(int seconds) {
+    queryTimeout = seconds;
+  }
+
   /**
    * Execute query.
    * @param callInfo Call info.
@@ -224,18 +391,146 @@ public abstract class DataSource {
    * @return Result of query.
    */
   final DataSet executeQuery(CallInfo callInfo, boolean takeSnapshot) {
-    DataSet data = new DataSet(this);
+    DataSet data = newQueryDataSet(takeSnapshot);
+    try {
+      return db.access(callInfo, () -> {
+        try (WrappedStatement ws = db.compile(getSQLForQuery())) {
+          if (!takeSnapshot 
+              || !(this instanceof Table) 
+              || !ParallelSnapshot.fetch((Table) this, data)) {
+            proceedWithQuery(ws.getStatement(), r -> { 
+              data.addRow(r); 
+              return true; 
+            });
+          }
+        }
+        return completeQuery(callInfo, data, takeSnapshot);
+      });
+    }
+    catch (RuntimeException e) {
+      discardQuery(data);
+      throw e;
+    }
+  }
+
+  /**
+   * Create a data set for query results.
+   * @param takeSnapshot Indicates that the results are for a snapshot.
+   * @return A new data set, whose storage depends on the database handle settings
+   *   (see {@link DB.Option#FINGERPRINT_SNAPSHOTS}, {@link DB.Option#OFF_HEAP_SNAPSHOTS}, 
+   *   {@link DB.Option#COLUMNAR_SNAPSHOTS}, and {@link DB#setSpillThreshold(int)}).
+   */
+  final DataSet newQueryDataSet(boolean takeSnapshot) {
+    final MetaData metaData = getMetaData();
+    if (metaData == null) {
+      return new DataSet(this);
+    }
+    if (!takeSnapshot) {
+      return db.getSpillThreshold() > 0 ? 
+          new DataSet(this, new SpillRowList(metaData.getColumnCount(), db.getSpillThreshold()))
+        : new DataSet(this);
+    }
+    if (db.isEnabled(DB.Option.FINGERPRINT_SNAPSHOTS)) {
+      return new DataSet(this, new FingerprintRowList());
+    }
+    if (db.isEnabled(DB.Option.OFF_HEAP_SNAPSHOTS)) {
+      return new DataSet(this, new OffHeapRowList(metaData.getColumnCount(), db.getOffHeapSegmentSize()));
+    }
+    if (db.isEnabled(DB.Option.COLUMNAR_SNAPSHOTS)) {
+      return new DataSet(this, new ColumnarRowList(metaData));
+    }
+    return new DataSet(this);
+  }
+
+  /**
+   * Discard query results that are no longer needed, 
+   * e.g., the results of a query that failed.
+   * 
+   * <p>
+   * Resources held by the data set's storage are released, i.e.,
+   * off-heap row lists are sealed. I/O errors are ignored, 
+   * since a query error, if any, is the one to report.
+   * </p>
+   * 
+   * @param data Query results.
+   */
+  static void discardQuery(DataSet data) {
+    if (data.getRows() instanceof OffHeapRowList) {
+      try {
+        ((OffHeapRowList) data.getRows()).seal();
+      }
+      catch (InputOutputException e) {
+        // Ignore.
+      }
+    }
+  }
+
+  /**
+   * Complete query execution, once all rows were fetched.
+   * 
+   * <p>
+   * The data set is set as snapshot if <code>takeSnapshot</code> is set,
+   * and logged if required.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param data Query results.
+   * @param takeSnapshot Indicates that a snapshot should be taken.
+   * @return The <code>data</code> argument.
+   * @throws SQLException if a database error occurs.
+   */
+  final DataSet completeQuery(CallInfo callInfo, DataSet data, boolean takeSnapshot) throws SQLException {
+    if (takeSnapshot) {
+      setSnapshot(data);
+      setSnapshotChecksum();
+      if (this instanceof Table) {
+        ((Table) this).captureChanges(callInfo);
+      }
+      db.logSnapshot(callInfo, data);
+    } else {
+      db.logQuery(callInfo, data);
+    }
+    return data;
+  }
+
+  /**
+   * Execute query, handing over each row to a consumer.
+   * 
+   * <p>
+   * Rows are not retained in a data set and not logged,
+   * regardless of {@link DB.Option#LOG_QUERIES}.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param consumer Row consumer.
+   */
+  final void executeQuery(CallInfo callInfo, Consumer<Row> consumer) {
+    executeQueryWhile(callInfo, r -> { 
+      consumer.accept(r); 
+      return true; 
+    });
+  }
+
+  /**
+   * Execute query, handing over rows to a predicate
+   * while it holds.
+   * 
+   * <p>
+   * Rows are not retained in a data set and not logged,
+   * regardless of {@link DB.Option#LOG_QUERIES}.
+   * Rows are read from the database as they are handed over, hence 
+   * remaining rows are not fetched once the predicate fails.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   * @param predicate Row predicate.
+   * @return <code>true</code> if the predicate held for all rows.
+   */
+  final boolean executeQueryWhile(CallInfo callInfo, Predicate<Row> predicate) {
     return db.access(callInfo, () -> {
       try (WrappedStatement ws = db.compile(getSQLForQuery())) {
-        proceedWithQuery(ws.getStatement(), data);
-        if (takeSnapshot) {
-          setSnapshot(data);
-          db.logSnapshot(callInfo, data);
-        } else {
-          db.logQuery(callInfo, data);
-        }
+        return proceedWithQuery(ws.getStatement(), predicate);
       }
-      return data;
     });
   }
 
@@ -245,42 +540,212 @@ public abstract class DataSource {
    */
   final DataSet getSnapshot() {
     if (snapshot == null) {
-      throw new InvalidOperationException("No snapshot taken!");
+      throw new InvalidOperationException(snapshotFingerprints == null ? 
+          "No snapshot taken!" : "Snapshot only has row fingerprints.");
     }
     return snapshot;
   }
 
+  /**
+   * Get fingerprints for last snapshot.
+   * @return Fingerprints for last snapshot, or <code>null</code>
+   *   if no snapshot was taken or if the snapshot 
+   *   was not taken with {@link DB.Option#FINGERPRINT_SNAPSHOTS} enabled.
+   */
+  final FingerprintSet getSnapshotFingerprints() {
+    return snapshotFingerprints;
+  }
+
+  /**
+   * Check if a snapshot was taken.
+   * @return <code>true</code> if a snapshot (full or fingerprint-only) is defined.
+   */
+  final boolean hasSnapshot() {
+    return snapshot != null || snapshotFingerprints != null;
+  }
+
   /**
    * Set snapshot data.
+   * 
+   * <p>
+   * If {@link DB.Option#FINGERPRINT_SNAPSHOTS} is enabled,
+   * only the fingerprints of the data set rows are kept.
+   * For query results, these are computed as rows are read
+   * (see {@link FingerprintRowList}).
+   * </p>
+   * 
    * @param s Data set to assume as snapshot.
    */
   final void setSnapshot(DataSet s) {
     s.setReadOnly();
-    snapshot = s;
+    if (s.getRows() instanceof OffHeapRowList) {
+      ((OffHeapRowList) s.getRows()).seal();
+    }
+    snapshotChecksum = null;
+    if (s.getRows() instanceof FingerprintRowList) {
+      snapshot = null;
+      snapshotFingerprints = ((FingerprintRowList) s.getRows()).fingerprints();
+      snapshotFingerprints.trimToSize();
+    }
+    else if (db.isEnabled(DB.Option.FINGERPRINT_SNAPSHOTS)) {
+      snapshot = null;
+      snapshotFingerprints = new FingerprintSet(s.getRows());
+    }
+    else {
+      snapshot = s;
+      snapshotFingerprints = null;
+    }
+  }
+
+  /**
+   * Record server-side checksum for last snapshot, if 
+   * {@link DB.Option#SERVER_CHECKSUMS} is enabled.
+   * 
+   * <p>
+   * This method should be called right after {@link #setSnapshot(DataSet)},
+   * before any database changes take place.
+   * </p>
+   * 
+   * @throws SQLException if a database error occurs.
+   */
+  final void setSnapshotChecksum() throws SQLException {
+    if (db.isEnabled(DB.Option.SERVER_CHECKSUMS)) {
+      snapshotChecksum = checksum();
+    }
+  }
+
+  /**
+   * Check if a server-side checksum was recorded for the last snapshot.
+   * @return <code>true</code> if {@link DB.Option#SERVER_CHECKSUMS} 
+   *   is enabled and a checksum was recorded for the last snapshot.
+   */
+  final boolean hasSnapshotChecksum() {
+    return snapshotChecksum != null && db.isEnabled(DB.Option.SERVER_CHECKSUMS);
+  }
+
+  /**
+   * Check if the current query results match the server-side 
+   * checksum recorded for the last snapshot.
+   * @param callInfo Call info.
+   * @return <code>true</code> if {@link DB.Option#SERVER_CHECKSUMS} 
+   *   is enabled, a checksum was recorded for the last snapshot, 
+   *   and it matches the checksum for current query results.
+   */
+  final boolean matchesSnapshotChecksum(CallInfo callInfo) {
+    return snapshotChecksum != null 
+        && db.isEnabled(DB.Option.SERVER_CHECKSUMS)
+        && snapshotChecksum.equals(db.access(callInfo, this::checksum));
+  }
+
+  /**
+   * Compute server-side checksum for current query results.
+   * @return Checksum (row count and aggregate row hashes), or
+   *    <code>null</code> if not supported for the database dialect.
+   * @throws SQLException if a database error occurs.
+   * @see Dialect#checksumSQL(String, List)
+   */
+  private String checksum() throws SQLException {
+    List<String> labels = new ArrayList<>();
+    for (MetaData.ColumnInfo c : getMetaData().columns()) {
+      labels.add(c.label());
+    }
+    String sql = db.getDialect().checksumSQL(getSQLForQuery(), labels);
+    if (sql == null) {
+      return null;
+    }
+    try (WrappedStatement ws = db.compile(sql)) {
+      PreparedStatement stmt = ws.getStatement();
+      if (queryArgs != null) {
+        for (int i = 0; i < queryArgs.length; i++) {
+          stmt.setObject(i + 1, queryArgs[i]);
+        }
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getString(1) + ':' + rs.getString(2) + ':' + rs.getString(3);
+      }
+    }
   }
 
   /**
    * Execute query.
    * @param queryStmt Query statement.
-   * @param ds Target data set.
+   * @param predicate Row predicate, rows are read while it holds.
+   * @return <code>true</code> if the predicate held for all rows.
    * @throws SQLException if a database error occurs.
    */
-  private void proceedWithQuery
-  (PreparedStatement queryStmt, DataSet ds) throws SQLException {
+  private boolean proceedWithQuery
+  (PreparedStatement queryStmt, Predicate<Row> predicate) throws SQLException {
+    final boolean autoCommitSuspended = prepareQuery(queryStmt);
+    try(ResultSet rs = queryStmt.executeQuery()) {
+      RowReader reader = newRowReader();
+      int colCount = reader.getColumnCount();
+      while (rs.next()) {
+        Object[] data = reader.read(rs, new Object[colCount]);
+        if (!predicate.test(new Row(data))) {
+          return false;
+        }
+      }
+    }
+    finally {
+      resumeAutoCommit(autoCommitSuspended);
+    }
+    return true;
+  }
+
+  /**
+   * Create a reader for query result rows.
+   * @return A new row reader.
+   */
+  final RowReader newRowReader() {
+    return new RowReader(getMetaData(), db.getDialect());
+  }
+
+  /**
+   * Prepare statement for query execution.
+   * 
+   * <p>
+   * Query arguments, fetch size and timeout are set for the statement.
+   * Auto-commit mode is also suspended if required by the database 
+   * driver to fetch rows incrementally, in which case it should 
+   * be resumed using {@link #resumeAutoCommit(boolean)} once 
+   * the query results are no longer needed.
+   * </p>
+   * 
+   * @param queryStmt Query statement.
+   * @return <code>true</code> if auto-commit mode was suspended.
+   * @throws SQLException if a database error occurs.
+   */
+  final boolean prepareQuery(PreparedStatement queryStmt) throws SQLException {
     if (queryArgs != null && queryArgs.length > 0) {
       for (int i=0; i < queryArgs.length; i++) {
         queryStmt.setObject(i + 1, queryArgs[i]);
       }
     }
-    try(ResultSet rs = queryStmt.executeQuery()) {
-      int colCount = metaData.getColumnCount();
-      while (rs.next()) {
-        Object[] data = new Object[colCount];
-        for (int i = 0; i < colCount; i++) {  
-          data[i] = rs.getObject(i+1);
-        }
-        ds.addRow(new Row(data));
-      }
+    // Statements may be shared by data sources with the same SQL
+    // (see DB.Option.REUSE_STATEMENTS), hence settings are always applied.
+    final int fetch = getFetchSize();
+    final Dialect dialect = db.getDialect();
+    queryStmt.setFetchSize(dialect.driverFetchSize(fetch));
+    queryStmt.setQueryTimeout(getQueryTimeout());
+    final Connection conn = db.getConnection();
+    if (fetch > 0 
+        && dialect.incrementalFetchRequiresTransaction() 
+        && conn.getAutoCommit()) {
+      conn.setAutoCommit(false);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Resume auto-commit mode after query execution.
+   * @param suspended Value returned by {@link #prepareQuery(PreparedStatement)}.
+   * @throws SQLException if a database error occurs.
+   */
+  final void resumeAutoCommit(boolean suspended) throws SQLException {
+    if (suspended) {
+      db.getConnection().setAutoCommit(true);
     }
   }
 
@@ -24,10 +24,15 @@
 
 package org.jdbdt;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 
 /**
@@ -39,9 +44,9 @@ import java.util.Map.Entry;
 final class Delta {
   /**
    * Record of differences. 
-   * A map is used to keep row counts because data sets are in fact multi-sets.
+   * A multi-set is used to keep row counts because data sets are in fact multi-sets.
    */
-  private final LinkedHashMap<Row, Integer> diff = new LinkedHashMap<>();
+  private final RowMultiset diff;
   
   /**
    * Constructs a new delta.
@@ -49,15 +54,36 @@ final class Delta {
    * @param upd Updated data set.
    */
   Delta(DataSet ref, DataSet upd) {
-    this(ref.getRows().iterator(), upd.getRows().iterator());
+    this(ref.getRows().iterator(), 
+         upd.getRows().iterator(), 
+         ref.getSource().getRowHasher());
   }
   
   /**
-   * Constructs a new delta.
+   * Constructs an empty delta (for use by factory methods).
+   * @param hasher Row hasher.
+   */
+  private Delta(RowHasher hasher) { 
+    diff = new RowMultiset(hasher);
+  }
+
+  /**
+   * Constructs a new delta using generic row hashing.
    * @param a Iterator for 1st row set. 
    * @param b Iterator for 2nd row set.
    */
   Delta(Iterator<Row> a, Iterator<Row> b) {
+    this(a, b, RowHasher.GENERIC);
+  }
+
+  /**
+   * Constructs a new delta.
+   * @param a Iterator for 1st row set. 
+   * @param b Iterator for 2nd row set.
+   * @param hasher Row hasher.
+   */
+  Delta(Iterator<Row> a, Iterator<Row> b, RowHasher hasher) {
+    this(hasher);
     boolean done = false;
     while (!done) {
       if (!a.hasNext()) {
@@ -79,16 +105,325 @@ final class Delta {
     }
   }
 
+  /**
+   * Compute a delta in parallel.
+   * 
+   * <p>
+   * Rows are hashed in parallel, and then partitioned according to 
+   * their hash, such that equal rows fall in the same partition.
+   * A delta is computed for each partition by a separate task in the 
+   * common {@link ForkJoinPool}, and partition results are
+   * finally joined. The number of partitions depends only on the
+   * number of rows, hence the iteration order of the 
+   * result is deterministic (but not the same as for
+   * {@link #Delta(Iterator, Iterator, RowHasher)}).
+   * </p>
+   * 
+   * @param a 1st row list.
+   * @param b 2nd row list.
+   * @param hasher Row hasher.
+   * @return A new delta.
+   */
+  static Delta parallel(List<Row> a, List<Row> b, RowHasher hasher) {
+    final long[] ha = new long[a.size()];
+    final long[] hb = new long[b.size()];
+    Arrays.parallelSetAll(ha, i -> hasher.hash(a.get(i)));
+    Arrays.parallelSetAll(hb, i -> hasher.hash(b.get(i)));
+    final int bits = partitionBits(Math.max(ha.length, hb.length));
+    final int[][] pa = partition(ha, bits);
+    final int[][] pb = partition(hb, bits);
+    final ArrayList<PartitionTask> tasks = new ArrayList<>();
+    for (int p = 0; p < (1 << bits); p++) {
+      tasks.add(new PartitionTask(a, ha, pa[p], b, hb, pb[p], hasher));
+    }
+    ForkJoinTask.invokeAll(tasks);
+    Delta delta = new Delta(hasher);
+    for (PartitionTask task : tasks) {
+      RowMultiset ms = task.result;
+      for (int e = 0; e < ms.entries(); e++) {
+        delta.diff.update(ms.row(e), ms.hash(e), ms.count(e));
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Get number of bits used for partitioning in {@link #parallel}.
+   * @param n Number of rows.
+   * @return A value between 1 and 8 (i.e., 2 to 256 partitions).
+   */
+  private static int partitionBits(int n) {
+    int bits = 1;
+    while (bits < 8 && (n >>> (bits + 15)) > 1) {
+      bits++;
+    }
+    return bits;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int[][] partition(long[] hashes, int bits) {
+    final int shift = 64 - bits;
+    final int[] count = new int[1 << bits];
+    for (long h : hashes) {
+      count[(int) (h >>> shift)]++;
+    }
+    final int[][] parts = new int[count.length][];
+    for (int p = 0; p < count.length; p++) {
+      parts[p] = new int[count[p]];
+      count[p] = 0;
+    }
+    for (int i = 0; i < hashes.length; i++) {
+      int p = (int) (hashes[i] >>> shift);
+      parts[p][count[p]++] = i;
+    }
+    return parts;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static final 
+  class PartitionTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    final List<Row> a, b;
+    final long[] ha, hb;
+    final int[] ia, ib;
+    final RowHasher hasher;
+    RowMultiset result;
+
+    PartitionTask(List<Row> a, long[] ha, int[] ia, List<Row> b, long[] hb, int[] ib, RowHasher hasher) {
+      this.a = a;
+      this.ha = ha;
+      this.ia = ia;
+      this.b = b;
+      this.hb = hb;
+      this.ib = ib;
+      this.hasher = hasher;
+    }
+
+    @Override
+    protected void compute() {
+      RowMultiset ms = new RowMultiset(hasher);
+      int n = Math.max(ia.length, ib.length);
+      for (int i = 0; i < n; i++) {
+        if (i < ia.length) {
+          ms.update(a.get(ia[i]), ha[ia[i]], -1);
+        }
+        if (i < ib.length) {
+          ms.update(b.get(ib[i]), hb[ib[i]], +1);
+        }
+      }
+      result = ms;
+    }
+  }
+
+  /**
+   * Marker for reference rows already matched by key 
+   * (see {@link #byKey(Iterator, Iterator, int[], RowHasher)}).
+   */
+  private static final Row MATCHED = new Row(new Object[0]);
+
+  /**
+   * Compute a delta by matching rows through key columns.
+   * 
+   * <p>
+   * Rows are hashed by the values of the key columns alone, and 
+   * full row comparison is only performed between rows with the
+   * same key. The result is the same as for 
+   * {@link #Delta(Iterator, Iterator, RowHasher)}, 
+   * i.e., a row that changed in non-key columns shows up
+   * both as deleted (old version) and inserted (new version).
+   * </p>
+   * 
+   * @param a Iterator for 1st row set. 
+   * @param b Iterator for 2nd row set.
+   * @param key Indices of key columns.
+   * @param hasher Row hasher.
+   * @return A new delta or <code>null</code> if key values 
+   *   are not unique in the 1st row set, or if a key
+   *   of the 1st row set is matched more than once in the 2nd row set.
+   */
+  static Delta byKey(Iterator<Row> a, Iterator<Row> b, int[] key, RowHasher hasher) {
+    LinkedHashMap<Row, Row> ref = new LinkedHashMap<>();
+    while (a.hasNext()) {
+      Row r = a.next();
+      if (ref.put(key(r, key), r) != null) {
+        return null;
+      }
+    }
+    Delta delta = new Delta(hasher);
+    while (b.hasNext()) {
+      Row r = b.next();
+      Row k = key(r, key);
+      Row old = ref.get(k);
+      if (old == null) {
+        delta.update(r, +1);
+      } 
+      else if (old == MATCHED) {
+        return null;
+      } 
+      else {
+        ref.put(k, MATCHED);
+        if (!hasher.equal(old, r)) {
+          delta.update(old, -1);
+          delta.update(r, +1);
+        }
+      }
+    }
+    for (Row r : ref.values()) {
+      if (r != MATCHED) {
+        delta.update(r, -1);
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Get row formed by key column values.
+   * @param r Row.
+   * @param key Indices of key columns.
+   * @return A new row containing only the key column values of <code>r</code>.
+   */
+  static Row key(Row r, int[] key) {
+    Object[] data = r.data();
+    Object[] kdata = new Object[key.length];
+    for (int i = 0; i < key.length; i++) {
+      kdata[i] = data[key[i]];
+    }
+    return new Row(kdata);
+  }
+
+  /**
+   * Incremental delta computation by merging ordered rows.
+   *
+   * <p>
+   * Reference rows are walked in step with the rows
+   * supplied through {@link #next(Row)}, hence
+   * only differences are kept in memory, rather than a
+   * hash table entry for every row.
+   * Both row sequences must be sorted according
+   * to the same {@link RowOrder}. This is verified as the
+   * merge proceeds, and {@link #end()} yields <code>null</code>
+   * if the verification fails.
+   * </p>
+   *
+   * @since 1.5
+   */
+  static final class Merge {
+    /**
+     * Delta being computed.
+     */
+    private final Delta delta;
+    /**
+     * Row hasher.
+     */
+    private final RowHasher hasher;
+    /**
+     * Reference rows.
+     */
+    private final Iterator<Row> ref;
+    /**
+     * Row order.
+     */
+    private final RowOrder order;
+    /**
+     * Current reference row (<code>null</code> if reference rows are exhausted).
+     */
+    private Row head;
+    /**
+     * Last row supplied to {@link #next(Row)}.
+     */
+    private Row last;
+    /**
+     * Failure flag (set if rows are not ordered).
+     */
+    private boolean failed;
+
+    /**
+     * Constructor.
+     * @param ref Iterator for reference rows.
+     * @param order Row order.
+     * @param hasher Row hasher.
+     */
+    Merge(Iterator<Row> ref, RowOrder order, RowHasher hasher) {
+      this.delta = new Delta(hasher);
+      this.hasher = hasher;
+      this.ref = ref;
+      this.order = order;
+      this.head = ref.hasNext() ? ref.next() : null;
+    }
+
+    /**
+     * Merge next row.
+     * @param r Row.
+     */
+    void next(Row r) {
+      if (failed) {
+        return;
+      }
+      if (last != null && !inOrder(last, r)) {
+        failed = true;
+        return;
+      }
+      last = r;
+      while (head != null) {
+        int c = order.compare(head, r);
+        if (c == RowOrder.INCOMPARABLE) {
+          failed = true;
+          return;
+        }
+        if (c > 0) {
+          delta.update(r, +1);
+          return;
+        }
+        if (c == 0) {
+          break;
+        }
+        delta.update(head, -1);
+        if (!advance()) {
+          return;
+        }
+      }
+      if (head != null && hasher.equal(head, r)) {
+        advance();
+      }
+      else {
+        delta.update(r, +1);
+      }
+    }
+
+    /**
+     * End merge.
+     * @return The computed delta, or <code>null</code> if rows
+     *   were found not to be ordered.
+     */
+    Delta end() {
+      while (!failed && head != null) {
+        delta.update(head, -1);
+        advance();
+      }
+      return failed ? null : delta;
+    }
+
+    @SuppressWarnings("javadoc")
+    private boolean advance() {
+      Row prev = head;
+      head = ref.hasNext() ? ref.next() : null;
+      if (head != null && !inOrder(prev, head)) {
+        failed = true;
+      }
+      return !failed;
+    }
+
+    @SuppressWarnings("javadoc")
+    private boolean inOrder(Row a, Row b) {
+      int c = order.compare(a, b);
+      return c != RowOrder.INCOMPARABLE && c <= 0;
+    }
+  }
+
   @SuppressWarnings("javadoc")
   private void 
   update(Row r, int d) {
-    int n = diff.getOrDefault(r, 0) + d;
-    if (n == 0) {
-      diff.remove(r);
-    }
-    else {
-      diff.put(r, n);
-    } 
+    diff.update(r, d);
   }
   
   /**
@@ -104,7 +439,7 @@ final class Delta {
    * @return Iterator that allows the traversal of deleted rows.
    */
   Iterator<Row> deleted() {
-    return new DeltaIterator(diff.entrySet().iterator(), DELETED_FILTER);
+    return new DeltaIterator(diff, DELETED_FILTER);
   }
   
   /**
@@ -112,9 +447,34 @@ final class Delta {
    * @return Iterator that allows the traversal of deleted rows.
    */
   Iterator<Row> inserted() {
-    return new DeltaIterator(diff.entrySet().iterator(), INSERTED_FILTER);
+    return new DeltaIterator(diff, INSERTED_FILTER);
   }
   
+  /**
+   * Get number of deleted rows.
+   * @return Number of rows in the traversal given by {@link #deleted()}.
+   */
+  int deletedCount() {
+    return count(DELETED_FILTER);
+  }
+
+  /**
+   * Get number of inserted rows.
+   * @return Number of rows in the traversal given by {@link #inserted()}.
+   */
+  int insertedCount() {
+    return count(INSERTED_FILTER);
+  }
+
+  @SuppressWarnings("javadoc")
+  private int count(IteratorFilter filter) {
+    int n = 0;
+    for (int e = 0; e < diff.entries(); e++) {
+      n += filter.eval(diff.count(e));
+    }
+    return n;
+  }
+
   @SuppressWarnings("javadoc")
   @FunctionalInterface
   private interface IteratorFilter {
@@ -130,23 +490,23 @@ final class Delta {
   @SuppressWarnings("javadoc")
   private static final
   class DeltaIterator implements Iterator<Row> {
-    final Iterator<Entry<Row,Integer>> mapItr;
+    final RowMultiset multiset;
     final IteratorFilter filter;
-    Entry<Row,Integer> nextEntry = null;
+    int entry = -1;
+    int nextEntry = -1;
     int repeat = 0;
 
-    DeltaIterator(Iterator<Entry<Row,Integer>> itr, IteratorFilter f) {
-      mapItr = itr;
+    DeltaIterator(RowMultiset ms, IteratorFilter f) {
+      multiset = ms;
       filter = f;
       advance();
     }
 
     private void advance() {
       if (repeat == 0) {
-        nextEntry = null;
-        while (mapItr.hasNext()) {
-          Entry<Row,Integer> entry = mapItr.next();
-          int v = filter.eval(entry.getValue());
+        nextEntry = -1;
+        while (++entry < multiset.entries()) {
+          int v = filter.eval(multiset.count(entry));
           if (v != 0) {
             repeat = v - 1;
             nextEntry = entry; 
@@ -160,15 +520,15 @@ final class Delta {
 
     @Override
     public boolean hasNext() {
-      return nextEntry != null;
+      return nextEntry >= 0;
     }
 
     @Override
     public Row next() {
-      if (nextEntry == null) {
+      if (nextEntry < 0) {
         throw new NoSuchElementException();
       }
-      Row r = nextEntry.getKey();
+      Row r = multiset.row(nextEntry);
       advance();
       return r;
     }
@@ -24,7 +24,13 @@
 
 package org.jdbdt;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Delta assertion.
@@ -70,6 +76,32 @@ final class DeltaAssertion {
    */
   private final Delta newDataMatch;
   
+  /**
+   * Key column indices (<code>null</code> if rows are not matched by key).
+   */
+  private final int[] key;
+
+  /**
+   * Unexpected row updates (computed lazily, only if rows are matched by key).
+   */
+  private List<Update> updates;
+
+  /**
+   * Actual 'old' data not matched and not part of an update.
+   */
+  private List<Row> oldDataErrorsActual;
+
+  /**
+   * Actual 'new' data not matched and not part of an update.
+   */
+  private List<Row> newDataErrorsActual;
+
+  /**
+   * Snapshot fingerprints not matched (<code>null</code> unless 
+   * the snapshot only has row fingerprints).
+   */
+  private final FingerprintSet unmatchedFingerprints;
+
   /**
    * Constructor.
    * @param oldData 'old' data expected
@@ -79,10 +111,53 @@ final class DeltaAssertion {
    */
   DeltaAssertion(DataSet oldData, DataSet newData, Delta oldDataMatch,
       Delta newDataMatch) {
+    this(oldData, newData, oldDataMatch, newDataMatch, null);
+  }
+
+  /**
+   * Constructor with key columns.
+   * 
+   * <p>
+   * If <code>key</code> is not <code>null</code>,
+   * actual 'old' and 'new' data that is not matched
+   * and shares the same key values is reported as row updates
+   * (see {@link #updates()}).
+   * </p>
+   * 
+   * @param oldData 'old' data expected
+   * @param newData 'new' data expected
+   * @param oldDataMatch 'old' data delta
+   * @param newDataMatch 'new' data delta
+   * @param key Key column indices (may be <code>null</code>).
+   */
+  DeltaAssertion(DataSet oldData, DataSet newData, Delta oldDataMatch,
+      Delta newDataMatch, int[] key) {
+    this(oldData, newData, oldDataMatch, newDataMatch, key, null);
+  }
+
+  /**
+   * Constructor with key columns and unmatched snapshot fingerprints.
+   * 
+   * <p>
+   * If <code>unmatchedFingerprints</code> is not <code>null</code>,
+   * the assertion only passes if it is empty. 
+   * </p>
+   * 
+   * @param oldData 'old' data expected
+   * @param newData 'new' data expected
+   * @param oldDataMatch 'old' data delta
+   * @param newDataMatch 'new' data delta
+   * @param key Key column indices (may be <code>null</code>).
+   * @param unmatchedFingerprints Unmatched snapshot fingerprints (may be <code>null</code>).
+   */
+  DeltaAssertion(DataSet oldData, DataSet newData, Delta oldDataMatch,
+      Delta newDataMatch, int[] key, FingerprintSet unmatchedFingerprints) {
     this.oldData = oldData;
     this.newData = newData;
     this.oldDataMatch = oldDataMatch;
     this.newDataMatch = newDataMatch;
+    this.key = key;
+    this.unmatchedFingerprints = unmatchedFingerprints;
   }
   
   /**
@@ -90,7 +165,24 @@ final class DeltaAssertion {
    * @return <code>true</code> If the assertion passed.
    */
   boolean passed() {
-    return oldDataMatch.isEmpty() && newDataMatch.isEmpty();
+    return oldDataMatch.isEmpty() && newDataMatch.isEmpty()
+        && (unmatchedFingerprints == null || unmatchedFingerprints.isEmpty());
+  }
+
+  /**
+   * Get snapshot fingerprints that were not matched.
+   * 
+   * <p>
+   * These identify snapshot rows that are no longer found in the database
+   * but were not expected as 'old' data. 
+   * </p>
+   * 
+   * @return Unmatched fingerprints, or <code>null</code> if the snapshot
+   *   has complete rows (in which case such rows are
+   *   given by {@link IteratorType#OLD_DATA_ERRORS_ACTUAL}).
+   */
+  FingerprintSet unmatchedFingerprints() {
+    return unmatchedFingerprints;
   }
 
   /**
@@ -111,13 +203,15 @@ final class DeltaAssertion {
         itr = oldDataMatch.deleted();
         break;
       case OLD_DATA_ERRORS_ACTUAL:
-        itr = oldDataMatch.inserted();
+        itr = key == null ? oldDataMatch.inserted() 
+                          : pairUpdates().oldDataErrorsActual.iterator();
         break;
       case NEW_DATA_ERRORS_EXPECTED:
         itr = newDataMatch.deleted();
         break;
       case NEW_DATA_ERRORS_ACTUAL:
-        itr = newDataMatch.inserted();
+        itr = key == null ? newDataMatch.inserted() 
+                          : pairUpdates().newDataErrorsActual.iterator();
         break;
       default:
         throw new InternalErrorException("Unexpected case!");      
@@ -125,6 +219,115 @@ final class DeltaAssertion {
     return itr;
   }
 
+  /**
+   * Get unexpected row updates.
+   * 
+   * <p>
+   * Updates are only identified when rows are matched by key,
+   * otherwise the returned list is always empty.
+   * </p>
+   * 
+   * @return List of row updates (old and new versions of a row with the same key)
+   *   that were not expected by the assertion.
+   */
+  List<Update> updates() {
+    return key == null ? Collections.emptyList() : pairUpdates().updates;
+  }
+
+  @SuppressWarnings("javadoc")
+  private DeltaAssertion pairUpdates() {
+    if (updates != null) {
+      return this;
+    }
+    updates = new ArrayList<>();
+    oldDataErrorsActual = new ArrayList<>();
+    newDataErrorsActual = new ArrayList<>();
+    LinkedHashMap<Row, Row> before = new LinkedHashMap<>();
+    Iterator<Row> itr = oldDataMatch.inserted();
+    while (itr.hasNext()) {
+      Row r = itr.next();
+      Row prev = before.put(Delta.key(r, key), r);
+      if (prev != null) {
+        // Duplicate key: do not attempt to pair rows.
+        updates.clear();
+        oldDataErrorsActual.clear();
+        oldDataMatch.inserted().forEachRemaining(oldDataErrorsActual::add);
+        newDataMatch.inserted().forEachRemaining(newDataErrorsActual::add);
+        return this;
+      }
+    }
+    itr = newDataMatch.inserted();
+    while (itr.hasNext()) {
+      Row r = itr.next();
+      Row old = before.remove(Delta.key(r, key));
+      if (old != null) {
+        updates.add(new Update(old, r));
+      } 
+      else {
+        newDataErrorsActual.add(r);
+      }
+    }
+    oldDataErrorsActual.addAll(before.values());
+    return this;
+  }
+
+  /**
+   * Row update, i.e., old and new version of a row with the same key.
+   */
+  static final class Update {
+    /**
+     * Old version of the row.
+     */
+    private final Row before;
+    /**
+     * New version of the row.
+     */
+    private final Row after;
+
+    /**
+     * Constructor.
+     * @param before Old version of the row.
+     * @param after New version of the row.
+     */
+    Update(Row before, Row after) {
+      this.before = before;
+      this.after = after;
+    }
+
+    /**
+     * Get old version of the row.
+     * @return The old version of the row.
+     */
+    Row before() {
+      return before;
+    }
+
+    /**
+     * Get new version of the row.
+     * @return The new version of the row.
+     */
+    Row after() {
+      return after;
+    }
+
+    /**
+     * Get indices of columns that changed.
+     * @return Array with the indices of changed columns.
+     */
+    int[] changedColumns() {
+      Object[] a = before.data();
+      Object[] b = after.data();
+      int[] tmp = new int[a.length];
+      int n = 0;
+      for (int i = 0; i < a.length; i++) {
+        if (!Objects.deepEquals(a[i], b[i])) {
+          tmp[n++] = i;
+        }
+      }
+      return Arrays.copyOf(tmp, n);
+    }
+  }
+
   /**
    * Get data source.
    * @return Data source associate to the assertion.
@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.util.Iterator;
+
+/**
+ * Delta between the last snapshot of a data source and 
+ * the current database state.
+ * 
+ * <p>
+ * A delta result is evaluated lazily: the data source is only 
+ * queried and compared against its snapshot when one of 
+ * {@link #isEmpty()}, {@link #getDeletedCount()}, {@link #getInsertedCount()},
+ * {@link #deleted()} or {@link #inserted()} is first called. 
+ * The result is then kept for subsequent calls. 
+ * </p>
+ * 
+ * @see JDBDT#delta(DataSource)
+ * @since 1.5
+ */
+public final class DeltaResult {
+  /**
+   * Call info.
+   */
+  private final CallInfo callInfo;
+
+  /**
+   * Data source.
+   */
+  private final DataSource source;
+
+  /**
+   * Computed delta (<code>null</code> until evaluated).
+   */
+  private Delta delta;
+
+  /**
+   * Constructor.
+   * @param callInfo Call info.
+   * @param source Data source.
+   * @throws InvalidOperationException if no snapshot with 
+   *   complete rows was taken for the data source.
+   */
+  DeltaResult(CallInfo callInfo, DataSource source) {
+    source.getSnapshot();
+    this.callInfo = callInfo;
+    this.source = source;
+  }
+
+  /**
+   * Get data source.
+   * @return The data source for this delta.
+   */
+  public DataSource getSource() {
+    return source;
+  }
+
+  /**
+   * Check if the delta is empty, i.e., if the current
+   * database state matches the last snapshot.
+   * @return <code>true</code> if no rows were inserted or deleted.
+   */
+  public boolean isEmpty() {
+    return evaluate().isEmpty();
+  }
+
+  /**
+   * Get number of deleted rows.
+   * 
+   * <p>
+   * An updated row counts both as a deleted row (its old contents)
+   * and as an inserted row (its new contents).
+   * </p>
+   * 
+   * @return Number of rows in the snapshot that are no longer found
+   *   in the database.
+   */
+  public int getDeletedCount() {
+    return evaluate().deletedCount();
+  }
+
+  /**
+   * Get number of inserted rows.
+   * 
+   * <p>
+   * An updated row counts both as a deleted row (its old contents)
+   * and as an inserted row (its new contents).
+   * </p>
+   * 
+   * @return Number of rows in the database that are not found 
+   *   in the snapshot.
+   */
+  public int getInsertedCount() {
+    return evaluate().insertedCount();
+  }
+
+  /**
+   * Get iterator for deleted rows.
+   * 
+   * <p>
+   * Each row is given as an array with one value per column 
+   * of the data source, and may be freely modified by the caller.
+   * </p>
+   * 
+   * @return Iterator over rows in the snapshot that are 
+   *   no longer found in the database.
+   */
+  public Iterator<Object[]> deleted() {
+    return values(evaluate().deleted());
+  }
+
+  /**
+   * Get iterator for inserted rows.
+   * 
+   * <p>
+   * Each row is given as an array with one value per column 
+   * of the data source, and may be freely modified by the caller.
+   * </p>
+   * 
+   * @return Iterator over rows in the database that are 
+   *   not found in the snapshot.
+   */
+  public Iterator<Object[]> inserted() {
+    return values(evaluate().inserted());
+  }
+
+  @SuppressWarnings("javadoc")
+  private Delta evaluate() {
+    if (delta == null) {
+      delta = DBAssert.databaseDelta(callInfo, source);
+    }
+    return delta;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static Iterator<Object[]> values(Iterator<Row> itr) {
+    return new Iterator<Object[]>() {
+      @Override
+      public boolean hasNext() {
+        return itr.hasNext();
+      }
+      @Override
+      public Object[] next() {
+        return itr.next().data().clone();
+      }
+    };
+  }
+}
@@ -0,0 +1,485 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database dialect.
+ * 
+ * <p>
+ * Dialects identify database engines for which JDBDT 
+ * may use engine-specific SQL code.
+ * </p>
+ * 
+ * @since 1.5
+ */
+enum Dialect {
+  /** H2. */
+  H2("H2"),
+  /** HSQLDB. */
+  HSQLDB("HSQL Database Engine"),
+  /** Apache Derby. */
+  DERBY("Apache Derby"),
+  /** SQLite. */
+  SQLITE("SQLite"),
+  /** PostgreSQL. */
+  POSTGRESQL("PostgreSQL"),
+  /** MySQL. */
+  MYSQL("MySQL"),
+  /** Other database engines. */
+  OTHER(null);
+
+  /**
+   * Database product name, as reported by the JDBC driver.
+   */
+  private final String productName;
+
+  /**
+   * Constructor.
+   * @param productName Database product name.
+   */
+  private Dialect(String productName) {
+    this.productName = productName;
+  }
+
+  /**
+   * Get dialect for a database product.
+   * @param productName Database product name, as given by
+   *   {@link java.sql.DatabaseMetaData#getDatabaseProductName()}.
+   * @return The corresponding dialect, or {@link #OTHER}
+   *   if the product is not recognized.
+   */
+  static Dialect of(String productName) {
+    for (Dialect d : values()) {
+      if (d.productName != null && d.productName.equalsIgnoreCase(productName)) {
+        return d;
+      }
+    }
+    return OTHER;
+  }
+
+  /**
+   * Check if columns have static types, i.e., all values of
+   * a query result column have the same type.
+   * @return <code>false</code> for SQLite, whose columns may hold 
+   *   values of any type, and for unknown databases.
+   * @see RowReader
+   */
+  boolean hasStaticColumnTypes() {
+    return this != SQLITE && this != OTHER;
+  }
+
+  /**
+   * Get fetch size to pass to the JDBC driver.
+   * @param fetchSize Fetch size requested.
+   * @return For MySQL and a positive fetch size, 
+   *   {@link Integer#MIN_VALUE}, which enables row-by-row streaming
+   *   in the MySQL driver; otherwise <code>fetchSize</code>.
+   */
+  int driverFetchSize(int fetchSize) {
+    return this == MYSQL && fetchSize > 0 ? Integer.MIN_VALUE : fetchSize;
+  }
+
+  /**
+   * Check if the JDBC driver only fetches rows incrementally 
+   * outside auto-commit mode.
+   * @return <code>true</code> for PostgreSQL.
+   */
+  boolean incrementalFetchRequiresTransaction() {
+    return this == POSTGRESQL;
+  }
+
+  /**
+   * Get SQL code to export the snapshot of the current transaction,
+   * so that other transactions may share it.
+   * @return For PostgreSQL, a query for <code>pg_export_snapshot()</code>;
+   *   <code>null</code> otherwise.
+   * @see #importSnapshotSQL(String)
+   */
+  String exportSnapshotSQL() {
+    return this == POSTGRESQL ? "SELECT pg_export_snapshot()" : null;
+  }
+
+  /**
+   * Get SQL code to make the current transaction use an exported snapshot.
+   * The code must be the first statement executed by a transaction
+   * at the <code>REPEATABLE READ</code> isolation level.
+   * @param snapshot Snapshot identifier.
+   * @return SQL code.
+   * @see #exportSnapshotSQL()
+   */
+  String importSnapshotSQL(String snapshot) {
+    return "SET TRANSACTION SNAPSHOT '" + snapshot.replace("'", "''") + "'";
+  }
+
+  /**
+   * Get maximum number of bind parameters for multi-row 
+   * <code>INSERT</code> statements.
+   * 
+   * <p>
+   * The values are conservative: for SQLite, the default limit of 
+   * SQLite versions prior to 3.32; for Derby, a bound that keeps the code 
+   * generated for each statement within the limits of the JVM;
+   * for PostgreSQL and MySQL, the limits imposed by the client/server protocol.
+   * </p>
+   * 
+   * @return Maximum number of parameters, or <code>0</code> for unknown
+   *   databases, for which multi-row <code>INSERT</code> statements 
+   *   are not used.
+   * @see DB.Option#MULTI_ROW_INSERTS
+   */
+  int maxInsertParameters() {
+    switch (this) {
+      case SQLITE:
+        return 999;
+      case DERBY:
+        return 1000;
+      case H2:
+      case HSQLDB:
+      case POSTGRESQL:
+        return 32767;
+      case MYSQL:
+        return 65535;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Get SQL code to merge (insert or update) a row by key.
+   * 
+   * <p>
+   * The statement inserts a row with the given column values,
+   * or updates the non-key columns of the row with the same key values, 
+   * if one exists. It uses <code>MERGE INTO</code> for H2, HSQLDB and Derby, 
+   * <code>INSERT ... ON CONFLICT</code> for PostgreSQL and SQLite, and 
+   * <code>INSERT ... ON DUPLICATE KEY UPDATE</code> for MySQL.
+   * For PostgreSQL and SQLite, the key columns must have 
+   * a primary key or unique constraint.
+   * Derby does not allow <code>VALUES</code> as the source of a merge, 
+   * hence its statement takes some column values more than once.
+   * </p>
+   * 
+   * @param table Table name.
+   * @param columns Table columns.
+   * @param keyColumns Key columns.
+   * @param params List to which the column for each statement parameter
+   *   is added, in order.
+   * @return SQL code, or <code>null</code> if merge is not 
+   *   supported for the dialect.
+   */
+  String mergeSQL(String table, List<String> columns, List<String> keyColumns, List<String> params) {
+    final List<String> nonKeyColumns = new ArrayList<>(columns);
+    nonKeyColumns.removeAll(keyColumns);
+    final String columnList = Misc.sqlArgumentList(columns.toArray(new String[columns.size()]));
+    final StringBuilder sql = new StringBuilder();
+    switch (this) {
+      case H2:
+        sql.append("MERGE INTO ").append(table)
+           .append(" (").append(columnList).append(") KEY (")
+           .append(Misc.sqlArgumentList(keyColumns.toArray(new String[keyColumns.size()])))
+           .append(") VALUES ").append(placeholders(columns.size()));
+        params.addAll(columns);
+        break;
+      case HSQLDB:
+        sql.append("MERGE INTO ").append(table)
+           .append(" AS T USING (VALUES ").append(placeholders(columns.size()))
+           .append(") AS S (").append(columnList).append(") ON ")
+           .append(equalities(keyColumns, " AND ", "T.", "S."));
+        if (!nonKeyColumns.isEmpty()) {
+          sql.append(" WHEN MATCHED THEN UPDATE SET ")
+             .append(equalities(nonKeyColumns, ", ", "", "S."));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList)
+           .append(") VALUES (").append(prefixed(columns, "S.")).append(')');
+        params.addAll(columns);
+        break;
+      case DERBY:
+        sql.append("MERGE INTO ").append(table)
+           .append(" AS T USING SYSIBM.SYSDUMMY1 ON ")
+           .append(equalities(keyColumns, " AND ", "T.", null));
+        params.addAll(keyColumns);
+        if (!nonKeyColumns.isEmpty()) {
+          sql.append(" WHEN MATCHED THEN UPDATE SET ")
+             .append(equalities(nonKeyColumns, ", ", "", null));
+          params.addAll(nonKeyColumns);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList)
+           .append(") VALUES ").append(placeholders(columns.size()));
+        params.addAll(columns);
+        break;
+      case POSTGRESQL:
+      case SQLITE:
+        sql.append("INSERT INTO ").append(table)
+           .append(" (").append(columnList).append(") VALUES ")
+           .append(placeholders(columns.size()))
+           .append(" ON CONFLICT (")
+           .append(Misc.sqlArgumentList(keyColumns.toArray(new String[keyColumns.size()])))
+           .append(nonKeyColumns.isEmpty() ? ") DO NOTHING" : ") DO UPDATE SET ")
+           .append(equalities(nonKeyColumns, ", ", "", "EXCLUDED."));
+        params.addAll(columns);
+        break;
+      case MYSQL: {
+        sql.append("INSERT INTO ").append(table)
+           .append(" (").append(columnList).append(") VALUES ")
+           .append(placeholders(columns.size()))
+           .append(" ON DUPLICATE KEY UPDATE ");
+        // Update a key column to itself if there are no other columns.
+        List<String> updated = nonKeyColumns.isEmpty() ? keyColumns.subList(0, 1) : nonKeyColumns;
+        String sep = "";
+        for (String c : updated) {
+          sql.append(sep).append(c).append("=VALUES(").append(c).append(')');
+          sep = ", ";
+        }
+        params.addAll(columns);
+        break;
+      }
+      default:
+        return null;
+    }
+    return sql.toString();
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String placeholders(int n) {
+    StringBuilder sb = new StringBuilder("(?");
+    for (int i = 1; i < n; i++) {
+      sb.append(",?");
+    }
+    return sb.append(')').toString();
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String equalities(List<String> columns, String sep, String lhs, String rhs) {
+    StringBuilder sb = new StringBuilder();
+    for (String c : columns) {
+      if (sb.length() > 0) {
+        sb.append(sep);
+      }
+      sb.append(lhs).append(c).append('=');
+      if (rhs != null) {
+        sb.append(rhs).append(c);
+      } else {
+        sb.append('?');
+      }
+    }
+    return sb.toString();
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String prefixed(List<String> columns, String prefix) {
+    StringBuilder sb = new StringBuilder();
+    for (String c : columns) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(prefix).append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Get SQL code for an order-independent checksum of query results.
+   * 
+   * <p>
+   * The resulting query yields a single row with 
+   * the row count of the original query, followed by
+   * the sums of two independent hash values computed for each row.
+   * Each row is hashed from a textual encoding of its columns
+   * that distinguishes <code>NULL</code> values and column boundaries.
+   * The query takes the same arguments as the original query.
+   * </p>
+   * 
+   * <p>
+   * Checksums are only supported for H2, PostgreSQL and MySQL, since
+   * the other engines do not provide built-in hash functions.
+   * </p>
+   * 
+   * @param sql SQL code for query.
+   * @param columns Column labels for query results.
+   * @return SQL code for the checksum query, 
+   *   or <code>null</code> if checksums are not supported 
+   *   for the dialect or column labels.
+   */
+  String checksumSQL(String sql, List<String> columns) {
+    if (this != H2 && this != POSTGRESQL && this != MYSQL) {
+      return null;
+    }
+    final char quote = this == MYSQL ? '`' : '"';
+    final HashSet<String> distinct = new HashSet<>();
+    final StringBuilder row = new StringBuilder(this == MYSQL ? "CONCAT(" : "");
+    for (String col : columns) {
+      if (col.indexOf(quote) >= 0 || !distinct.add(col.toUpperCase())) {
+        return null;
+      }
+      if (distinct.size() > 1) {
+        row.append(this == MYSQL ? ", " : " || ");
+      }
+      String q = quote + col + quote;
+      row.append("CASE WHEN ").append(q).append(" IS NULL THEN 'N' ELSE ");
+      if (this == MYSQL) {
+        row.append("CONCAT('V', CHAR_LENGTH(").append(q).append("), ':', ")
+           .append(q).append(')');
+      } else {
+        String s = "CAST(" + q + " AS VARCHAR)";
+        row.append("'V' || LENGTH(").append(s).append(") || ':' || ").append(s);
+      }
+      row.append(" END");
+    }
+    if (this == MYSQL) {
+      row.append(')');
+    }
+    String inner, h1, h2;
+    switch (this) {
+      case H2:
+        inner = row.toString();
+        h1 = "ORA_HASH(x, 4294967295, 0)";
+        h2 = "ORA_HASH(x, 4294967295, 1)";
+        break;
+      case POSTGRESQL:
+        inner = "MD5(" + row + ")";
+        h1 = "('x' || SUBSTR(x, 1, 16))::BIT(64)::BIGINT";
+        h2 = "('x' || SUBSTR(x, 17, 16))::BIT(64)::BIGINT";
+        break;
+      default:
+        inner = "MD5(" + row + ")";
+        h1 = "CAST(CONV(SUBSTRING(x, 1, 16), 16, 10) AS UNSIGNED)";
+        h2 = "CAST(CONV(SUBSTRING(x, 17, 16), 16, 10) AS UNSIGNED)";
+        break;
+    }
+    return String.format("SELECT COUNT(*), SUM(%s), SUM(%s) FROM (SELECT %s AS x FROM (%s) t) u",
+                         h1, h2, inner, sql);
+  }
+
+  /**
+   * Get SQL code to create a change capture table.
+   * 
+   * <p>
+   * The capture table has the key columns of the given table,
+   * and is initially empty.
+   * Change capture is only supported for H2, HSQLDB, Derby and SQLite.
+   * </p>
+   * 
+   * @param captureTable Name of capture table.
+   * @param table Name of table whose changes are captured.
+   * @param keyColumns Key columns of the table.
+   * @return SQL code, or <code>null</code> if change capture 
+   *    is not supported for the dialect.
+   */
+  String captureTableSQL(String captureTable, String table, List<String> keyColumns) {
+    String keys = Misc.sqlArgumentList(keyColumns.toArray(new String[keyColumns.size()]));
+    switch (this) {
+      case H2:
+      case HSQLDB:
+      case DERBY:
+        return String.format("CREATE TABLE %s AS (SELECT %s FROM %s) WITH NO DATA", 
+                             captureTable, keys, table);
+      case SQLITE:
+        return String.format("CREATE TABLE %s AS SELECT %s FROM %s WHERE 0 = 1", 
+                             captureTable, keys, table);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Get SQL code to create change capture triggers.
+   * 
+   * <p>
+   * The triggers record the key values of every row 
+   * inserted, updated (before and after the update) or 
+   * deleted in the given table onto the capture table.
+   * </p>
+   * 
+   * @param captureTable Name of capture table.
+   * @param table Name of table whose changes are captured.
+   * @param keyColumns Key columns of the table.
+   * @return Map from trigger names to the SQL code that creates them
+   *   (empty if change capture is not supported for the dialect).
+   * @see #captureTableSQL(String, String, List)
+   */
+  Map<String, String> captureTriggerSQL(String captureTable, String table, List<String> keyColumns) {
+    LinkedHashMap<String, String> triggers = new LinkedHashMap<>();
+    switch (this) {
+      case H2: {
+        // H2 only supports Java triggers.
+        String name = captureTable + H2ChangeCaptureTrigger.TRIGGER_NAME_SUFFIX;
+        triggers.put(name, 
+            String.format("CREATE TRIGGER %s AFTER INSERT, UPDATE, DELETE ON %s FOR EACH ROW CALL \"%s\"",
+                          name, table, H2ChangeCaptureTrigger.class.getName()));
+        break;
+      }
+      case HSQLDB:
+      case DERBY: {
+        String rowAs = this == HSQLDB ? " ROW AS " : " AS ";
+        String oldKeys = keyValues("O.", keyColumns);
+        String newKeys = keyValues("N.", keyColumns);
+        String format = "CREATE TRIGGER %s AFTER %s ON %s REFERENCING %s FOR EACH ROW INSERT INTO %s VALUES %s";
+        triggers.put(captureTable + "_I", 
+            String.format(format, captureTable + "_I", "INSERT", table, 
+                          "NEW" + rowAs + "N", captureTable, newKeys));
+        triggers.put(captureTable + "_U", 
+            String.format(format, captureTable + "_U", "UPDATE", table, 
+                          "OLD" + rowAs + "O NEW" + rowAs + "N", captureTable, oldKeys + ", " + newKeys));
+        triggers.put(captureTable + "_D", 
+            String.format(format, captureTable + "_D", "DELETE", table, 
+                          "OLD" + rowAs + "O", captureTable, oldKeys));
+        break;
+      }
+      case SQLITE: {
+        String oldKeys = keyValues("OLD.", keyColumns);
+        String newKeys = keyValues("NEW.", keyColumns);
+        String format = "CREATE TRIGGER %s AFTER %s ON %s FOR EACH ROW BEGIN INSERT INTO %s VALUES %s; END";
+        triggers.put(captureTable + "_I", 
+            String.format(format, captureTable + "_I", "INSERT", table, captureTable, newKeys));
+        triggers.put(captureTable + "_U", 
+            String.format(format, captureTable + "_U", "UPDATE", table, captureTable, oldKeys + ", " + newKeys));
+        triggers.put(captureTable + "_D", 
+            String.format(format, captureTable + "_D", "DELETE", table, captureTable, oldKeys));
+        break;
+      }
+      default:
+        break;
+    }
+    return triggers;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String keyValues(String prefix, List<String> keyColumns) {
+    StringBuilder sb = new StringBuilder("(");
+    for (String k : keyColumns) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(prefix).append(k);
+    }
+    return sb.append(')').toString();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.util.AbstractList;
+import java.util.Collection;
+
+/**
+ * Row list that keeps only row fingerprints.
+ * 
+ * <p>
+ * Rows are digested as they are added (see {@link FingerprintSet}) 
+ * and not retained, hence they cannot be read back: {@link #get(int)} 
+ * throws {@link InvalidOperationException}.
+ * The list only supports appending rows.
+ * It is used for snapshots taken with {@link DB.Option#FINGERPRINT_SNAPSHOTS} enabled.
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class FingerprintRowList extends AbstractList<Row> {
+
+  /**
+   * Fingerprints.
+   */
+  private final FingerprintSet fingerprints = new FingerprintSet();
+
+  /**
+   * Constructor.
+   */
+  FingerprintRowList() { }
+
+  /**
+   * Get fingerprints of the rows added so far.
+   * @return Fingerprint set.
+   */
+  FingerprintSet fingerprints() {
+    return fingerprints;
+  }
+
+  @Override
+  public boolean add(Row r) {
+    fingerprints.add(r);
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Row> c) {
+    if (c instanceof FingerprintRowList) {
+      fingerprints.addAll(((FingerprintRowList) c).fingerprints);
+      modCount++;
+      return !c.isEmpty();
+    }
+    boolean changed = false;
+    for (Row r : c) {
+      changed |= add(r);
+    }
+    return changed;
+  }
+
+  @Override
+  public Row get(int i) {
+    throw new InvalidOperationException("Snapshot only has row fingerprints.");
+  }
+
+  @Override
+  public int size() {
+    return fingerprints.size();
+  }
+}
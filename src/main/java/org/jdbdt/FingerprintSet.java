@@ -0,0 +1,438 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Multi-set of row fingerprints.
+ * 
+ * <p>
+ * A fingerprint is a 128-bit (MD5) digest of a canonical binary 
+ * encoding of row values. Fingerprints and their multiplicities
+ * are kept in parallel arrays, in place of full rows, 
+ * for snapshots taken with {@link DB.Option#FINGERPRINT_SNAPSHOTS} enabled.
+ * Fingerprints may be added one row at a time, as rows are read
+ * (see {@link FingerprintRowList}).
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class FingerprintSet {
+  /**
+   * Fingerprint digest algorithm.
+   */
+  private static final String DIGEST = "MD5";
+
+  /**
+   * Initial capacity (number of entries).
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Fingerprint high bits, per entry.
+   */
+  private long[] hi;
+
+  /**
+   * Fingerprint low bits, per entry.
+   */
+  private long[] lo;
+
+  /**
+   * Hash table of entry indices plus 1 (0 for free slots).
+   */
+  private int[] table;
+
+  /**
+   * Number of entries.
+   */
+  private int entries;
+
+  /**
+   * Multiplicity of each entry.
+   */
+  private int[] counts;
+
+  /**
+   * Sum of multiplicities.
+   */
+  private int total;
+
+  /**
+   * Encoder for added rows (created on demand).
+   */
+  private Encoder encoder;
+
+  /**
+   * Constructor for an empty set.
+   */
+  FingerprintSet() {
+    hi = new long[INITIAL_CAPACITY];
+    lo = new long[INITIAL_CAPACITY];
+    counts = new int[INITIAL_CAPACITY];
+    table = new int[2 * INITIAL_CAPACITY];
+  }
+
+  /**
+   * Constructor.
+   * @param rows Rows.
+   */
+  FingerprintSet(Iterable<Row> rows) {
+    this();
+    for (Row r : rows) {
+      add(r);
+    }
+    trimToSize();
+  }
+
+  /**
+   * Copy constructor.
+   * @param other Fingerprint set.
+   */
+  private FingerprintSet(FingerprintSet other) {
+    hi = other.hi;
+    lo = other.lo;
+    table = other.table;
+    entries = other.entries;
+    counts = other.counts.clone();
+    total = other.total;
+  }
+
+  /**
+   * Add the fingerprint of a row.
+   * @param r Row.
+   */
+  void add(Row r) {
+    if (encoder == null) {
+      encoder = new Encoder();
+    }
+    encoder.digest(r);
+    add(encoder.hi, encoder.lo, 1);
+  }
+
+  /**
+   * Add all fingerprints of another set.
+   * @param other Fingerprint set.
+   */
+  void addAll(FingerprintSet other) {
+    for (int e = 0; e < other.entries; e++) {
+      if (other.counts[e] > 0) {
+        add(other.hi[e], other.lo[e], other.counts[e]);
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void add(long h, long l, int count) {
+    int e = find(h, l, hi, lo);
+    if (e < 0) {
+      if (entries == hi.length) {
+        int capacity = Math.max(2 * entries, INITIAL_CAPACITY);
+        hi = Arrays.copyOf(hi, capacity);
+        lo = Arrays.copyOf(lo, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        rehash(2 * capacity);
+        e = find(h, l, hi, lo);
+      }
+      int slot = -e - 1;
+      e = entries++;
+      hi[e] = h;
+      lo[e] = l;
+      table[slot] = e + 1;
+    }
+    counts[e] += count;
+    total += count;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void rehash(int capacity) {
+    table = new int[capacity];
+    for (int e = 0; e < entries; e++) {
+      table[-find(hi[e], lo[e], hi, lo) - 1] = e + 1;
+    }
+  }
+
+  /**
+   * Release unused capacity, once all fingerprints were added.
+   */
+  void trimToSize() {
+    hi = Arrays.copyOf(hi, entries);
+    lo = Arrays.copyOf(lo, entries);
+    counts = Arrays.copyOf(counts, entries);
+    encoder = null;
+  }
+
+  /**
+   * Get a copy of this set, that may be modified
+   * independently using {@link #remove(Encoder)}.
+   * @return A copy of the fingerprint set.
+   */
+  FingerprintSet copy() {
+    return new FingerprintSet(this);
+  }
+
+  /**
+   * Check if set is empty.
+   * @return <code>true</code> if the set has no fingerprints.
+   */
+  boolean isEmpty() {
+    return total == 0;
+  }
+
+  /**
+   * Get number of fingerprints (counting multiplicities).
+   * @return Number of fingerprints.
+   */
+  int size() {
+    return total;
+  }
+
+  /**
+   * Remove one occurrence of the last fingerprint computed by an encoder.
+   * @param enc Encoder.
+   * @return <code>true</code> if the fingerprint was in the set.
+   */
+  boolean remove(Encoder enc) {
+    int e = find(enc.hi, enc.lo, hi, lo);
+    if (e < 0 || counts[e] == 0) {
+      return false;
+    }
+    counts[e]--;
+    total--;
+    return true;
+  }
+
+  /**
+   * Get number of distinct fingerprints.
+   * Entries range from <code>0</code> to <code>entries() - 1</code>.
+   * @return Number of entries.
+   */
+  int entries() {
+    return entries;
+  }
+
+  /**
+   * Get multiplicity of an entry.
+   * @param e Entry index.
+   * @return Multiplicity (may be <code>0</code>).
+   */
+  int count(int e) {
+    return counts[e];
+  }
+
+  /**
+   * Get fingerprint of an entry in hexadecimal form.
+   * @param e Entry index.
+   * @return Hexadecimal string with 32 digits.
+   */
+  String toHexString(int e) {
+    return String.format("%016x%016x", hi[e], lo[e]);
+  }
+
+  /**
+   * Find entry.
+   * @param h High bits.
+   * @param l Low bits.
+   * @param his Entry high bits.
+   * @param los Entry low bits.
+   * @return Entry index if found, otherwise <code>-(slot + 1)</code>,
+   *   where <code>slot</code> is the free table slot for the fingerprint.
+   */
+  private int find(long h, long l, long[] his, long[] los) {
+    int mask = table.length - 1;
+    int i = (int) h & mask;
+    int t;
+    while ((t = table[i]) != 0) {
+      if (his[t - 1] == h && los[t - 1] == l) {
+        return t - 1;
+      }
+      i = (i + 1) & mask;
+    }
+    return -(i + 1);
+  }
+
+  /**
+   * Fingerprint encoder.
+   * 
+   * <p>
+   * Values are encoded along with a type tag, such that 
+   * values of different types never share an encoding.
+   * Encoders are not thread-safe. 
+   * </p>
+   */
+  static final class Encoder {
+    /** Message digest. */
+    private final MessageDigest md;
+    /** Byte buffer. */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    /** Data output stream for buffer. */
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    /** High bits of last fingerprint. */
+    private long hi;
+    /** Low bits of last fingerprint. */
+    private long lo;
+
+    /**
+     * Constructor.
+     */
+    Encoder() {
+      try {
+        md = MessageDigest.getInstance(DIGEST);
+      }
+      catch (NoSuchAlgorithmException e) {
+        throw new InternalErrorException(e);
+      }
+    }
+
+    /**
+     * Compute fingerprint for a row.
+     * @param r Row.
+     * @return The encoder instance, for chained calls.
+     */
+    Encoder digest(Row r) {
+      buffer.reset();
+      try {
+        encode(r.data());
+        out.flush();
+      }
+      catch (IOException e) {
+        throw new InternalErrorException(e);
+      }
+      md.update(buffer.toByteArray());
+      byte[] d = md.digest();
+      hi = bits(d, 0);
+      lo = bits(d, 8);
+      return this;
+    }
+
+    @SuppressWarnings("javadoc")
+    private static long bits(byte[] d, int offset) {
+      long v = 0;
+      for (int i = offset; i < offset + 8; i++) {
+        v = (v << 8) | (d[i] & 0xFF);
+      }
+      return v;
+    }
+
+    @SuppressWarnings("javadoc")
+    private void encode(Object[] values) throws IOException {
+      out.writeInt(values.length);
+      for (Object v : values) {
+        encode(v);
+      }
+    }
+
+    @SuppressWarnings("javadoc")
+    private void encode(Object v) throws IOException {
+      if (v == null) {
+        out.writeByte(0);
+      } 
+      else if (v instanceof Integer) {
+        out.writeByte(1);
+        out.writeInt((Integer) v);
+      } 
+      else if (v instanceof Long) {
+        out.writeByte(2);
+        out.writeLong((Long) v);
+      } 
+      else if (v instanceof String) {
+        out.writeByte(3);
+        writeString((String) v);
+      } 
+      else if (v instanceof BigDecimal) {
+        BigDecimal bd = (BigDecimal) v;
+        out.writeByte(4);
+        out.writeInt(bd.scale());
+        writeBytes(bd.unscaledValue().toByteArray());
+      } 
+      else if (v instanceof Double) {
+        out.writeByte(5);
+        out.writeLong(Double.doubleToLongBits((Double) v));
+      } 
+      else if (v instanceof Float) {
+        out.writeByte(6);
+        out.writeInt(Float.floatToIntBits((Float) v));
+      } 
+      else if (v instanceof Boolean) {
+        out.writeByte(7);
+        out.writeBoolean((Boolean) v);
+      } 
+      else if (v instanceof Short) {
+        out.writeByte(8);
+        out.writeShort((Short) v);
+      } 
+      else if (v instanceof Byte) {
+        out.writeByte(9);
+        out.writeByte((Byte) v);
+      } 
+      else if (v instanceof Timestamp) {
+        out.writeByte(10);
+        out.writeLong(((Timestamp) v).getTime());
+        out.writeInt(((Timestamp) v).getNanos());
+      } 
+      else if (v instanceof Date) {
+        out.writeByte(11);
+        writeString(v.getClass().getName());
+        out.writeLong(((Date) v).getTime());
+      } 
+      else if (v instanceof byte[]) {
+        out.writeByte(12);
+        writeBytes((byte[]) v);
+      } 
+      else if (v instanceof Object[]) {
+        out.writeByte(13);
+        encode((Object[]) v);
+      } 
+      else {
+        out.writeByte(14);
+        writeString(v.getClass().getName());
+        writeString(v.getClass().isArray() ? 
+                      Arrays.deepToString(new Object[] { v }) 
+                    : v.toString());
+      }
+    }
+
+    @SuppressWarnings("javadoc")
+    private void writeString(String s) throws IOException {
+      out.writeInt(s.length());
+      out.writeChars(s);
+    }
+
+    @SuppressWarnings("javadoc")
+    private void writeBytes(byte[] b) throws IOException {
+      out.writeInt(b.length);
+      out.write(b);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.h2.api.Trigger;
+
+/**
+ * H2 trigger for change capture.
+ * 
+ * <p>
+ * H2 only supports triggers implemented in Java. 
+ * This class is instantiated by H2 for every trigger created by
+ * {@link Dialect#captureTriggerSQL(String, String, java.util.List)}, 
+ * and is not meant to be used directly.
+ * The capture table is derived from the trigger name, and the 
+ * positions of key columns from the definitions of the table 
+ * and the capture table. 
+ * </p>
+ * 
+ * @see ChangeCapture
+ * @since 1.5
+ */
+public final class H2ChangeCaptureTrigger implements Trigger {
+  /**
+   * Suffix for trigger names.
+   */
+  static final String TRIGGER_NAME_SUFFIX = "_T";
+
+  /**
+   * Capture table (qualified name).
+   */
+  private String captureTable;
+
+  /**
+   * Position of key columns in table rows.
+   */
+  private int[] keyPositions;
+
+  /**
+   * Connection for which the insert statement was prepared.
+   */
+  private Connection conn;
+
+  /**
+   * Insert statement for the capture table (prepared lazily).
+   */
+  private PreparedStatement insertStmt;
+
+  @Override
+  public void init(Connection conn, String schemaName, String triggerName, 
+                   String tableName, boolean before, int type) throws SQLException {
+    String captureName = 
+        triggerName.substring(0, triggerName.length() - TRIGGER_NAME_SUFFIX.length());
+    captureTable = quote(schemaName) + '.' + quote(captureName);
+    String[] tableColumns = columns(conn, quote(schemaName) + '.' + quote(tableName));
+    String[] keyColumns = columns(conn, captureTable);
+    keyPositions = new int[keyColumns.length];
+    for (int k = 0; k < keyColumns.length; k++) {
+      keyPositions[k] = -1;
+      for (int i = 0; i < tableColumns.length; i++) {
+        if (tableColumns[i].equals(keyColumns[k])) {
+          keyPositions[k] = i;
+          break;
+        }
+      }
+      if (keyPositions[k] < 0) {
+        throw new SQLException("Invalid key column: " + keyColumns[k]);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+    if (insertStmt == null || conn != this.conn) {
+      close();
+      StringBuilder params = new StringBuilder();
+      for (int k = 0; k < keyPositions.length; k++) {
+        params.append(k == 0 ? "?" : ", ?");
+      }
+      insertStmt = conn.prepareStatement("INSERT INTO " + captureTable + " VALUES (" + params + ")");
+      this.conn = conn;
+    }
+    capture(oldRow);
+    capture(newRow);
+  }
+
+  @SuppressWarnings("javadoc")
+  private void capture(Object[] row) throws SQLException {
+    if (row != null) {
+      for (int k = 0; k < keyPositions.length; k++) {
+        insertStmt.setObject(k + 1, row[keyPositions[k]]);
+      }
+      insertStmt.executeUpdate();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws SQLException {
+    if (insertStmt != null) {
+      try {
+        insertStmt.close();
+      }
+      finally {
+        insertStmt = null;
+        conn = null;
+      }
+    }
+  }
+
+  @Override
+  public void remove() throws SQLException {
+    close();
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String[] columns(Connection conn, String table) throws SQLException {
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM " + table + " WHERE 0 = 1")) {
+      ResultSetMetaData md = rs.getMetaData();
+      String[] columns = new String[md.getColumnCount()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = md.getColumnName(i + 1);
+      }
+      return columns;
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String quote(String name) {
+    return '"' + name.replace("\"", "\"\"") + '"';
+  }
+}
@@ -30,8 +30,17 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -320,9 +329,13 @@ public final class JDBDT {
   public static void
   takeSnapshot(DataSource... dataSources)  {
     ensureDistinctDataSources(dataSources, Function.identity());
+    final CallInfo callInfo = CallInfo.create();
+    if (ConcurrentQueries.fetch(callInfo, Arrays.asList(dataSources), true) != null) {
+      return;
+    }
     foreach(dataSources, 
-           (callInfo, dataSource) -> dataSource.executeQuery(callInfo, true), 
-           CallInfo.create());
+           (ci, dataSource) -> dataSource.executeQuery(ci, true), 
+           callInfo);
   }
 
   /**
@@ -335,6 +348,102 @@ public final class JDBDT {
     return dataSource.executeQuery(CallInfo.create(), false);
   }
 
+  /**
+   * Get the delta between the last snapshot of a data source 
+   * and the current database state.
+   * 
+   * <p>
+   * The delta is evaluated lazily, when the returned object is first
+   * inspected, hence it reflects the database state at that point,
+   * rather than at the time of this call.
+   * </p>
+   * 
+   * @param dataSource Data source.
+   * @return A delta result object.
+   * @throws InvalidOperationException if no snapshot was taken for 
+   *   the data source, or if the snapshot only has row fingerprints
+   *   (see {@link DB.Option#FINGERPRINT_SNAPSHOTS}).
+   * @see #takeSnapshot(DataSource)
+   * @see #assertDelta(DataSet, DataSet)
+   * @since 1.5
+   */
+  public static DeltaResult delta(DataSource dataSource) {
+    return new DeltaResult(CallInfo.create(), dataSource);
+  }
+
+  /**
+   * Get a stream for the current rows of a data source.
+   * 
+   * <p>
+   * Rows are read from the database as the stream is consumed,
+   * rather than being held in memory all at once as for {@link #takeSnapshot(DataSource)}. 
+   * Each row is given by an array with the column values. The stream 
+   * holds database resources until all rows are read, hence
+   * it should be closed if that may not be the case, e.g., 
+   * using a <code>try</code>-with-resources statement. 
+   * Rows are not logged, regardless of {@link DB.Option#LOG_QUERIES}.
+   * </p>
+   * 
+   * @param dataSource Data source.
+   * @return A sequential stream of rows.
+   * @see #forEachRow(DataSource, Consumer)
+   * @since 1.5
+   */
+  public static Stream<Object[]> stream(DataSource dataSource) {
+    RowCursor cursor = new RowCursor(CallInfo.create(), dataSource, false);
+    return StreamSupport.stream(
+             Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), 
+             false)
+           .onClose(cursor::close);
+  }
+
+  /**
+   * Hand over the current rows of a data source to a consumer.
+   * 
+   * <p>
+   * A call to this method is equivalent to
+   * <code>forEachRow(dataSource, action, false)</code>.
+   * </p>
+   * 
+   * @param dataSource Data source.
+   * @param action Row consumer.
+   * @see #forEachRow(DataSource, Consumer, boolean)
+   * @since 1.5
+   */
+  public static void forEachRow(DataSource dataSource, Consumer<Object[]> action) {
+    forEachRow(CallInfo.create(), dataSource, action, false);
+  }
+
+  /**
+   * Hand over the current rows of a data source to a consumer.
+   * 
+   * <p>
+   * Rows are read from the database as they are handed over,
+   * rather than being held in memory all at once.
+   * Each row is given by an array with the column values. 
+   * If <code>reuseBuffer</code> is set, the same array is used for all rows, 
+   * hence the consumer should not retain it or modify it.
+   * Rows are not logged, regardless of {@link DB.Option#LOG_QUERIES}.
+   * </p>
+   * 
+   * @param dataSource Data source.
+   * @param action Row consumer.
+   * @param reuseBuffer Indicates if a single row array should be used.
+   * @see #stream(DataSource)
+   * @since 1.5
+   */
+  public static void forEachRow(DataSource dataSource, Consumer<Object[]> action, boolean reuseBuffer) {
+    forEachRow(CallInfo.create(), dataSource, action, reuseBuffer);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void 
+  forEachRow(CallInfo callInfo, DataSource dataSource, Consumer<Object[]> action, boolean reuseBuffer) {
+    try (RowCursor cursor = new RowCursor(callInfo, dataSource, reuseBuffer)) {
+      cursor.forEachRemaining(action);
+    }
+  }
+
   /**
    * Assert that two data sets are equivalent.
    * 
@@ -432,10 +541,23 @@ public final class JDBDT {
   private static void 
   multipleUnchangedAssertions(CallInfo callInfo, DataSource[] dataSources) {
     ensureDistinctDataSources(dataSources, Function.identity());
+    final IdentityHashMap<DataSource, DataSet> prefetched = new IdentityHashMap<>();
+    final List<DataSource> toQuery = new ArrayList<>();
+    for (DataSource dataSource : dataSources) {
+      if (DBAssert.requiresQuery(dataSource)) {
+        toQuery.add(dataSource);
+      }
+    }
+    final List<DataSet> results = ConcurrentQueries.fetch(callInfo, toQuery, false);
+    if (results != null) {
+      for (DataSet data : results) {
+        prefetched.put(data.getSource(), data);
+      }
+    }
     foreach(dataSources,
         (ci, dataSource) -> {
           DataSet emptyDataSet = empty(dataSource);
-          DBAssert.deltaAssertion(ci, emptyDataSet, emptyDataSet);
+          DBAssert.deltaAssertion(ci, emptyDataSet, emptyDataSet, prefetched.get(dataSource));
         },
         callInfo); 
   }
@@ -928,6 +1050,47 @@ public final class JDBDT {
   }
 
 
+  /**
+   * Merge data set onto the database.
+   * 
+   * <p>The data set should be associated to a table
+   * with defined key columns. Each entry of the data set
+   * is inserted, or used to update the row with the same key column values
+   * if one exists, using a single engine-specific statement 
+   * (<code>MERGE INTO</code> for H2, HSQLDB and Derby, <code>INSERT ... ON CONFLICT</code> 
+   * for PostgreSQL and SQLite, or <code>INSERT ... ON DUPLICATE KEY UPDATE</code> for MySQL).
+   * </p>
+   * 
+   * @param data Data set for merge.  
+   * @throws InvalidOperationException if the table has no key columns,
+   *   or if merge is not supported for the database engine.
+   * @see TableBuilder#key(String...)
+   * @see Table#getKeyColumns()
+   * @see #merge(DataSet...)
+   * @see #insert(DataSet)
+   * @see #update(DataSet)
+   * @since 1.5
+   */
+  public static void merge(DataSet data) {
+    DBSetup.merge(CallInfo.create(), data);
+  }
+  
+  /**
+   * Merge data sets onto the database.
+   * 
+   * @param dataSets Data sets for merge.  
+   * @throws InvalidOperationException if a table has no key columns,
+   *   or if merge is not supported for the database engine.
+   * @see #merge(DataSet)
+   * @see #insert(DataSet...)
+   * @see #update(DataSet...)
+   * @since 1.5
+   */
+  @SafeVarargs
+  public static void merge(DataSet... dataSets) {
+    foreach(dataSets, DBSetup::merge, CallInfo.create());
+  }
+
   /**
    * Delete data set from the database.
    * 
@@ -987,6 +1150,11 @@ public final class JDBDT {
   /**
    * Populate database with given data sets.
    * 
+   * <p>
+   * Data sets are processed in argument order, unless
+   * {@link DB.Option#FOREIGN_KEY_ORDER} is enabled.
+   * </p>
+   * 
    * @param dataSets Data sets for insertion.
    * @see #populate(DataSet)
    * @see #populateIfChanged(DataSet)
@@ -998,7 +1166,10 @@ public final class JDBDT {
   @SafeVarargs
   public static void populate(DataSet... dataSets) {
     ensureDistinctDataSources(dataSets, DataSet::getSource);
-    foreach(dataSets, DBSetup::populate, CallInfo.create());
+    CallInfo callInfo = CallInfo.create();
+    if (!DBSetup.populate(callInfo, dataSets, false)) {
+      foreach(dataSets, DBSetup::populate, callInfo);
+    }
   }
 
   /**
@@ -1025,6 +1196,11 @@ public final class JDBDT {
    * Populate database with given data sets if the associated
    * tables are seen as changed.
    * 
+   * <p>
+   * Data sets are processed in argument order, unless
+   * {@link DB.Option#FOREIGN_KEY_ORDER} is enabled.
+   * </p>
+   * 
    * @param dataSets Data sets for insertion.
    * @see #populateIfChanged(DataSet)
    * @see #changed(DataSource...)
@@ -1037,7 +1213,10 @@ public final class JDBDT {
   @SafeVarargs
   public static void populateIfChanged(DataSet... dataSets) {
     ensureDistinctDataSources(dataSets, DataSet::getSource);
-    foreach(dataSets, DBSetup::populateIfChanged, CallInfo.create());
+    CallInfo callInfo = CallInfo.create();
+    if (!DBSetup.populate(callInfo, dataSets, true)) {
+      foreach(dataSets, DBSetup::populateIfChanged, callInfo);
+    }
   }
 
   /**
@@ -38,6 +38,7 @@ import java.sql.SQLException;
 import java.sql.SQLXML;
 import java.sql.Timestamp;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -168,7 +169,12 @@ final class Log implements AutoCloseable {
     Element rootNode = root(callInfo);
     write(rootNode, data.getSource());
     Element dsNode = createNode(rootNode, DATA_SET_TAG);
-    write(dsNode, ROWS_TAG, data.getSource().getMetaData().columns(), data.getRows().iterator());
+    if (data.getRows() instanceof FingerprintRowList) {
+      write(dsNode, ((FingerprintRowList) data.getRows()).fingerprints());
+    }
+    else {
+      write(dsNode, ROWS_TAG, data.getSource().getMetaData().columns(), data.getRows().iterator());
+    }
     flush(rootNode);
   }
 
@@ -278,6 +284,10 @@ final class Log implements AutoCloseable {
           ACTUAL_TAG, 
           mdCols,
           assertion.data(DeltaAssertion.IteratorType.OLD_DATA_ERRORS_ACTUAL));
+      FingerprintSet fingerprints = assertion.unmatchedFingerprints();
+      if (fingerprints != null && !fingerprints.isEmpty()) {
+        write(oldDataErrors, fingerprints);
+      }
       write(newDataErrors, 
           EXPECTED_TAG, 
           mdCols,
@@ -286,6 +296,10 @@ final class Log implements AutoCloseable {
           ACTUAL_TAG, 
           mdCols,
           assertion.data(DeltaAssertion.IteratorType.NEW_DATA_ERRORS_ACTUAL));
+      List<DeltaAssertion.Update> updates = assertion.updates();
+      if (!updates.isEmpty()) {
+        write(errorsNode, mdCols, updates);
+      }
     }
     flush(rootNode);
   }
@@ -349,6 +363,39 @@ final class Log implements AutoCloseable {
     }
     flush(rootNode);
   }
+  @SuppressWarnings("javadoc")
+  private void write(Element parent, List<MetaData.ColumnInfo> columns, List<DeltaAssertion.Update> updates) {
+    Element topNode = createNode(parent, UPDATES_TAG);
+    topNode.setAttribute(COUNT_TAG, String.valueOf(updates.size()));
+    for (DeltaAssertion.Update u : updates) {
+      Element updNode = createNode(topNode, UPDATE_TAG);
+      StringBuilder sb = new StringBuilder();
+      for (int i : u.changedColumns()) {
+        if (sb.length() > 0) {
+          sb.append(',');
+        }
+        sb.append(columns.get(i).label());
+      }
+      updNode.setAttribute(CHANGED_COLUMNS_TAG, sb.toString());
+      write(updNode, OLD_DATA_TAG, columns, Collections.singleton(u.before()).iterator());
+      write(updNode, NEW_DATA_TAG, columns, Collections.singleton(u.after()).iterator());
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void write(Element parent, FingerprintSet fingerprints) {
+    Element topNode = createNode(parent, FINGERPRINTS_TAG);
+    topNode.setAttribute(COUNT_TAG, String.valueOf(fingerprints.size()));
+    for (int e = 0; e < fingerprints.entries(); e++) {
+      int count = fingerprints.count(e);
+      if (count > 0) {
+        Element fpNode = createNode(topNode, FINGERPRINT_TAG);
+        fpNode.setAttribute(COUNT_TAG, String.valueOf(count));
+        fpNode.setTextContent(fingerprints.toHexString(e));
+      }
+    }
+  }
+
   @SuppressWarnings("javadoc")
   private void write(Element parent, String tag, List<MetaData.ColumnInfo> columns, Iterator<Row> itr) {
     int size = 0;
@@ -495,6 +542,16 @@ final class Log implements AutoCloseable {
   @SuppressWarnings("javadoc")
   private static final String ROWS_TAG = "rows";
   @SuppressWarnings("javadoc")
+  private static final String UPDATES_TAG = "updates";
+  @SuppressWarnings("javadoc")
+  private static final String UPDATE_TAG = "update";
+  @SuppressWarnings("javadoc")
+  private static final String CHANGED_COLUMNS_TAG = "changed-columns";
+  @SuppressWarnings("javadoc")
+  private static final String FINGERPRINTS_TAG = "fingerprints";
+  @SuppressWarnings("javadoc")
+  private static final String FINGERPRINT_TAG = "fingerprint";
+  @SuppressWarnings("javadoc")
   private static final String ROW_TAG = "row";
   @SuppressWarnings("javadoc")
   private static final String SQL_TAG = "sql";
@@ -29,6 +29,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -88,6 +89,16 @@ final class MetaData {
    */
   private final List<ColumnInfo> columns;
 
+  /**
+   * Column names for case-insensitive use (computed lazily).
+   */
+  private List<String> columnNames = null;
+
+  /**
+   * Column names for case-sensitive use (computed lazily).
+   */
+  private List<String> columnNamesCS = null;
+
   /**
    * Constructs meta-data from given statement.
    * @param stmt Prepared statement for a query.
@@ -141,5 +152,43 @@ final class MetaData {
   List<ColumnInfo> columns() {
     return columns;
   }
+
+  /**
+   * Get normalized column names.
+   * 
+   * <p>
+   * Column labels are converted to upper case. If <code>caseSensitive</code> is set,
+   * labels that are not in upper case are instead kept as is, enclosed in double quotes.
+   * The list is unmodifiable.
+   * </p>
+   * 
+   * @param caseSensitive Case-sensitive column names 
+   *   (see {@link DB.Option#CASE_SENSITIVE_COLUMN_NAMES}).
+   * @return List of column names.
+   * @since 1.5
+   */
+  List<String> getColumnNames(boolean caseSensitive) {
+    List<String> names = caseSensitive ? columnNamesCS : columnNames;
+    if (names == null) {
+      String[] cols = new String[columns.size()];
+      for (int i = 0; i < cols.length; i++) {
+        String cname = columns.get(i).label();
+        String cnameUC = cname.toUpperCase();
+        if (caseSensitive && !cname.equals(cnameUC)) {
+          cname = '\"' + cname +  '\"';
+        } else {
+          cname = cnameUC;
+        }
+        cols[i] = cname;
+      }
+      names = Collections.unmodifiableList(Arrays.asList(cols));
+      if (caseSensitive) {
+        columnNamesCS = names;
+      } else {
+        columnNames = names;
+      }
+    }
+    return names;
+  }
   
 }
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Row list stored off-heap, in a memory-mapped temporary file.
+ * 
+ * <p>
+ * Rows are stored in a compact binary encoding (see {@link RowCodec}).
+ * Values of types without a binary encoding
+ * are kept on-heap. Only row offsets (8 bytes per row) are 
+ * kept on-heap otherwise, and {@link #get(int)} decodes a fresh row 
+ * for each call, hence rows are never all held in memory at once.
+ * The temporary file is deleted right after creation where the
+ * operating system allows it, or at JVM exit otherwise, and its
+ * space is reclaimed once the list is garbage-collected.
+ * </p>
+ * 
+ * <p>
+ * The list only supports appending rows, until {@link #seal()} is called.
+ * Reading rows is thread-safe once the list is sealed.
+ * It is used for snapshots taken with {@link DB.Option#OFF_HEAP_SNAPSHOTS} enabled.
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class OffHeapRowList extends AbstractList<Row> {
+
+  /**
+   * Default segment size (64 MB).
+   */
+  static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+
+  /**
+   * Number of columns.
+   */
+  private final int columnCount;
+
+  /**
+   * Segment size.
+   */
+  private final int segmentSize;
+
+  /**
+   * File channel (<code>null</code> once sealed).
+   */
+  private FileChannel channel;
+
+  /**
+   * Mapped file segments.
+   */
+  private final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+
+  /**
+   * Row offsets (row <code>i</code> spans <code>offsets[i]</code> to <code>offsets[i+1]</code>).
+   */
+  private long[] offsets = new long[17];
+
+  /**
+   * Number of rows.
+   */
+  private int size;
+
+  /**
+   * Row codec.
+   */
+  private final RowCodec codec = new RowCodec();
+
+  /**
+   * Constructor.
+   * @param columnCount Number of columns.
+   * @param segmentSize Segment size in bytes.
+   */
+  OffHeapRowList(int columnCount, int segmentSize) {
+    this.columnCount = columnCount;
+    this.segmentSize = segmentSize;
+    try {
+      File file = File.createTempFile("jdbdt", ".snapshot");
+      @SuppressWarnings("resource")
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      channel = raf.getChannel();
+      if (!file.delete()) {
+        file.deleteOnExit();
+      }
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+  }
+
+  /**
+   * Seal the list, no more rows may be added afterwards.
+   * The method has no effect if the list is already sealed.
+   */
+  void seal() {
+    if (channel != null) {
+      try {
+        channel.close();
+      }
+      catch (IOException e) {
+        throw new InputOutputException(e);
+      }
+      finally {
+        channel = null;
+        offsets = Arrays.copyOf(offsets, size + 1);
+      }
+    }
+  }
+
+  @Override
+  public boolean add(Row r) {
+    if (channel == null) {
+      throw new InvalidOperationException("Row list is sealed.");
+    }
+    if (r.length() != columnCount) {
+      throw new InternalErrorException("Row length mismatch.");
+    }
+    ByteBuffer buffer = codec.encode(r);
+    long start = offsets[size];
+    long end = start + buffer.remaining();
+    while (buffer.hasRemaining()) {
+      long pos = start + buffer.position();
+      ByteBuffer seg = segment((int) (pos / segmentSize)).duplicate();
+      seg.position((int) (pos % segmentSize));
+      int n = Math.min(seg.remaining(), buffer.remaining());
+      ByteBuffer part = buffer.duplicate();
+      part.limit(part.position() + n);
+      seg.put(part);
+      buffer.position(buffer.position() + n);
+    }
+    if (size + 1 == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    size++;
+    offsets[size] = end;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public Row get(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(Integer.toString(i));
+    }
+    long start = offsets[i];
+    byte[] bytes = new byte[(int) (offsets[i + 1] - start)];
+    int done = 0;
+    while (done < bytes.length) {
+      long pos = start + done;
+      ByteBuffer seg = segments.get((int) (pos / segmentSize)).duplicate();
+      seg.position((int) (pos % segmentSize));
+      int n = Math.min(seg.remaining(), bytes.length - done);
+      seg.get(bytes, done, n);
+      done += n;
+    }
+    return codec.decode(ByteBuffer.wrap(bytes), columnCount);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get number of mapped segments.
+   * @return Number of segments.
+   */
+  int segmentCount() {
+    return segments.size();
+  }
+
+  @SuppressWarnings("javadoc")
+  private MappedByteBuffer segment(int index) {
+    while (segments.size() <= index) {
+      try {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 
+                                 (long) segments.size() * segmentSize, 
+                                 segmentSize));
+      }
+      catch (IOException e) {
+        throw new InputOutputException(e);
+      }
+    }
+    return segments.get(index);
+  }
+}
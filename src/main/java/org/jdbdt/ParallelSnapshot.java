@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parallel snapshot fetching for tables with a numeric key.
+ * 
+ * <p>
+ * The range of key values is split into sub-ranges of equal width,
+ * whose rows are fetched concurrently over separate connections.
+ * </p>
+ * 
+ * @see DB#setParallelSnapshots(javax.sql.DataSource, int)
+ * @since 1.5
+ */
+final class ParallelSnapshot {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private ParallelSnapshot() { }
+
+  /**
+   * Fetch table rows in parallel, if possible.
+   * 
+   * <p>
+   * Rows are fetched in parallel if parallel snapshots are enabled
+   * for the database handle, the table has a single key 
+   * column of an integer type, the table is not empty, 
+   * and the database connection is in auto-commit mode.
+   * </p>
+   * 
+   * <p>
+   * Rows of the first partition are added to <code>data</code> as they are read.
+   * Rows of other partitions are stored as they are read in data sets 
+   * with the same kind of storage (see {@link DataSource#newQueryDataSet(boolean)}),
+   * and then appended to <code>data</code> in partition order.
+   * </p>
+   * 
+   * @param table Table.
+   * @param data Data set where rows are added.
+   * @return <code>true</code> if rows were fetched, 
+   *   <code>false</code> if parallel fetching does not apply.
+   * @throws SQLException if a database error occurs.
+   */
+  static boolean fetch(Table table, DataSet data) throws SQLException {
+    final DB db = table.getDB();
+    final javax.sql.DataSource xds = db.getSnapshotDataSource();
+    if (xds == null 
+        || table.getKeyColumns().size() != 1 
+        || !isIntegral(table.getMetaData().getType(table.getKeyColumnIndices()[0]))
+        || !db.getConnection().getAutoCommit()) {
+      return false;
+    }
+    final String key = table.getColumns().get(table.getKeyColumnIndices()[0]);
+    long min, max;
+    try (WrappedStatement ws = 
+          db.compile(String.format("SELECT MIN(%s), MAX(%s) FROM %s", key, key, table.getName()))) {
+      try (ResultSet rs = ws.getStatement().executeQuery()) {
+        rs.next();
+        min = rs.getLong(1);
+        if (rs.wasNull()) {
+          return false;
+        }
+        max = rs.getLong(2);
+      }
+    }
+    final int n = db.getSnapshotPartitions();
+    final long[] bounds = bounds(min, max, n);
+    final List<DataSet> parts = new ArrayList<>();
+    final List<ConcurrentQueries.Query<DataSet>> queries = new ArrayList<>();
+    for (int p = 0; p < n; p++) {
+      final String where;
+      final long[] args;
+      if (p == 0) {
+        where = String.format("(%s < ? OR %s IS NULL)", key, key);
+        args = new long[] { bounds[1] };
+      } 
+      else if (p == n - 1) {
+        where = key + " >= ?";
+        args = new long[] { bounds[p] };
+      }
+      else {
+        where = String.format("%s >= ? AND %s < ?", key, key);
+        args = new long[] { bounds[p], bounds[p + 1] };
+      }
+      final DataSet part = p == 0 ? data : table.newQueryDataSet(true);
+      parts.add(part);
+      queries.add(conn -> query(conn, table, table.getSQLForQuery(where), args, part));
+    }
+    try {
+      ConcurrentQueries.query(db, xds, queries, n);
+      for (int p = 1; p < n; p++) {
+        // Release each partition once appended.
+        DataSet part = parts.set(p, null);
+        if (data.getRows() instanceof FingerprintRowList) {
+          data.getRows().addAll(part.getRows());
+        }
+        else {
+          for (Row r : part.getRows()) {
+            data.addRow(r);
+          }
+        }
+        DataSource.discardQuery(part);
+      }
+    }
+    finally {
+      for (int p = 1; p < n; p++) {
+        if (parts.get(p) != null) {
+          DataSource.discardQuery(parts.get(p));
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compute partition bounds.
+   * @param min Minimum key value.
+   * @param max Maximum key value.
+   * @param n Number of partitions.
+   * @return Array where position <code>p</code>, for <code>p &gt; 0</code>,
+   *   holds the lower bound of partition <code>p</code> 
+   *   (and the exclusive upper bound of partition <code>p-1</code>).
+   */
+  static long[] bounds(long min, long max, int n) {
+    final BigInteger lo = BigInteger.valueOf(min);
+    final BigInteger span = BigInteger.valueOf(max).subtract(lo).add(BigInteger.ONE);
+    final BigInteger parts = BigInteger.valueOf(n);
+    long[] bounds = new long[n];
+    bounds[0] = min;
+    for (int p = 1; p < n; p++) {
+      bounds[p] = lo.add(span.multiply(BigInteger.valueOf(p)).divide(parts)).longValue();
+    }
+    return bounds;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean isIntegral(JDBCType type) {
+    switch (type) {
+      case TINYINT:
+      case SMALLINT:
+      case INTEGER:
+      case BIGINT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Query a partition.
+   * @param conn Connection.
+   * @param table Table.
+   * @param sql SQL code for the query.
+   * @param args Query arguments.
+   * @param part Data set where rows are added.
+   * @return The <code>part</code> argument.
+   * @throws SQLException if a database error occurs.
+   */
+  private static DataSet 
+  query(Connection conn, Table table, String sql, long[] args, DataSet part) throws SQLException {
+    final Dialect dialect = table.getDB().getDialect();
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (int i = 0; i < args.length; i++) {
+        stmt.setLong(i + 1, args[i]);
+      }
+      stmt.setFetchSize(dialect.driverFetchSize(table.getFetchSize()));
+      stmt.setQueryTimeout(table.getQueryTimeout());
+      try (ResultSet rs = stmt.executeQuery()) {
+        final RowReader reader = table.newRowReader();
+        final int n = reader.getColumnCount();
+        while (rs.next()) {
+          part.addRow(new Row(reader.read(rs, new Object[n])));
+        }
+      }
+      return part;
+    }
+  }
+}
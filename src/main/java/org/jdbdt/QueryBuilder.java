@@ -118,6 +118,21 @@ public final class QueryBuilder  {
    * Query arguments.
    */
   private Object[] queryArgs = { };
+
+  /**
+   * ORDER BY fields (if set).
+   */
+  private String[] orderByFields = null;
+
+  /**
+   * Fetch size (if set).
+   */
+  private Integer fetchSize = null;
+
+  /**
+   * Query timeout (if set).
+   */
+  private Integer queryTimeout = null;
   
   /**
    * Constructs a new query builder.
@@ -205,6 +220,10 @@ public final class QueryBuilder  {
    * Setting the ORDER BY clause will also likely impact 
    * on the performance of query execution, but may be useful 
    * for debugging purposes.
+   * If fields are plain column names (or positions),
+   * optionally followed by <code>ASC</code> or <code>DESC</code>, 
+   * the row order is also used for delta assertions
+   * when {@link DB.Option#MERGE_DELTA} is enabled.
    * </p>
    * 
    * @param fields ORDER BY fields.
@@ -213,6 +232,7 @@ public final class QueryBuilder  {
   @SafeVarargs
   public final QueryBuilder orderBy(String... fields) {
     set(Param.ORDER_BY, fields);
+    orderByFields = fields.clone();
     return this;
   }
 
@@ -252,6 +272,47 @@ public final class QueryBuilder  {
     return this;
   }
   
+  /**
+   * Set fetch size for query.
+   * 
+   * <p>
+   * If not set, the fetch size defined for the database handle applies
+   * (see {@link DB#setFetchSize(int)}).
+   * </p>
+   * 
+   * @param size Fetch size (0 for driver default).
+   * @return The query builder instance for chained calls.
+   * @throws InvalidOperationException for a negative value.
+   * @since 1.5
+   */
+  public final QueryBuilder fetchSize(int size) {
+    if (size < 0) {
+      throw new InvalidOperationException("Invalid fetch size: " + size);
+    }
+    fetchSize = size;
+    return this;
+  }
+
+  /**
+   * Set timeout for query.
+   * 
+   * <p>
+   * If not set, the timeout defined for the database handle applies
+   * (see {@link DB#setQueryTimeout(int)}).
+   * </p>
+   * 
+   * @param seconds Timeout in seconds (0 for no limit).
+   * @return The query builder instance for chained calls.
+   * @throws InvalidOperationException for a negative value.
+   * @since 1.5
+   */
+  public final QueryBuilder queryTimeout(int seconds) {
+    if (seconds < 0) {
+      throw new InvalidOperationException("Invalid query timeout: " + seconds);
+    }
+    queryTimeout = seconds;
+    return this;
+  }
 
   /**
    * Build the query.
@@ -259,7 +320,17 @@ public final class QueryBuilder  {
    * @return A new query instance.
    */
   public final Query build(DB db) {
-    return new Query(CallInfo.create(), db, toSQL(), queryArgs); 
+    Query query = new Query(CallInfo.create(), db, toSQL(), queryArgs);
+    if (orderByFields != null) {
+      query.setRowOrder(orderByFields);
+    }
+    if (fetchSize != null) {
+      query.setFetchSize(fetchSize);
+    }
+    if (queryTimeout != null) {
+      query.setQueryTimeout(queryTimeout);
+    }
+    return query;
   }
   
   @SuppressWarnings("javadoc")
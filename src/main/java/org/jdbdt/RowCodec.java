@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Binary row codec.
+ * 
+ * <p>
+ * Each value is encoded along with a type tag. Values of common types
+ * (numbers, strings, dates, byte arrays) are encoded in binary form,
+ * and decoded to values of the same class. Values of other types 
+ * are kept in memory by the codec, and encoded as an index.
+ * </p>
+ * 
+ * <p>
+ * Encoding is not thread-safe, whereas decoding is, provided that no 
+ * rows are encoded concurrently.
+ * </p>
+ * 
+ * @see OffHeapRowList
+ * @see SpillRowList
+ * @since 1.5
+ */
+final class RowCodec {
+  /** Tag for null values. */
+  private static final byte NULL = 0;
+  /** Tag for {@link Integer} values. */
+  private static final byte INTEGER = 1;
+  /** Tag for {@link Long} values. */
+  private static final byte LONG = 2;
+  /** Tag for {@link String} values. */
+  private static final byte STRING = 3;
+  /** Tag for {@link BigDecimal} values. */
+  private static final byte DECIMAL = 4;
+  /** Tag for {@link Double} values. */
+  private static final byte DOUBLE = 5;
+  /** Tag for {@link Float} values. */
+  private static final byte FLOAT = 6;
+  /** Tag for {@link Boolean#FALSE}. */
+  private static final byte FALSE = 7;
+  /** Tag for {@link Boolean#TRUE}. */
+  private static final byte TRUE = 8;
+  /** Tag for {@link Short} values. */
+  private static final byte SHORT = 9;
+  /** Tag for {@link Byte} values. */
+  private static final byte BYTE = 10;
+  /** Tag for {@link Timestamp} values. */
+  private static final byte TIMESTAMP = 11;
+  /** Tag for {@link java.sql.Date} values. */
+  private static final byte SQL_DATE = 12;
+  /** Tag for {@link Time} values. */
+  private static final byte SQL_TIME = 13;
+  /** Tag for {@link Date} values. */
+  private static final byte DATE = 14;
+  /** Tag for byte arrays. */
+  private static final byte BYTES = 15;
+  /** Tag for values kept on-heap. */
+  private static final byte ON_HEAP = 16;
+
+  /**
+   * Values kept in memory.
+   */
+  private final ArrayList<Object> onHeap = new ArrayList<>();
+
+  /**
+   * Encoding buffer.
+   */
+  private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+  /**
+   * Encode row.
+   * @param r Row.
+   * @return Buffer with the row encoding, from its position to its limit.
+   *   The buffer is reused by the next call.
+   */
+  ByteBuffer encode(Row r) {
+    buffer.clear();
+    for (Object v : r.data()) {
+      encode(v);
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void ensure(int n) {
+    if (buffer.remaining() < n) {
+      ByteBuffer b = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + n));
+      buffer.flip();
+      b.put(buffer);
+      buffer = b;
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void encode(Object v) {
+    ensure(13);
+    if (v == null) {
+      buffer.put(NULL);
+    } 
+    else if (v instanceof Integer) {
+      buffer.put(INTEGER).putInt((Integer) v);
+    } 
+    else if (v instanceof Long) {
+      buffer.put(LONG).putLong((Long) v);
+    } 
+    else if (v instanceof String) {
+      buffer.put(STRING);
+      writeString((String) v);
+    } 
+    else if (v instanceof BigDecimal) {
+      BigDecimal bd = (BigDecimal) v;
+      buffer.put(DECIMAL).putInt(bd.scale());
+      writeBytes(bd.unscaledValue().toByteArray());
+    } 
+    else if (v instanceof Double) {
+      buffer.put(DOUBLE).putDouble((Double) v);
+    } 
+    else if (v instanceof Float) {
+      buffer.put(FLOAT).putFloat((Float) v);
+    } 
+    else if (v instanceof Boolean) {
+      buffer.put((Boolean) v ? TRUE : FALSE);
+    } 
+    else if (v instanceof Short) {
+      buffer.put(SHORT).putShort((Short) v);
+    } 
+    else if (v instanceof Byte) {
+      buffer.put(BYTE).put((Byte) v);
+    } 
+    else if (v.getClass() == Timestamp.class) {
+      Timestamp ts = (Timestamp) v;
+      buffer.put(TIMESTAMP).putLong(ts.getTime()).putInt(ts.getNanos());
+    } 
+    else if (v.getClass() == java.sql.Date.class) {
+      buffer.put(SQL_DATE).putLong(((Date) v).getTime());
+    } 
+    else if (v.getClass() == Time.class) {
+      buffer.put(SQL_TIME).putLong(((Date) v).getTime());
+    } 
+    else if (v.getClass() == Date.class) {
+      buffer.put(DATE).putLong(((Date) v).getTime());
+    } 
+    else if (v instanceof byte[]) {
+      buffer.put(BYTES);
+      writeBytes((byte[]) v);
+    } 
+    else {
+      buffer.put(ON_HEAP).putInt(onHeap.size());
+      onHeap.add(v);
+    }
+  }
+
+  /**
+   * Decode row.
+   * @param in Input buffer, positioned at the start of the row encoding.
+   *   The buffer is positioned after the row encoding on return.
+   * @param columnCount Number of columns.
+   * @return A new row.
+   */
+  Row decode(ByteBuffer in, int columnCount) {
+    Object[] data = new Object[columnCount];
+    for (int c = 0; c < columnCount; c++) {
+      data[c] = decode(in);
+    }
+    return new Row(data);
+  }
+
+  @SuppressWarnings("javadoc")
+  private Object decode(ByteBuffer in) {
+    byte tag = in.get();
+    switch (tag) {
+      case NULL:
+        return null;
+      case INTEGER:
+        return in.getInt();
+      case LONG:
+        return in.getLong();
+      case STRING:
+        return readString(in);
+      case DECIMAL: {
+        int scale = in.getInt();
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+      }
+      case DOUBLE:
+        return in.getDouble();
+      case FLOAT:
+        return in.getFloat();
+      case FALSE:
+        return Boolean.FALSE;
+      case TRUE:
+        return Boolean.TRUE;
+      case SHORT:
+        return in.getShort();
+      case BYTE:
+        return in.get();
+      case TIMESTAMP: {
+        Timestamp ts = new Timestamp(in.getLong());
+        ts.setNanos(in.getInt());
+        return ts;
+      }
+      case SQL_DATE:
+        return new java.sql.Date(in.getLong());
+      case SQL_TIME:
+        return new Time(in.getLong());
+      case DATE:
+        return new Date(in.getLong());
+      case BYTES:
+        return readBytes(in);
+      case ON_HEAP:
+        return onHeap.get(in.getInt());
+      default:
+        throw new InternalErrorException("Invalid tag: " + tag);
+    }
+  }
+
+  /**
+   * Write string. 
+   * Characters are written using a variable-length encoding 
+   * (1 to 3 bytes, like modified UTF-8), 
+   * that preserves any sequence of <code>char</code> values.
+   * @param s String.
+   */
+  private void writeString(String s) {
+    final int n = s.length();
+    ensure(4 + 3 * n);
+    buffer.putInt(n);
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x01 && c <= 0x7F) {
+        buffer.put((byte) c);
+      } 
+      else if (c <= 0x7FF) {
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } 
+      else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String readString(ByteBuffer in) {
+    final int n = in.getInt();
+    char[] chars = new char[n];
+    for (int i = 0; i < n; i++) {
+      int b = in.get() & 0xFF;
+      if (b < 0x80) {
+        chars[i] = (char) b;
+      } 
+      else if (b < 0xE0) {
+        chars[i] = (char) (((b & 0x1F) << 6) | (in.get() & 0x3F));
+      } 
+      else {
+        int b2 = in.get() & 0x3F;
+        chars[i] = (char) (((b & 0x0F) << 12) | (b2 << 6) | (in.get() & 0x3F));
+      }
+    }
+    return new String(chars);
+  }
+
+  @SuppressWarnings("javadoc")
+  private void writeBytes(byte[] b) {
+    ensure(4 + b.length);
+    buffer.putInt(b.length).put(b);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static byte[] readBytes(ByteBuffer in) {
+    byte[] b = new byte[in.getInt()];
+    in.get(b);
+    return b;
+  }
+}
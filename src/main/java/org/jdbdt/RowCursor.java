@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor over the query results of a data source.
+ * 
+ * <p>
+ * Rows are read from the database as the cursor advances, 
+ * hence they are never held in memory all at once. 
+ * A dedicated statement is used by each cursor, so that it 
+ * does not interfere with other queries while open
+ * (see {@link DB.Option#REUSE_STATEMENTS}). The cursor is 
+ * closed automatically once all rows are read.
+ * </p>
+ * 
+ * @see JDBDT#stream(DataSource)
+ * @see JDBDT#forEachRow(DataSource, java.util.function.Consumer, boolean)
+ * @since 1.5
+ */
+final class RowCursor implements Iterator<Object[]>, AutoCloseable {
+  /**
+   * Call info.
+   */
+  private final CallInfo callInfo;
+
+  /**
+   * Database handle.
+   */
+  private final DB db;
+
+  /**
+   * Data source.
+   */
+  private final DataSource source;
+
+  /**
+   * Query statement.
+   */
+  private PreparedStatement stmt;
+
+  /**
+   * Result set.
+   */
+  private ResultSet rs;
+
+  /**
+   * Indicates if auto-commit mode was suspended for the query.
+   */
+  private boolean autoCommitSuspended;
+
+  /**
+   * Row reader.
+   */
+  private final RowReader reader;
+
+  /**
+   * Row buffer, if reused.
+   */
+  private final Object[] buffer;
+
+  /**
+   * Indicates if the result set was advanced and the current row not yet handed over.
+   */
+  private boolean pending;
+
+  /**
+   * Indicates if the cursor is closed.
+   */
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * @param callInfo Call info.
+   * @param source Data source.
+   * @param reuseBuffer Indicates if the same row array should 
+   *   be returned by every call to {@link #next()}.
+   */
+  RowCursor(CallInfo callInfo, DataSource source, boolean reuseBuffer) {
+    this.callInfo = callInfo;
+    this.db = source.getDB();
+    this.source = source;
+    this.reader = source.newRowReader();
+    this.buffer = reuseBuffer ? new Object[source.getColumnCount()] : null;
+    db.access(callInfo, () -> {
+      try {
+        stmt = db.getConnection().prepareStatement(source.getSQLForQuery());
+        autoCommitSuspended = source.prepareQuery(stmt);
+        rs = stmt.executeQuery();
+      }
+      catch (SQLException e) {
+        release();
+        throw e;
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!pending && !closed) {
+      pending = db.access(callInfo, () -> rs.next());
+      if (!pending) {
+        close();
+      }
+    }
+    return pending;
+  }
+
+  @Override
+  public Object[] next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    pending = false;
+    final Object[] data = buffer != null ? buffer : new Object[reader.getColumnCount()];
+    return db.access(callInfo, () -> reader.read(rs, data));
+  }
+
+  /**
+   * Close the cursor, releasing the underlying database resources.
+   * The method has no effect if the cursor is already closed.
+   */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      pending = false;
+      db.access(callInfo, () -> {
+        release();
+        return null;
+      });
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void release() throws SQLException {
+    closed = true;
+    try {
+      if (rs != null) {
+        rs.close();
+      }
+      if (stmt != null) {
+        stmt.close();
+      }
+    }
+    finally {
+      rs = null;
+      stmt = null;
+      source.resumeAutoCommit(autoCommitSuspended);
+      autoCommitSuspended = false;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Row hashing and equality strategy.
+ * 
+ * <p>
+ * A row hasher is built once per data source from its meta-data,
+ * and selects a value representation for each column from its
+ * JDBC type. Values of the expected Java class are 
+ * hashed and compared directly, avoiding
+ * the (megamorphic) <code>hashCode()</code>
+ * and <code>equals()</code> calls performed by {@link Row#hashCode()}
+ * and {@link Row#equals(Object)}. Any other values are handled
+ * generically. Row equality is the same as for {@link Row#equals(Object)}.
+ * </p>
+ * 
+ * @see DataSource#getRowHasher()
+ * @since 1.5
+ */
+final class RowHasher {
+
+  /**
+   * Column value representation.
+   */
+  private enum Kind {
+    /** <code>Integer</code> values. */
+    INT,
+    /** <code>Long</code> values. */
+    LONG,
+    /** <code>Double</code> or <code>Float</code> values. */
+    FLOATING_POINT,
+    /** <code>BigDecimal</code> values. */
+    DECIMAL,
+    /** <code>String</code> values. */
+    STRING,
+    /** <code>java.util.Date</code> values (including <code>java.sql</code> date/time types). */
+    TEMPORAL,
+    /** <code>Boolean</code> values. */
+    BOOLEAN,
+    /** Any other values. */
+    OTHER;
+
+    /**
+     * Get kind for a JDBC type.
+     * @param type JDBC type.
+     * @return Corresponding kind.
+     */
+    static Kind of(JDBCType type) {
+      switch (type) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+          return INT;
+        case BIGINT:
+          return LONG;
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          return FLOATING_POINT;
+        case NUMERIC:
+        case DECIMAL:
+          return DECIMAL;
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+        case LONGNVARCHAR:
+          return STRING;
+        case DATE:
+        case TIME:
+        case TIMESTAMP:
+          return TEMPORAL;
+        case BIT:
+        case BOOLEAN:
+          return BOOLEAN;
+        default:
+          return OTHER;
+      }
+    }
+  }
+
+  /**
+   * Generic row hasher, for use when no meta-data is available.
+   */
+  static final RowHasher GENERIC = new RowHasher(new Kind[0]);
+
+  /**
+   * Column kinds.
+   */
+  private final Kind[] kinds;
+
+  /**
+   * Constructor.
+   * @param kinds Column kinds.
+   */
+  private RowHasher(Kind[] kinds) {
+    this.kinds = kinds;
+  }
+
+  /**
+   * Constructor from meta-data.
+   * @param md Meta-data.
+   */
+  RowHasher(MetaData md) {
+    this(new Kind[md.getColumnCount()]);
+    for (int i = 0; i < kinds.length; i++) {
+      kinds[i] = md.getType(i) != null ? Kind.of(md.getType(i)) : Kind.OTHER;
+    }
+  }
+
+  /**
+   * Constructor from column types (testing purposes only).
+   * @param types Column types.
+   */
+  RowHasher(JDBCType... types) {
+    this(new Kind[types.length]);
+    for (int i = 0; i < kinds.length; i++) {
+      kinds[i] = Kind.of(types[i]);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private Kind kind(int i) {
+    return i < kinds.length ? kinds[i] : Kind.OTHER;
+  }
+
+  /**
+   * Compute hash for a row.
+   * @param r Row.
+   * @return 64-bit hash value.
+   */
+  long hash(Row r) {
+    Object[] data = r.data();
+    long h = data.length;
+    for (int i = 0; i < data.length; i++) {
+      h = (h + hash(kind(i), data[i])) * 0x9E3779B97F4A7C15L;
+    }
+    return mix(h);
+  }
+
+  /**
+   * Test if two rows are equal.
+   * @param a Row.
+   * @param b Another row.
+   * @return <code>true</code> if rows are equal, 
+   *   in the same sense as {@link Row#equals(Object)}.
+   */
+  boolean equal(Row a, Row b) {
+    if (a == b) {
+      return true;
+    }
+    Object[] x = a.data();
+    Object[] y = b.data();
+    if (x.length != y.length) {
+      return false;
+    }
+    for (int i = 0; i < x.length; i++) {
+      if (!equal(kind(i), x[i], y[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static long hash(Kind kind, Object v) {
+    if (v == null) {
+      return 0L;
+    }
+    switch (kind) {
+      case INT:
+        if (v instanceof Integer) {
+          return mix(((Integer) v).intValue());
+        }
+        break;
+      case LONG:
+        if (v instanceof Long) {
+          return mix(((Long) v).longValue());
+        }
+        break;
+      case FLOATING_POINT:
+        if (v instanceof Double) {
+          return mix(Double.doubleToLongBits(((Double) v).doubleValue()));
+        }
+        if (v instanceof Float) {
+          return mix(Float.floatToIntBits(((Float) v).floatValue()));
+        }
+        break;
+      case DECIMAL:
+        if (v instanceof BigDecimal) {
+          return mix(((BigDecimal) v).hashCode());
+        }
+        break;
+      case STRING:
+        if (v instanceof String) {
+          return mix(((String) v).hashCode());
+        }
+        break;
+      case TEMPORAL:
+        if (v instanceof Date) {
+          return mix(((Date) v).getTime());
+        }
+        break;
+      case BOOLEAN:
+        if (v instanceof Boolean) {
+          return ((Boolean) v).booleanValue() ? 1L : 2L;
+        }
+        break;
+      default:
+        break;
+    }
+    return mix(v instanceof Object[] ? 
+                 Arrays.deepHashCode((Object[]) v)
+               : v.getClass().isArray() ? 
+                 Arrays.deepHashCode(new Object[] { v })
+               : v.hashCode());
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean equal(Kind kind, Object u, Object v) {
+    if (u == v) {
+      return true;
+    }
+    if (u == null || v == null) {
+      return false;
+    }
+    switch (kind) {
+      case INT:
+        if (u instanceof Integer && v instanceof Integer) {
+          return ((Integer) u).intValue() == ((Integer) v).intValue();
+        }
+        break;
+      case LONG:
+        if (u instanceof Long && v instanceof Long) {
+          return ((Long) u).longValue() == ((Long) v).longValue();
+        }
+        break;
+      case FLOATING_POINT:
+        if (u instanceof Double && v instanceof Double) {
+          return Double.doubleToLongBits(((Double) u).doubleValue()) 
+              == Double.doubleToLongBits(((Double) v).doubleValue());
+        }
+        break;
+      case STRING:
+        if (u instanceof String) {
+          return ((String) u).equals(v);
+        }
+        break;
+      default:
+        break;
+    }
+    return Objects.deepEquals(u, v);
+  }
+
+  /**
+   * Mix bits of a 64-bit value.
+   * @param z Value.
+   * @return Mixed value.
+   */
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.util.Arrays;
+
+/**
+ * Multi-set of rows with signed counts, used for delta computation.
+ * 
+ * <p>
+ * Rows are hashed and compared using a {@link RowHasher}.
+ * Entries are kept in insertion order, and an entry is discarded
+ * as soon as its count drops to zero.
+ * </p>
+ * <p>
+ * The implementation uses open addressing (linear probing) 
+ * over an <code>int</code> table of entry indices, and 
+ * keeps entries in parallel arrays (rows, hashes, and counts), 
+ * hence no objects are allocated per entry. Entries are appended
+ * to these arrays, and entries whose count dropped to zero are
+ * purged when the arrays fill up.
+ * </p>
+ * 
+ * @see Delta
+ * @since 1.5
+ */
+final class RowMultiset {
+  /**
+   * Initial capacity (must be a power of 2).
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Table marker for free slots.
+   */
+  private static final int FREE = 0;
+
+  /**
+   * Table marker for slots of discarded entries.
+   */
+  private static final int DELETED = -1;
+
+  /**
+   * Row hasher.
+   */
+  private final RowHasher hasher;
+
+  /**
+   * Hash table: each slot is {@link #FREE}, {@link #DELETED},
+   * or holds an entry index plus 1.
+   */
+  private int[] table = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of table slots that are not free.
+   */
+  private int usedSlots = 0;
+
+  /**
+   * Entry rows (<code>null</code> for discarded entries).
+   */
+  private Row[] rows = new Row[INITIAL_CAPACITY];
+
+  /**
+   * Entry hashes.
+   */
+  private long[] hashes = new long[INITIAL_CAPACITY];
+
+  /**
+   * Entry counts (<code>0</code> for discarded entries).
+   */
+  private int[] counts = new int[INITIAL_CAPACITY];
+
+  /**
+   * Number of entries in use, including discarded ones.
+   */
+  private int entries = 0;
+
+  /**
+   * Number of live entries.
+   */
+  private int size = 0;
+
+  /**
+   * Constructor.
+   * @param hasher Row hasher.
+   */
+  RowMultiset(RowHasher hasher) {
+    this.hasher = hasher;
+  }
+
+  /**
+   * Check if the multi-set is empty.
+   * @return <code>true</code> if there are no entries.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Update count for a row.
+   * @param r Row.
+   * @param d Value to add to the row's count.
+   * @return Count for the row after the update.
+   *   If <code>d</code> is <code>0</code>, the multi-set
+   *   is left unchanged and <code>0</code> is returned.
+   */
+  int update(Row r, int d) {
+    return update(r, hasher.hash(r), d);
+  }
+
+  /**
+   * Update count for a row, given its hash.
+   * @param r Row.
+   * @param h Row hash, as computed by the row hasher in use.
+   * @param d Value to add to the row's count.
+   * @return Count for the row after the update.
+   *   If <code>d</code> is <code>0</code>, the multi-set
+   *   is left unchanged and <code>0</code> is returned.
+   */
+  int update(Row r, long h, int d) {
+    if (d == 0) {
+      return 0;
+    }
+    if (entries == rows.length) {
+      purgeOrGrow();
+    }
+    final int mask = table.length - 1;
+    int i = index(h, mask);
+    int freeSlot = -1;
+    int t;
+    while ((t = table[i]) != FREE) {
+      if (t == DELETED) {
+        if (freeSlot < 0) {
+          freeSlot = i;
+        }
+      } 
+      else {
+        int e = t - 1;
+        if (hashes[e] == h && hasher.equal(rows[e], r)) {
+          int c = counts[e] += d;
+          if (c == 0) {
+            table[i] = DELETED;
+            rows[e] = null;
+            size--;
+          }
+          return c;
+        }
+      }
+      i = (i + 1) & mask;
+    }
+    if (freeSlot < 0) {
+      freeSlot = i;
+      usedSlots++;
+    }
+    int e = entries++;
+    rows[e] = r;
+    hashes[e] = h;
+    counts[e] = d;
+    table[freeSlot] = e + 1;
+    size++;
+    if (usedSlots > (table.length >> 1) + (table.length >> 2)) {
+      rehash();
+    }
+    return d;
+  }
+
+  /**
+   * Get number of entries, including discarded ones.
+   * Valid entry indices range from <code>0</code> to 
+   * <code>entries() - 1</code>, in insertion order.
+   * @return Number of entries.
+   */
+  int entries() {
+    return entries;
+  }
+
+  /**
+   * Get row for an entry.
+   * @param e Entry index.
+   * @return Row for entry, or <code>null</code> if the entry was discarded.
+   */
+  Row row(int e) {
+    return rows[e];
+  }
+
+  /**
+   * Get hash for an entry.
+   * @param e Entry index.
+   * @return Hash of the entry's row.
+   */
+  long hash(int e) {
+    return hashes[e];
+  }
+
+  /**
+   * Get count for an entry.
+   * @param e Entry index.
+   * @return Count for entry (<code>0</code> if the entry was discarded).
+   */
+  int count(int e) {
+    return counts[e];
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int index(long h, int mask) {
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void purgeOrGrow() {
+    if (size <= (entries >> 1)) {
+      // At least half the entries were discarded: compact in place.
+      int n = 0;
+      for (int e = 0; e < entries; e++) {
+        if (counts[e] != 0) {
+          rows[n] = rows[e];
+          hashes[n] = hashes[e];
+          counts[n] = counts[e];
+          n++;
+        }
+      }
+      for (int e = n; e < entries; e++) {
+        rows[e] = null;
+        counts[e] = 0;
+      }
+      entries = n;
+    } 
+    else {
+      int capacity = rows.length << 1;
+      rows = Arrays.copyOf(rows, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+    }
+    rehash();
+  }
+
+  @SuppressWarnings("javadoc")
+  private void rehash() {
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < (size << 1) || capacity < (rows.length >> 1)) {
+      capacity <<= 1;
+    }
+    int[] newTable = new int[capacity];
+    int mask = capacity - 1;
+    for (int e = 0; e < entries; e++) {
+      if (counts[e] != 0) {
+        int i = index(hashes[e], mask);
+        while (newTable[i] != FREE) {
+          i = (i + 1) & mask;
+        }
+        newTable[i] = e + 1;
+      }
+    }
+    table = newTable;
+    usedSlots = size;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.util.Locale;
+
+/**
+ * Row order, as defined by an ORDER BY clause over columns of a data source.
+ * 
+ * @see Delta.Merge
+ * @since 1.5
+ */
+final class RowOrder {
+  /**
+   * Result of {@link #compare(Row, Row)} for rows that cannot be compared.
+   */
+  static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+  /**
+   * Indices of order columns.
+   */
+  private final int[] columns;
+
+  /**
+   * Descending order flag for each column.
+   */
+  private final boolean[] descending;
+
+  /**
+   * Flag indicating if <code>NULL</code> values come first for each column.
+   */
+  private final boolean[] nullsFirst;
+
+  /**
+   * Constructor.
+   * @param columns Column indices.
+   * @param descending Descending order flags.
+   * @param nullsFirst <code>NULL</code> ordering flags.
+   */
+  private RowOrder(int[] columns, boolean[] descending, boolean[] nullsFirst) {
+    this.columns = columns;
+    this.descending = descending;
+    this.nullsFirst = nullsFirst;
+  }
+
+  /**
+   * Resolve row order for a data source.
+   * 
+   * <p>
+   * Each field must be a column of the data source, given by
+   * name or (1-based) position, optionally followed by
+   * <code>ASC</code> or <code>DESC</code>.
+   * Any other form (e.g., an expression) is not understood.
+   * </p>
+   * 
+   * @param source Data source.
+   * @param fields ORDER BY fields.
+   * @return The row order, or <code>null</code> if a field could not be resolved.
+   */
+  static RowOrder resolve(DataSource source, String[] fields) {
+    int n = fields.length;
+    int[] columns = new int[n];
+    boolean[] descending = new boolean[n];
+    boolean[] nullsFirst = new boolean[n];
+    for (int i = 0; i < n; i++) {
+      String[] tokens = fields[i].trim().split("\\s+");
+      if (tokens.length == 2) {
+        String dir = tokens[1].toUpperCase(Locale.ROOT);
+        if (dir.equals("DESC")) {
+          descending[i] = true;
+        } 
+        else if (!dir.equals("ASC")) {
+          return null;
+        }
+      } 
+      else if (tokens.length != 1) {
+        return null;
+      }
+      int index = source.getColumnIndex(tokens[0]);
+      if (index < 0) {
+        index = position(tokens[0], source.getColumnCount());
+        if (index < 0) {
+          return null;
+        }
+      }
+      columns[i] = index;
+      nullsFirst[i] = source.getDB().nullsSortedFirst(descending[i]);
+    }
+    return new RowOrder(columns, descending, nullsFirst);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int position(String s, int columnCount) {
+    try {
+      int pos = Integer.parseInt(s);
+      return pos >= 1 && pos <= columnCount ? pos - 1 : -1;
+    }
+    catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Compare two rows.
+   * 
+   * <p>
+   * Values are compared using their natural ordering, hence 
+   * the result may disagree with the ordering
+   * used by the database engine (e.g., for strings
+   * under a case-insensitive collation). 
+   * </p>
+   * 
+   * @param a First row.
+   * @param b Second row.
+   * @return A negative value, zero, or a positive value if
+   *   <code>a</code> comes before, at the same position, or after <code>b</code>, 
+   *   or {@link #INCOMPARABLE} if the order column values 
+   *   are not mutually comparable.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  int compare(Row a, Row b) {
+    Object[] x = a.data();
+    Object[] y = b.data();
+    for (int i = 0; i < columns.length; i++) {
+      Object u = x[columns[i]];
+      Object v = y[columns[i]];
+      int c;
+      if (u == null || v == null) {
+        if (u == v) {
+          continue;
+        }
+        c = (u == null) == nullsFirst[i] ? -1 : 1;
+      }
+      else {
+        if (u.getClass() != v.getClass() || !(u instanceof Comparable)) {
+          return INCOMPARABLE;
+        }
+        c = Integer.signum(((Comparable) u).compareTo(v));
+        if (descending[i]) {
+          c = -c;
+        }
+      }
+      if (c != 0) {
+        return c;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Reader of result set rows.
+ * 
+ * <p>
+ * Columns are read using {@link ResultSet#getObject(int)} until 
+ * a first non-null value is found for them. If the value is of a 
+ * primitive wrapper type or a string, consistent with the column's JDBC type, 
+ * subsequent values are then read using the matching typed accessor 
+ * (e.g. {@link ResultSet#getInt(int)} along with {@link ResultSet#wasNull()}),
+ * which spares drivers from generic type dispatch. 
+ * Boxing uses the <code>valueOf</code> methods of wrapper classes, hence
+ * common values like small integers are shared. 
+ * Values are the same as obtained through <code>getObject</code>, 
+ * and typed accessors are only used for databases with static column types
+ * (see {@link Dialect#hasStaticColumnTypes()}).
+ * </p>
+ * 
+ * <p>
+ * A reader is meant to be used for a single query execution.
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class RowReader {
+
+  /**
+   * Column accessor.
+   */
+  enum Accessor {
+    /** Generic accessor. */
+    OBJECT {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        return rs.getObject(col);
+      }
+    },
+    /** Accessor for {@link Integer} values. */
+    INT {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        int v = rs.getInt(col);
+        return v == 0 && rs.wasNull() ? null : Integer.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Long} values. */
+    LONG {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        long v = rs.getLong(col);
+        return v == 0L && rs.wasNull() ? null : Long.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Short} values. */
+    SHORT {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        short v = rs.getShort(col);
+        return v == 0 && rs.wasNull() ? null : Short.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Byte} values. */
+    BYTE {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        byte v = rs.getByte(col);
+        return v == 0 && rs.wasNull() ? null : Byte.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Double} values. */
+    DOUBLE {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        double v = rs.getDouble(col);
+        return v == 0 && rs.wasNull() ? null : Double.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Float} values. */
+    FLOAT {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        float v = rs.getFloat(col);
+        return v == 0 && rs.wasNull() ? null : Float.valueOf(v);
+      }
+    },
+    /** Accessor for {@link Boolean} values. */
+    BOOLEAN {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        boolean v = rs.getBoolean(col);
+        return !v && rs.wasNull() ? null : Boolean.valueOf(v);
+      }
+    },
+    /** Accessor for {@link String} values. */
+    STRING {
+      @Override
+      Object read(ResultSet rs, int col) throws SQLException {
+        return rs.getString(col);
+      }
+    };
+
+    /**
+     * Read column value.
+     * @param rs Result set.
+     * @param col Column index, starting at 1.
+     * @return Column value.
+     * @throws SQLException if a database error occurs.
+     */
+    abstract Object read(ResultSet rs, int col) throws SQLException;
+
+    /**
+     * Get typed accessor for a column value.
+     * @param type JDBC type of the column.
+     * @param v Value obtained through {@link ResultSet#getObject(int)}.
+     * @return Accessor that yields values of the same class as <code>v</code>,
+     *   or {@link #OBJECT} if there is none for the column type.
+     */
+    static Accessor of(JDBCType type, Object v) {
+      switch (type) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+        case BIGINT:
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          if (v instanceof Integer) {
+            return INT;
+          }
+          if (v instanceof Long) {
+            return LONG;
+          }
+          if (v instanceof Short) {
+            return SHORT;
+          }
+          if (v instanceof Byte) {
+            return BYTE;
+          }
+          if (v instanceof Double) {
+            return DOUBLE;
+          }
+          if (v instanceof Float) {
+            return FLOAT;
+          }
+          break;
+        case BIT:
+        case BOOLEAN:
+          if (v instanceof Boolean) {
+            return BOOLEAN;
+          }
+          break;
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+        case LONGNVARCHAR:
+          if (v instanceof String) {
+            return STRING;
+          }
+          break;
+        default:
+          break;
+      }
+      return OBJECT;
+    }
+  }
+
+  /**
+   * Meta-data.
+   */
+  private final MetaData metaData;
+
+  /**
+   * Accessor per column (<code>null</code> while undecided).
+   */
+  private final Accessor[] plan;
+
+  /**
+   * Number of undecided columns.
+   */
+  private int undecided;
+
+  /**
+   * Constructor.
+   * @param metaData Query meta-data.
+   * @param dialect Database dialect.
+   */
+  RowReader(MetaData metaData, Dialect dialect) {
+    this.metaData = metaData;
+    this.plan = new Accessor[metaData.getColumnCount()];
+    if (dialect.hasStaticColumnTypes()) {
+      undecided = plan.length;
+    }
+    else {
+      Arrays.fill(plan, Accessor.OBJECT);
+      undecided = 0;
+    }
+  }
+
+  /**
+   * Get column count.
+   * @return Number of columns.
+   */
+  int getColumnCount() {
+    return plan.length;
+  }
+
+  /**
+   * Get accessor in use for a column.
+   * @param index Column index, starting at 0.
+   * @return Accessor, or <code>null</code> if still undecided.
+   */
+  Accessor getAccessor(int index) {
+    return plan[index];
+  }
+
+  /**
+   * Read current row of result set.
+   * @param rs Result set.
+   * @param data Array for column values.
+   * @return The <code>data</code> array.
+   * @throws SQLException if a database error occurs.
+   */
+  Object[] read(ResultSet rs, Object[] data) throws SQLException {
+    if (undecided == 0) {
+      for (int i = 0; i < plan.length; i++) {
+        data[i] = plan[i].read(rs, i + 1);
+      }
+    }
+    else {
+      for (int i = 0; i < plan.length; i++) {
+        Accessor a = plan[i];
+        if (a != null) {
+          data[i] = a.read(rs, i + 1);
+        }
+        else {
+          Object v = rs.getObject(i + 1);
+          if (v != null) {
+            plan[i] = Accessor.of(metaData.getType(i), v);
+            undecided--;
+          }
+          data[i] = v;
+        }
+      }
+    }
+    return data;
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Row list that spills rows to disk beyond a row count threshold.
+ * 
+ * <p>
+ * The first rows, up to the threshold, are kept in memory. Subsequent rows
+ * are written to a temporary file in a compact binary encoding 
+ * (see {@link RowCodec}), through a write buffer, and only their 
+ * offsets (8 bytes per row) are kept in memory. Spilled rows are decoded 
+ * as they are read; iteration reads the file sequentially, in blocks.
+ * The temporary file is deleted right after creation where the
+ * operating system allows it, or at JVM exit otherwise.
+ * </p>
+ * 
+ * <p>
+ * The list only supports appending rows and clearing.
+ * It is used for query results when a spill threshold is set 
+ * using {@link DB#setSpillThreshold(int)}.
+ * </p>
+ * 
+ * @since 1.5
+ */
+final class SpillRowList extends AbstractList<Row> {
+
+  /**
+   * Size of write buffer and read blocks.
+   */
+  private static final int BLOCK_SIZE = 1 << 16;
+
+  /**
+   * Number of columns.
+   */
+  private final int columnCount;
+
+  /**
+   * Threshold, i.e., number of rows kept in memory.
+   */
+  private final int threshold;
+
+  /**
+   * Rows kept in memory.
+   */
+  private final ArrayList<Row> memory = new ArrayList<>();
+
+  /**
+   * Row codec (created on first spill).
+   */
+  private RowCodec codec;
+
+  /**
+   * File channel (opened on first spill).
+   */
+  private FileChannel channel;
+
+  /**
+   * Write buffer.
+   */
+  private ByteBuffer out;
+
+  /**
+   * Number of bytes written to file.
+   */
+  private long written;
+
+  /**
+   * Spilled row offsets (row <code>i</code> spans <code>offsets[i]</code> to <code>offsets[i+1]</code>).
+   */
+  private long[] offsets = new long[17];
+
+  /**
+   * Number of spilled rows.
+   */
+  private int spilled;
+
+  /**
+   * Constructor.
+   * @param columnCount Number of columns.
+   * @param threshold Number of rows to keep in memory.
+   */
+  SpillRowList(int columnCount, int threshold) {
+    this.columnCount = columnCount;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Get number of rows spilled to disk.
+   * @return Number of spilled rows.
+   */
+  int spilled() {
+    return spilled;
+  }
+
+  @Override
+  public boolean add(Row r) {
+    if (r.length() != columnCount) {
+      throw new InternalErrorException("Row length mismatch.");
+    }
+    if (spilled == 0 && memory.size() < threshold) {
+      memory.add(r);
+    }
+    else {
+      spill(r);
+    }
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public Row get(int i) {
+    if (i < 0 || i >= size()) {
+      throw new IndexOutOfBoundsException(Integer.toString(i));
+    }
+    if (i < memory.size()) {
+      return memory.get(i);
+    }
+    flush();
+    int j = i - memory.size();
+    ByteBuffer in = ByteBuffer.allocate((int) (offsets[j + 1] - offsets[j]));
+    read(in, offsets[j]);
+    return codec.decode(in, columnCount);
+  }
+
+  @Override
+  public int size() {
+    return memory.size() + spilled;
+  }
+
+  @Override
+  public void clear() {
+    memory.clear();
+    spilled = 0;
+    written = 0;
+    if (out != null) {
+      out.clear();
+    }
+    if (codec != null) {
+      codec = new RowCodec();
+    }
+    modCount++;
+  }
+
+  @Override
+  public Iterator<Row> iterator() {
+    return new Itr();
+  }
+
+  /**
+   * Iterator, reading spilled rows in blocks.
+   */
+  private final class Itr implements Iterator<Row> {
+    /** Expected modification count. */
+    private final int expectedModCount = modCount;
+    /** Next row index. */
+    private int next = 0;
+    /** Read block. */
+    private ByteBuffer block;
+    /** File offset of read block. */
+    private long blockStart;
+
+    @Override
+    public boolean hasNext() {
+      return next < size();
+    }
+
+    @Override
+    public Row next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int i = next++;
+      if (i < memory.size()) {
+        return memory.get(i);
+      }
+      int j = i - memory.size();
+      long start = offsets[j];
+      long end = offsets[j + 1];
+      if (block == null || start < blockStart || end > blockStart + block.limit()) {
+        flush();
+        int length = (int) Math.min(Math.max(BLOCK_SIZE, end - start), written - start);
+        if (block == null || block.capacity() < length) {
+          block = ByteBuffer.allocate(Math.max(BLOCK_SIZE, length));
+        }
+        block.clear();
+        block.limit(length);
+        read(block, start);
+        blockStart = start;
+      }
+      block.position((int) (start - blockStart));
+      return codec.decode(block, columnCount);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void spill(Row r) {
+    if (channel == null) {
+      open();
+    }
+    ByteBuffer enc = codec.encode(r);
+    int length = enc.remaining();
+    if (length > out.remaining()) {
+      flush();
+    }
+    if (length > out.capacity()) {
+      write(enc);
+    }
+    else {
+      out.put(enc);
+    }
+    if (spilled + 1 == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[spilled + 1] = offsets[spilled] + length;
+    spilled++;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void open() {
+    try {
+      File file = File.createTempFile("jdbdt", ".spill");
+      @SuppressWarnings("resource")
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      channel = raf.getChannel();
+      if (!file.delete()) {
+        file.deleteOnExit();
+      }
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+    codec = new RowCodec();
+    out = ByteBuffer.allocate(BLOCK_SIZE);
+  }
+
+  /**
+   * Write buffered data to file.
+   */
+  private void flush() {
+    if (out != null && out.position() > 0) {
+      out.flip();
+      write(out);
+      out.clear();
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void write(ByteBuffer b) {
+    try {
+      while (b.hasRemaining()) {
+        written += channel.write(b, written);
+      }
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void read(ByteBuffer b, long position) {
+    try {
+      long pos = position;
+      while (b.hasRemaining()) {
+        int n = channel.read(b, pos);
+        if (n < 0) {
+          throw new InternalErrorException("Unexpected end of file.");
+        }
+        pos += n;
+      }
+      b.flip();
+    }
+    catch (IOException e) {
+      throw new InputOutputException(e);
+    }
+  }
+}
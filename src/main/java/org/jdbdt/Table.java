@@ -45,6 +45,16 @@ public final class Table extends DataSource {
    */
   private List<String> keyColumns;
 
+  /**
+   * Key column indices (computed lazily).
+   */
+  private int[] keyColumnIndices;
+
+  /**
+   * ORDER BY clause for table query (possibly empty).
+   */
+  private final String orderBy;
+
   /**
    * Constructor.
    * @param db Database instance.
@@ -70,13 +80,32 @@ public final class Table extends DataSource {
    */
   Table(CallInfo callInfo, DB db, String name, String[] columns, String[] keyCols) {
     super(callInfo, db, 
-          String.format("SELECT %s FROM %s", 
-                         Misc.sqlArgumentList(columns), name));
+          String.format("SELECT %s FROM %s%s", 
+                         Misc.sqlArgumentList(columns), name, 
+                         orderByKey(db, keyCols)));
 
     tableName = name;
     keyColumns = keyCols != null ? 
          Collections.unmodifiableList(Arrays.asList(keyCols))
        : Collections.emptyList();
+    orderBy = orderByKey(db, keyCols);
+    if (orderBy.length() > 0) {
+      setRowOrder(keyCols);
+    }
+  }
+
+  /**
+   * Get ORDER BY clause for table query.
+   * @param db Database handle.
+   * @param keyCols Key columns.
+   * @return An ORDER BY clause over key columns if 
+   *  {@link DB.Option#MERGE_DELTA} is enabled and key columns
+   *  are defined, otherwise the empty string.
+   */
+  private static String orderByKey(DB db, String[] keyCols) {
+    return db.isEnabled(DB.Option.MERGE_DELTA) && keyCols != null && keyCols.length > 0 ?
+        " ORDER BY " + Misc.sqlArgumentList(keyCols)
+      : "";
   }
 
   /**
@@ -94,4 +123,93 @@ public final class Table extends DataSource {
   public List<String> getKeyColumns() {
     return keyColumns;
   }
+
+  /**
+   * Get SQL code for querying a subset of the table rows.
+   * @param where Condition for rows, used as the WHERE clause.
+   * @return SQL code for the query, with the same columns and row order 
+   *   as {@link #getSQLForQuery()}.
+   */
+  String getSQLForQuery(String where) {
+    return String.format("SELECT %s FROM %s WHERE %s%s", 
+                         Misc.sqlArgumentList(getColumns().toArray()), 
+                         tableName, where, orderBy);
+  }
+
+  /**
+   * Get indices of key columns.
+   *
+   * <p>
+   * Key column names are matched against {@link #getColumns()}
+   * as in {@link #getColumnIndex(String)}.
+   * </p>
+   *
+   * @return Array with the position of each key column in {@link #getColumns()}.
+   * @throws InvalidOperationException if a key column is not a column of the table.
+   */
+  int[] getKeyColumnIndices() {
+    if (keyColumnIndices == null) {
+      int[] indices = new int[keyColumns.size()];
+      for (int k = 0; k < indices.length; k++) {
+        String kcol = keyColumns.get(k);
+        int index = getColumnIndex(kcol);
+        if (index < 0) {
+          throw new InvalidOperationException("Invalid key column: " + kcol);
+        }
+        indices[k] = index;
+      }
+      keyColumnIndices = indices;
+    }
+    return keyColumnIndices;
+  }
+
+  /**
+   * Start capturing changes relative to the last snapshot.
+   * 
+   * <p>
+   * This only has an effect if {@link DB.Option#CHANGE_CAPTURE} is enabled,
+   * the table has key columns, and the last snapshot kept the table rows
+   * (see {@link DB.Option#FINGERPRINT_SNAPSHOTS}). 
+   * Change capture is installed for the table if necessary.
+   * </p>
+   * 
+   * @param callInfo Call info.
+   */
+  void captureChanges(CallInfo callInfo) {
+    final DB db = getDB();
+    if (!db.isEnabled(DB.Option.CHANGE_CAPTURE) 
+        || keyColumns.isEmpty() 
+        || getSnapshotFingerprints() != null) {
+      return;
+    }
+    ChangeCapture cc = db.getChangeCapture(tableName);
+    if (cc == null) {
+      cc = ChangeCapture.install(callInfo, this);
+      if (cc == null) {
+        return;
+      }
+      db.addChangeCapture(tableName, cc);
+    }
+    else if (!cc.getKeyColumns().equals(keyColumns)) {
+      return;
+    }
+    cc.reset(callInfo, getSnapshot());
+  }
+
+  /**
+   * Get change capture for the last snapshot.
+   * @return Change capture tracking the last snapshot of this table, 
+   *   or <code>null</code> if {@link DB.Option#CHANGE_CAPTURE} is disabled 
+   *   or changes are not being captured for the last snapshot.
+   */
+  ChangeCapture getChangeCapture() {
+    final DB db = getDB();
+    if (!db.isEnabled(DB.Option.CHANGE_CAPTURE) 
+        || getSnapshotFingerprints() != null 
+        || !hasSnapshot()) {
+      return null;
+    }
+    ChangeCapture cc = db.getChangeCapture(tableName);
+    return cc != null && cc.getSnapshot() == getSnapshot() ? cc : null;
+  }
 }
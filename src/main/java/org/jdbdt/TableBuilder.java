@@ -54,6 +54,16 @@ public final class TableBuilder  {
    */
   private String[] keyColumns;
 
+  /**
+   * Fetch size (if set).
+   */
+  private Integer fetchSize;
+
+  /**
+   * Query timeout (if set).
+   */
+  private Integer queryTimeout;
+
   /**
    * Constructs a new table builder.
    */
@@ -115,6 +125,49 @@ public final class TableBuilder  {
     keyColumns = columns.clone();
     return this;
   }
+
+  /**
+   * Set fetch size for queries over the table.
+   * 
+   * <p>
+   * If not set, the fetch size defined for the database handle applies
+   * (see {@link DB#setFetchSize(int)}).
+   * </p>
+   * 
+   * @param size Fetch size (0 for driver default).
+   * @return The builder instance for chained calls.
+   * @throws InvalidOperationException for a negative value.
+   * @since 1.5
+   */
+  public final TableBuilder fetchSize(int size) {
+    if (size < 0) {
+      throw new InvalidOperationException("Invalid fetch size: " + size);
+    }
+    fetchSize = size;
+    return this;
+  }
+
+  /**
+   * Set timeout for queries over the table.
+   * 
+   * <p>
+   * If not set, the timeout defined for the database handle applies
+   * (see {@link DB#setQueryTimeout(int)}).
+   * </p>
+   * 
+   * @param seconds Timeout in seconds (0 for no limit).
+   * @return The builder instance for chained calls.
+   * @throws InvalidOperationException for a negative value.
+   * @since 1.5
+   */
+  public final TableBuilder queryTimeout(int seconds) {
+    if (seconds < 0) {
+      throw new InvalidOperationException("Invalid query timeout: " + seconds);
+    }
+    queryTimeout = seconds;
+    return this;
+  }
+
   /**
    * Build the table object.
    * @param db Database.
@@ -127,7 +180,14 @@ public final class TableBuilder  {
     if (tableColumns == null) {
       tableColumns = ALL_COLUMNS;
     }
-    return new Table(CallInfo.create(), db, tableName, tableColumns, keyColumns); 
+    Table table = new Table(CallInfo.create(), db, tableName, tableColumns, keyColumns);
+    if (fetchSize != null) {
+      table.setFetchSize(fetchSize);
+    }
+    if (queryTimeout != null) {
+      table.setQueryTimeout(queryTimeout);
+    }
+    return table;
   }
 
 }
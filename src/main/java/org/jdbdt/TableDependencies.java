@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Foreign key dependencies between tables.
+ * 
+ * <p>
+ * Tables are arranged in levels, such that tables in a level 
+ * only refer to tables in preceding levels through foreign keys.
+ * Tables in the same level are thus independent of each other.
+ * </p>
+ * 
+ * @see DB.Option#FOREIGN_KEY_ORDER
+ * @see DB#getReferencedTables(String)
+ * @since 1.5
+ */
+final class TableDependencies {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private TableDependencies() { }
+
+  /**
+   * Arrange tables in levels according to foreign key dependencies.
+   * 
+   * <p>
+   * Within each level, tables keep their relative order in the argument list.
+   * Self-references are ignored. Tables in dependency cycles 
+   * (or depending on tables in cycles) are placed in levels of 
+   * their own at the end, in argument order.
+   * </p>
+   * 
+   * @param db Database handle.
+   * @param tables Tables.
+   * @return List of table levels.
+   * @throws SQLException If a database error occurs.
+   */
+  static List<List<Table>> levels(DB db, List<Table> tables) throws SQLException {
+    final Map<String, Table> byName = new HashMap<>();
+    for (Table t : tables) {
+      byName.put(normalize(t.getName()), t);
+    }
+    final Map<Table, Set<Table>> pending = new HashMap<>();
+    for (Table t : tables) {
+      Set<Table> deps = new LinkedHashSet<>();
+      for (String ref : db.getReferencedTables(t.getName())) {
+        Table r = byName.get(normalize(ref));
+        if (r != null && r != t) {
+          deps.add(r);
+        }
+      }
+      pending.put(t, deps);
+    }
+    final List<List<Table>> levels = new ArrayList<>();
+    List<Table> remaining = new ArrayList<>(tables);
+    while (!remaining.isEmpty()) {
+      List<Table> level = new ArrayList<>();
+      List<Table> next = new ArrayList<>();
+      for (Table t : remaining) {
+        if (pending.get(t).isEmpty()) {
+          level.add(t);
+        } else {
+          next.add(t);
+        }
+      }
+      if (level.isEmpty()) {
+        // Dependency cycle.
+        for (Table t : remaining) {
+          List<Table> single = new ArrayList<>();
+          single.add(t);
+          levels.add(single);
+        }
+        break;
+      }
+      for (Table t : next) {
+        pending.get(t).removeAll(level);
+      }
+      levels.add(level);
+      remaining = next;
+    }
+    return levels;
+  }
+
+  /**
+   * Normalize table name for comparison.
+   * @param name Table name, possibly qualified by a schema name or quoted.
+   * @return Unqualified and unquoted name in upper case.
+   */
+  private static String normalize(String name) {
+    String n = name.substring(name.lastIndexOf('.') + 1);
+    if (n.length() > 1 && "\"`[".indexOf(n.charAt(0)) >= 0) {
+      n = n.substring(1, n.length() - 1);
+    }
+    return n.toUpperCase();
+  }
+}
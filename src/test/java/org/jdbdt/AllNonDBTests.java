@@ -33,9 +33,16 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
   CallInfoTest.class,
+  ColumnarRowListTest.class,
   DeltaTest.class,
+  DialectTest.class,
+  FingerprintSetTest.class,
   MiscTest.class,
+  OffHeapRowListTest.class,
   RowTest.class,
+  RowHasherTest.class,
+  RowMultisetTest.class,
+  SpillRowListTest.class,
   WrappedStatementTest.class,
   DataSetBuilderSequenceFillersTest.class,
   DataSetBuilderRandomFillersTest.class,
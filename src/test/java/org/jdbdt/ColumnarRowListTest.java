@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ColumnarRowListTest {
+
+  private static final JDBCType[] TYPES = { 
+    JDBCType.INTEGER, JDBCType.BIGINT, JDBCType.DOUBLE, JDBCType.VARCHAR, JDBCType.DATE
+  };
+
+  private ColumnarRowList theSUT;
+
+  @Before
+  public void setup() {
+    theSUT = new ColumnarRowList(TYPES);
+  }
+
+  private static Row row(Object... data) {
+    return new Row(data);
+  }
+
+  private List<Row> sampleRows(int n) {
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(i % 7 == 0 ? 
+          row(null, null, null, null, null)
+        : row(i, (long) i * 1000000007L, i / 3.0, "s" + (i % 5), new Date(i * 86400000L)));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testEmpty() {
+    assertTrue(theSUT.isEmpty());
+    assertEquals(0, theSUT.size());
+    assertFalse(theSUT.iterator().hasNext());
+  }
+
+  @Test
+  public void testAdd() {
+    List<Row> expected = sampleRows(100);
+    theSUT.addAll(expected);
+    assertEquals(expected.size(), theSUT.size());
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testValueClasses() {
+    Row r = row(1, 2L, 3.0, "4", new Date(5L));
+    theSUT.add(r);
+    Object[] data = theSUT.get(0).data();
+    for (int i = 0; i < data.length; i++) {
+      assertEquals(r.data()[i].getClass(), data[i].getClass());
+    }
+  }
+
+  @Test
+  public void testFallback() {
+    List<Row> expected = sampleRows(20);
+    expected.add(row((short) 1, new BigDecimal("1.5"), 1.5f, 'c', "date"));
+    expected.addAll(sampleRows(20));
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testSpecialDoubles() {
+    List<Row> expected = new ArrayList<>();
+    for (double d : new double[] { -0.0, 0.0, Double.NaN, Double.MIN_VALUE, Double.NEGATIVE_INFINITY }) {
+      expected.add(row(0, 0L, d, "", null));
+    }
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testClear() {
+    theSUT.addAll(sampleRows(50));
+    theSUT.clear();
+    assertTrue(theSUT.isEmpty());
+    List<Row> expected = sampleRows(10);
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+  }
+
+  @Test(expected=IndexOutOfBoundsException.class)
+  public void testGetInvalidIndex() {
+    theSUT.addAll(sampleRows(3));
+    theSUT.get(3);
+  }
+
+  @Test(expected=java.lang.UnsupportedOperationException.class)
+  public void testSet() {
+    theSUT.addAll(sampleRows(3));
+    theSUT.set(0, row(1, 2L, 3.0, "4", null));
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConcurrentQueriesTest extends DBTestCase {
+  private static final int THREADS = 2;
+
+  private ParallelSnapshotTest.SimpleDataSource xds;
+  private Table table;
+  private Query query;
+
+  @Before
+  public void setup() {
+    table = table(UserDAO.TABLE_NAME)
+           .columns(UserDAO.COLUMNS)
+           .key(UserDAO.PRIMARY_KEY)
+           .build(getDB());
+    query = select("LOGIN")
+           .from(table)
+           .build(getDB());
+    xds = new ParallelSnapshotTest.SimpleDataSource();
+    getDB().setConcurrentQueries(xds, THREADS);
+  }
+
+  @After
+  public void teardown() {
+    getDB().setConcurrentQueries(null, 0);
+  }
+
+  @Test
+  public void testAssertUnchanged() {
+    takeSnapshot(table, query);
+    xds.connections.set(0);
+    assertUnchanged(table, query);
+    assertEquals(2, xds.connections.get());
+  }
+
+  @Test
+  public void testExecutorReused() {
+    takeSnapshot(table, query);
+    ExecutorService executor = getDB().getExecutor();
+    assertUnchanged(table, query);
+    assertSame(executor, getDB().getExecutor());
+    getDB().setConcurrentQueries(null, 0);
+    assertTrue(executor.isShutdown());
+  }
+
+  @Test
+  public void testAssertUnchangedFails() throws SQLException {
+    takeSnapshot(table, query);
+    getDAO().doInsert(buildNewUser());
+    try {
+      assertUnchanged(table, query);
+      fail("Expected " + DBAssertionError.class);
+    }
+    catch (DBAssertionError e) { 
+      // expected
+    }
+  }
+
+  @Test
+  public void testAssertUnchangedNoAutoCommit() {
+    takeSnapshot(table, query);
+    xds.connections.set(0);
+    DB db = getDB();
+    db.setAutoCommit(false);
+    try {
+      assertUnchanged(table, query);
+      assertEquals(0, xds.connections.get());
+    }
+    finally {
+      db.setAutoCommit(true);
+    }
+  }
+
+  @Test
+  public void testAssertUnchangedWithChecksums() {
+    DB db = getDB();
+    db.enable(DB.Option.SERVER_CHECKSUMS);
+    try {
+      takeSnapshot(table, query);
+      xds.connections.set(0);
+      assertUnchanged(table, query);
+      Dialect d = db.getDialect();
+      boolean supported = d == Dialect.H2 || d == Dialect.POSTGRESQL || d == Dialect.MYSQL;
+      assertEquals(supported ? 0 : 2, xds.connections.get());
+    }
+    finally {
+      db.disable(DB.Option.SERVER_CHECKSUMS);
+    }
+  }
+
+  @Test
+  public void testSingleDataSource() {
+    takeSnapshot(table);
+    assertEquals(0, xds.connections.get());
+  }
+
+  @Test
+  public void testTakeSnapshot() {
+    takeSnapshot(table, query);
+    assertEquals(2, xds.connections.get());
+    assertEquals(INITIAL_DATA.length, table.getSnapshot().size());
+    JDBDT.assertEquals(executeQuery(table), table.getSnapshot());
+    JDBDT.assertEquals(executeQuery(query), query.getSnapshot());
+  }
+
+  @Test
+  public void testTakeSnapshotNoAutoCommit() {
+    DB db = getDB();
+    db.setAutoCommit(false);
+    try {
+      takeSnapshot(table, query);
+      assertEquals(0, xds.connections.get());
+    }
+    finally {
+      db.setAutoCommit(true);
+    }
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidThreads() {
+    getDB().setConcurrentQueries(xds, 1);
+  }
+}
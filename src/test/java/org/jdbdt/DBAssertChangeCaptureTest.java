@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertChangeCaptureTest extends DBAssertTest {
+
+  private static final String CAPTURE_TABLE = "JDBDT_CC_USERS";
+
+  @Override
+  TableBuilder tableBuilder() {
+    // Key is required by change capture.
+    return super.tableBuilder().key(UserDAO.PRIMARY_KEY);
+  }
+
+  @Before @Override
+  public void takeDBSnapshot() {
+    // Option must be set before the snapshot is taken.
+    getDB().enable(DB.Option.CHANGE_CAPTURE);
+    super.takeDBSnapshot();
+  }
+
+  @After
+  public void disableChangeCapture() {
+    getDB().disable(DB.Option.CHANGE_CAPTURE);
+  }
+
+  @Test
+  public void testCaptureInstalled() throws SQLException {
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .key(UserDAO.PRIMARY_KEY)
+             .build(getDB());
+    assertNull(t.getChangeCapture());
+    DataSet snapshot = takeSnapshot(t);
+    assertNotNull(t.getChangeCapture());
+    assertTableExists(getDB(), CAPTURE_TABLE);
+    Actions.updateUser();
+    User u = Actions.EXISTING_USER_UPDATED;
+    // Key values before and after the update.
+    assertEquals(Arrays.asList(u.getLogin(), u.getLogin()), capturedKeys());
+    assertDelta(data(t).row(getConversion().convert(Actions.EXISTING_USER)),
+                data(t).row(getConversion().convert(u)));
+    getDB().disable(DB.Option.CHANGE_CAPTURE);
+    assertNull(t.getChangeCapture());
+    getDB().enable(DB.Option.CHANGE_CAPTURE);
+    assertNotNull(t.getChangeCapture());
+    assertSame(snapshot, t.getChangeCapture().getSnapshot());
+  }
+
+  private List<Object> capturedKeys() throws SQLException {
+    List<Object> keys = new ArrayList<>();
+    try (Statement stmt = getDB().getConnection().createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM " + CAPTURE_TABLE)) {
+      while (rs.next()) {
+        keys.add(rs.getObject(1));
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  public void testCaptureRemoved() {
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .key(UserDAO.PRIMARY_KEY)
+             .build(getDB());
+    takeSnapshot(t);
+    getDB().removeChangeCapture(UserDAO.TABLE_NAME);
+    assertNull(t.getChangeCapture());
+    assertTableDoesNotExist(getDB(), CAPTURE_TABLE);
+  }
+
+  @Test
+  public void testCaptureWithoutKey() {
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .build(getDB());
+    takeSnapshot(t);
+    assertNull(t.getChangeCapture());
+  }
+
+  @Test
+  public void testCaptureInstallFailure() throws SQLException {
+    DB db = getDB();
+    db.removeChangeCapture(UserDAO.TABLE_NAME);
+    // Capture table cannot be created if a view with the same name exists
+    // (with a dependent view, such that the view cannot be dropped as a table).
+    execute(db, "CREATE VIEW " + CAPTURE_TABLE + " AS SELECT LOGIN FROM " + UserDAO.TABLE_NAME);
+    execute(db, "CREATE VIEW " + CAPTURE_TABLE + "_V AS SELECT LOGIN FROM " + CAPTURE_TABLE);
+    try {
+      Table t = table(UserDAO.TABLE_NAME)
+               .columns(UserDAO.COLUMNS)
+               .key(UserDAO.PRIMARY_KEY)
+               .build(db);
+      takeSnapshot(t);
+      assertNull(t.getChangeCapture());
+      Actions.updateUser();
+      User u = Actions.EXISTING_USER_UPDATED;
+      assertDelta(data(t).row(getConversion().convert(Actions.EXISTING_USER)),
+                  data(t).row(getConversion().convert(u)));
+    }
+    finally {
+      execute(db, "DROP VIEW " + CAPTURE_TABLE + "_V");
+      execute(db, "DROP VIEW " + CAPTURE_TABLE);
+    }
+  }
+
+  @Test @Category(TestCategories.Truncate.class)
+  public void testCaptureInvalidatedByTruncate() {
+    if (getDB().getDialect() == Dialect.DERBY) {
+      // Derby does not allow truncation of tables with delete triggers.
+      return;
+    }
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .key(UserDAO.PRIMARY_KEY)
+             .build(getDB());
+    takeSnapshot(t);
+    assertNotNull(t.getChangeCapture());
+    truncate(t);
+    assertNull(t.getChangeCapture());
+    try {
+      assertUnchanged(t);
+      fail("Expected " + DBAssertionError.class);
+    }
+    catch (DBAssertionError e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+import static org.jdbdt.TestUtil.expectAssertionError;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertColumnarSnapshotTest extends DBTestCase {
+  private static final String TABLE = "JDBDT_COLUMNAR";
+
+  private Table table;
+  private DataSet initial;
+
+  @Before
+  public void setup() {
+    DB db = getDB();
+    execute(db, "CREATE TABLE " + TABLE 
+                + " (ID INTEGER PRIMARY KEY NOT NULL, N INTEGER, S VARCHAR(10))");
+    table = table(TABLE).key("ID").build(db);
+    // NULL values in both columns, and repeated strings.
+    initial = data(table)
+             .row(1, 10, "a")
+             .row(2, null, "a")
+             .row(3, 30, null)
+             .row(4, null, "b");
+    populate(initial);
+    db.enable(DB.Option.COLUMNAR_SNAPSHOTS);
+  }
+
+  @After
+  public void teardown() {
+    getDB().disable(DB.Option.COLUMNAR_SNAPSHOTS);
+    drop(table);
+  }
+
+  @Test
+  public void testSnapshot() {
+    DataSet snapshot = takeSnapshot(table);
+    assertTrue(snapshot.getRows() instanceof ColumnarRowList);
+    ColumnarRowList rows = (ColumnarRowList) snapshot.getRows();
+    for (int c = 0; c < table.getColumnCount(); c++) {
+      assertTrue(rows.isCompact(c));
+    }
+    JDBDT.assertEquals(initial, snapshot);
+  }
+
+  @Test
+  public void testDelta() {
+    takeSnapshot(table);
+    execute(getDB(), "UPDATE " + TABLE + " SET N = NULL, S = 'c' WHERE ID = 1");
+    execute(getDB(), "UPDATE " + TABLE + " SET N = 20 WHERE ID = 2");
+    execute(getDB(), "DELETE FROM " + TABLE + " WHERE ID = 3");
+    execute(getDB(), "INSERT INTO " + TABLE + " VALUES (5, NULL, 'a')");
+    assertDelta(data(table).row(1, 10, "a").row(2, null, "a").row(3, 30, null),
+                data(table).row(1, null, "c").row(2, 20, "a").row(5, null, "a"));
+  }
+
+  @Test
+  public void testDeltaFailure() {
+    takeSnapshot(table);
+    execute(getDB(), "UPDATE " + TABLE + " SET S = NULL WHERE ID = 4");
+    expectAssertionError("", () -> assertUnchanged(table));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+import static org.jdbdt.TestUtil.expectAssertionError;
+import static org.jdbdt.TestUtil.expectException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertFingerprintSnapshotTest extends DBTestCase {
+
+  private Table table;
+
+  @Before
+  public void setup() {
+    table = table(UserDAO.TABLE_NAME)
+           .columns(UserDAO.COLUMNS)
+           .build(getDB());
+    getDB().enable(DB.Option.FINGERPRINT_SNAPSHOTS);
+  }
+
+  @After
+  public void disableFingerprintSnapshots() {
+    getDB().disable(DB.Option.FINGERPRINT_SNAPSHOTS);
+  }
+
+  @Test
+  public void testSnapshotRowsNotRetained() {
+    DataSet snapshot = takeSnapshot(table);
+    assertTrue(snapshot.getRows() instanceof FingerprintRowList);
+    assertEquals(INITIAL_DATA.length, snapshot.size());
+    assertEquals(INITIAL_DATA.length, table.getSnapshotFingerprints().size());
+    expectException(InvalidOperationException.class, () -> table.getSnapshot());
+    expectException(InvalidOperationException.class, () -> snapshot.getRows().get(0));
+  }
+
+  @Test
+  public void testSnapshotPrecedence() {
+    DB db = getDB();
+    db.enable(DB.Option.OFF_HEAP_SNAPSHOTS, DB.Option.COLUMNAR_SNAPSHOTS);
+    try {
+      assertTrue(takeSnapshot(table).getRows() instanceof FingerprintRowList);
+    }
+    finally {
+      db.disable(DB.Option.OFF_HEAP_SNAPSHOTS, DB.Option.COLUMNAR_SNAPSHOTS);
+    }
+  }
+
+  @Test
+  public void testDelta() throws SQLException {
+    takeSnapshot(table);
+    User u = getTestData(EXISTING_DATA_ID1);
+    User v = u.clone();
+    v.setName("new name");
+    getDAO().doUpdate(v);
+    assertDelta(data(table, getConversion()).row(u), 
+                data(table, getConversion()).row(v));
+  }
+
+  @Test
+  public void testDeltaFailure() throws SQLException {
+    takeSnapshot(table);
+    getDAO().doDelete(EXISTING_DATA_ID1);
+    expectAssertionError("", () -> assertUnchanged(table));
+  }
+
+  @Test
+  public void testLogFingerprints() {
+    DataSet snapshot = takeSnapshot(table);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Log log = Log.create(new PrintStream(out));
+    log.write(CallInfo.create(), snapshot);
+    String text = out.toString();
+    assertTrue(text.contains("<fingerprints count=\"" + INITIAL_DATA.length + "\""));
+    assertFalse(text.contains("<rows"));
+  }
+}
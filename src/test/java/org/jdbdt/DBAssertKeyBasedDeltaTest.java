@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertKeyBasedDeltaTest extends DBAssertTest {
+
+  @Override
+  TableBuilder tableBuilder() {
+    // Key is required by key-based delta.
+    return super.tableBuilder().key(UserDAO.PRIMARY_KEY);
+  }
+
+  @Before
+  public void enableKeyBasedDelta() {
+    getDB().enable(DB.Option.KEY_BASED_DELTA);
+  }
+
+  @After
+  public void disableKeyBasedDelta() {
+    getDB().disable(DB.Option.KEY_BASED_DELTA);
+  }
+
+  private static final int NAME = 1;
+
+  private DeltaAssertion updateAndAssert(Table t, User u, String newName) throws SQLException {
+    takeSnapshot(t);
+    User v = u.clone();
+    v.setName(newName);
+    getDAO().doUpdate(v);
+    return DBAssert.newDeltaAssertion(CallInfo.create(), empty(t), empty(t), null);
+  }
+
+  private static int count(Iterator<Row> itr) {
+    int n = 0;
+    for (; itr.hasNext(); itr.next()) {
+      n++;
+    }
+    return n;
+  }
+
+  @Test
+  public void testUpdateReported() throws SQLException {
+    Table t = tableBuilder().build(getDB());
+    User u = getTestData(EXISTING_DATA_ID1);
+    DeltaAssertion da = updateAndAssert(t, u, "new name");
+    assertFalse(da.passed());
+    List<DeltaAssertion.Update> updates = da.updates();
+    assertEquals(1, updates.size());
+    DeltaAssertion.Update upd = updates.get(0);
+    assertEquals(u.getLogin(), upd.before().data()[0]);
+    assertEquals(u.getLogin(), upd.after().data()[0]);
+    assertEquals(u.getName(), upd.before().data()[NAME]);
+    assertEquals("new name", upd.after().data()[NAME]);
+    assertArrayEquals(new int[] { NAME }, upd.changedColumns());
+    assertEquals(0, count(da.data(DeltaAssertion.IteratorType.OLD_DATA_ERRORS_ACTUAL)));
+    assertEquals(0, count(da.data(DeltaAssertion.IteratorType.NEW_DATA_ERRORS_ACTUAL)));
+  }
+
+  @Test
+  public void testNonUniqueKeyFallback() throws SQLException {
+    // Both users have "xyz" as password.
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .key("PASSWORD")
+             .build(getDB());
+    takeSnapshot(t);
+    for (String id : new String[] { "alanis", "blanis" }) {
+      User v = getTestData(id).clone();
+      v.setName("new name");
+      getDAO().doUpdate(v);
+    }
+    DeltaAssertion da = 
+      DBAssert.newDeltaAssertion(CallInfo.create(), empty(t), empty(t), null);
+    assertFalse(da.passed());
+    assertTrue(da.updates().isEmpty());
+    assertEquals(2, count(da.data(DeltaAssertion.IteratorType.OLD_DATA_ERRORS_ACTUAL)));
+    assertEquals(2, count(da.data(DeltaAssertion.IteratorType.NEW_DATA_ERRORS_ACTUAL)));
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertMergeDeltaTest extends DBAssertTest {
+
+  @Override
+  TableBuilder tableBuilder() {
+    // Key is required by merge delta.
+    return super.tableBuilder().key(UserDAO.PRIMARY_KEY);
+  }
+
+  @Before @Override
+  public void takeDBSnapshot() {
+    // Option must be set before table creation,
+    // and LOG_QUERIES disabled so that query results are not kept in memory.
+    getDB().enable(DB.Option.MERGE_DELTA);
+    getDB().disable(DB.Option.LOG_QUERIES);
+    super.takeDBSnapshot();
+  }
+
+  @After
+  public void disableMergeDelta() {
+    getDB().disable(DB.Option.MERGE_DELTA);
+    getDB().enable(DB.Option.LOG_QUERIES);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+import static org.jdbdt.TestUtil.expectAssertionError;
+import static org.jdbdt.TestUtil.expectException;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertOffHeapSnapshotTest extends DBTestCase {
+  // Small segments, so that snapshots span several segments.
+  private static final int SEGMENT_SIZE = 64;
+
+  private Table table;
+
+  @Before
+  public void setup() {
+    table = table(UserDAO.TABLE_NAME)
+           .columns(UserDAO.COLUMNS)
+           .build(getDB());
+    getDB().enable(DB.Option.OFF_HEAP_SNAPSHOTS);
+    getDB().setOffHeapSegmentSize(SEGMENT_SIZE);
+  }
+
+  @After
+  public void disableOffHeapSnapshots() {
+    getDB().disable(DB.Option.OFF_HEAP_SNAPSHOTS);
+    getDB().setOffHeapSegmentSize(OffHeapRowList.DEFAULT_SEGMENT_SIZE);
+  }
+
+  @Test
+  public void testSnapshotSealed() {
+    DataSet snapshot = takeSnapshot(table);
+    assertTrue(snapshot.getRows() instanceof OffHeapRowList);
+    OffHeapRowList rows = (OffHeapRowList) snapshot.getRows();
+    assertTrue(rows.segmentCount() > 1);
+    expectException(InvalidOperationException.class, 
+        () -> rows.add(new Row(new Object[table.getColumnCount()])));
+    // Rows are read back from the segments after sealing.
+    JDBDT.assertEquals(data(table, getConversion()).rows(INITIAL_DATA), snapshot);
+  }
+
+  @Test
+  public void testDelta() throws SQLException {
+    takeSnapshot(table);
+    User u = getTestData(EXISTING_DATA_ID1);
+    User v = u.clone();
+    v.setName("new name");
+    getDAO().doUpdate(v);
+    getDAO().doDelete(EXISTING_DATA_ID2);
+    assertDelta(data(table, getConversion()).row(u).row(getTestData(EXISTING_DATA_ID2)), 
+                data(table, getConversion()).row(v));
+  }
+
+  @Test
+  public void testDeltaFailure() throws SQLException {
+    takeSnapshot(table);
+    getDAO().doDelete(EXISTING_DATA_ID1);
+    expectAssertionError("", () -> assertUnchanged(table));
+  }
+}
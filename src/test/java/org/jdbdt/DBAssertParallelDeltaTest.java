@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertParallelDeltaTest extends DBAssertTest {
+
+  @Before
+  public void enableParallelDelta() {
+    getDB().enable(DB.Option.PARALLEL_DELTA);
+    getDB().setParallelDeltaThreshold(1);
+  }
+
+  @After
+  public void disableParallelDelta() {
+    getDB().enable(DB.Option.PARALLEL_DELTA);
+    getDB().setParallelDeltaThreshold(DB.DEFAULT_PARALLEL_DELTA_THRESHOLD);
+    getDB().disable(DB.Option.PARALLEL_DELTA);
+  }
+
+  @Test
+  public void testParallelDeltaThreshold() {
+    assertEquals(1, getDB().getParallelDeltaThreshold());
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidParallelDeltaThreshold() {
+    getDB().setParallelDeltaThreshold(0);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testParallelDeltaThresholdWhenDisabled() {
+    getDB().disable(DB.Option.PARALLEL_DELTA);
+    getDB().setParallelDeltaThreshold(10);
+  }
+}
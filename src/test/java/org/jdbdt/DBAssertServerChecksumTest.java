@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertServerChecksumTest extends DBAssertTest {
+
+  @Before @Override
+  public void takeDBSnapshot() {
+    // Option must be set before the snapshot is taken.
+    getDB().enable(DB.Option.SERVER_CHECKSUMS);
+    super.takeDBSnapshot();
+  }
+
+  @After
+  public void disableServerChecksums() {
+    getDB().disable(DB.Option.SERVER_CHECKSUMS);
+  }
+
+  @Test
+  public void testSnapshotChecksum() throws SQLException {
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .build(getDB());
+    takeSnapshot(t);
+    Dialect d = getDB().getDialect();
+    boolean supported = d == Dialect.H2 || d == Dialect.POSTGRESQL || d == Dialect.MYSQL;
+    assertEquals(supported, t.matchesSnapshotChecksum(CallInfo.create()));
+    Actions.updateUser();
+    assertFalse(t.matchesSnapshotChecksum(CallInfo.create()));
+  }
+}
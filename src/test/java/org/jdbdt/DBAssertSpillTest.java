@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.jdbdt.JDBDT.*;
+import static org.junit.Assert.*;
+import static org.jdbdt.TestUtil.expectAssertionError;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBAssertSpillTest extends DBTestCase {
+  // Below the number of rows in the table, which includes 
+  // rows with NULL values beyond the threshold.
+  private static final int THRESHOLD = 5;
+
+  private Table table;
+
+  @Before
+  public void setup() {
+    table = table(UserDAO.TABLE_NAME)
+           .columns(UserDAO.COLUMNS)
+           .build(getDB());
+    getDB().setSpillThreshold(THRESHOLD);
+  }
+
+  @After
+  public void resetSpillThreshold() {
+    getDB().setSpillThreshold(0);
+  }
+
+  private DataSet initialData() {
+    return data(table, getConversion()).rows(INITIAL_DATA);
+  }
+
+  @Test
+  public void testQuerySpilled() {
+    DataSet data = executeQuery(table);
+    assertTrue(data.getRows() instanceof SpillRowList);
+    assertEquals(INITIAL_DATA.length - THRESHOLD, ((SpillRowList) data.getRows()).spilled());
+    JDBDT.assertEquals(initialData(), data);
+  }
+
+  @Test
+  public void testQueryBelowThreshold() {
+    getDB().setSpillThreshold(INITIAL_DATA.length);
+    DataSet data = executeQuery(table);
+    assertEquals(0, ((SpillRowList) data.getRows()).spilled());
+    JDBDT.assertEquals(initialData(), data);
+  }
+
+  @Test
+  public void testStateAssertion() throws SQLException {
+    assertState(initialData());
+    getDAO().doDelete(EXISTING_DATA_ID2);
+    expectAssertionError("", () -> assertState(initialData()));
+  }
+
+  @Test
+  public void testDelta() throws SQLException {
+    takeSnapshot(table);
+    User u = getTestData(EXISTING_DATA_ID2);
+    User v = u.clone();
+    v.setName("new name");
+    getDAO().doUpdate(v);
+    assertDelta(data(table, getConversion()).row(u), 
+                data(table, getConversion()).row(v));
+  }
+
+  @Test
+  public void testDeltaFailure() throws SQLException {
+    takeSnapshot(table);
+    getDAO().doDelete(EXISTING_DATA_ID3);
+    expectAssertionError("", () -> assertUnchanged(table));
+  }
+}
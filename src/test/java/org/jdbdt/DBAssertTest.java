@@ -83,9 +83,7 @@ public class DBAssertTest extends DBTestCase {
 
   @Before 
   public void takeDBSnapshot() {
-    table = table(UserDAO.TABLE_NAME)
-        .columns(UserDAO.COLUMNS)
-        .build(getDB());
+    table = tableBuilder().build(getDB());
     query = select("LOGIN")
            .from(table)
            .build(getDB());
@@ -98,6 +96,11 @@ public class DBAssertTest extends DBTestCase {
     newUserLDs = d(Actions.USER_TO_INSERT.getLogin());
   }
   
+  TableBuilder tableBuilder() {
+    return table(UserDAO.TABLE_NAME)
+        .columns(UserDAO.COLUMNS);
+  }
+  
   DataSet d(User... users) {
     return data(table, getConversion()).rows(users);
   }
@@ -36,9 +36,29 @@ import org.junit.runners.Suite.SuiteClasses;
   QueryTest.class,
   DataSetTest.class,
   DBSetupTest.class,
+  DBSetupMultiRowInsertTest.class,
+  DBSetupBulkLoadTest.class,
+  DBSetupIncrementalPopulateTest.class,
+  DBSetupForeignKeyOrderTest.class,
   DBAssertTest.class,
+  DBAssertKeyBasedDeltaTest.class,
+  DBAssertMergeDeltaTest.class,
+  DBAssertParallelDeltaTest.class,
+  DBAssertFingerprintSnapshotTest.class,
+  DBAssertServerChecksumTest.class,
+  DBAssertChangeCaptureTest.class,
+  DBAssertColumnarSnapshotTest.class,
+  DBAssertOffHeapSnapshotTest.class,
+  DBAssertSpillTest.class,
+  DBAssertPassFailOnlyTest.class,
+  DeltaResultTest.class,
+  RowStreamTest.class,
+  RowReaderTest.class,
+  ParallelSnapshotTest.class,
+  ConcurrentQueriesTest.class,
   DBTableExistenceAssertionsTest.class,
   DBStatementReuseTest.class,
+  DBMetaDataCacheTest.class,
   DBSavepointTest.class,
   AssertEqualsTest.class,
   DataSetBuilderCoreTest.class,
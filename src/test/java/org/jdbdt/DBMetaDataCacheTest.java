@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+public class DBMetaDataCacheTest extends DBTestCase {
+
+  private static final String TNAME = "DBMetaDataCacheTest";
+
+  private static Table newTable() {
+    return table(UserDAO.TABLE_NAME).columns(UserDAO.COLUMNS).build(getDB());
+  }
+
+  @Before
+  public void beforeEachTest() {
+    getDB().enable(DB.Option.CACHE_METADATA);
+  }
+
+  @After
+  public void afterEachTest() {
+    getDB().disable(DB.Option.CACHE_METADATA);
+  }
+
+  @Test
+  public void testCache1() {
+    Table t1 = newTable();
+    Table t2 = newTable();
+    assertSame(t1.getMetaData(), t2.getMetaData());
+    assertSame(t1.getColumns(), t2.getColumns());
+  }
+
+  @Test
+  public void testCache2() {
+    getDB().disable(DB.Option.CACHE_METADATA);
+    Table t1 = newTable();
+    Table t2 = newTable();
+    assertNotSame(t1.getMetaData(), t2.getMetaData());
+    assertEquals(t1.getColumns(), t2.getColumns());
+  }
+
+  @Test
+  public void testCacheClearedOnExecute() {
+    MetaData md = newTable().getMetaData();
+    execute(getDB(), "CREATE TABLE " + TNAME + " (X INTEGER)");
+    try {
+      assertNotSame(md, newTable().getMetaData());
+    }
+    finally {
+      drop(getDB(), TNAME);
+    }
+  }
+
+  @Test
+  public void testCacheClearedOnDrop() {
+    execute(getDB(), "CREATE TABLE " + TNAME + " (X INTEGER)");
+    Table t = table(TNAME).build(getDB());
+    assertEquals(1, t.getColumns().size());
+    drop(t);
+    execute(getDB(), "CREATE TABLE " + TNAME + " (X INTEGER, Y INTEGER)");
+    try {
+      t = table(TNAME).build(getDB());
+      assertEquals(2, t.getColumns().size());
+    }
+    finally {
+      drop(t);
+    }
+  }
+
+  @Test
+  public void testCacheClearedOnSchemaChanged() {
+    MetaData md = newTable().getMetaData();
+    getDB().schemaChanged();
+    assertNotSame(md, newTable().getMetaData());
+  }
+
+  @Test
+  public void testCacheKeptOnChangeCapture() {
+    DB db = getDB();
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .key(UserDAO.PRIMARY_KEY)
+             .build(db);
+    MetaData md = t.getMetaData();
+    db.enable(DB.Option.CHANGE_CAPTURE);
+    try {
+      takeSnapshot(t);
+      assertSame(md, newTable().getMetaData());
+    }
+    finally {
+      db.disable(DB.Option.CHANGE_CAPTURE);
+      db.removeChangeCapture(UserDAO.TABLE_NAME);
+    }
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    assertFalse(new DB(getDB().getConnection()).isEnabled(DB.Option.CACHE_METADATA));
+  }
+
+  @Test
+  public void testIsDDL() {
+    assertTrue(DBSetup.isDDL("CREATE TABLE T (X INTEGER)"));
+    assertTrue(DBSetup.isDDL("  alter table T add Y INTEGER"));
+    assertTrue(DBSetup.isDDL("DROP TABLE T"));
+    assertTrue(DBSetup.isDDL("RENAME TABLE T TO U"));
+    assertFalse(DBSetup.isDDL("INSERT INTO T VALUES (1)"));
+    assertFalse(DBSetup.isDDL("DELETE FROM T"));
+    assertFalse(DBSetup.isDDL(""));
+  }
+}
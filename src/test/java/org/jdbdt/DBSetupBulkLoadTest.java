@@ -0,0 +1,207 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBSetupBulkLoadTest extends DBSetupTest {
+
+  @Before @Override
+  public void ensureBatchUpdateSetting() {
+    super.ensureBatchUpdateSetting();
+    getDB().setBulkLoadThreshold(1);
+  }
+
+  @After
+  public void disableBulkLoads() {
+    getDB().setBulkLoadThreshold(0);
+    getDB().setBulkLoader(null);
+  }
+
+  private static Table userTable() {
+    return table(UserDAO.TABLE_NAME)
+          .columns(UserDAO.COLUMNS)
+          .build(getDB());
+  }
+
+  private static DataSet newUsers(Table t, int n) {
+    DataSet data = data(t);
+    for (int i = 0; i < n; i++) {
+      data.row(getConversion().convert(buildNewUser()));
+    }
+    return data;
+  }
+
+  @Test
+  public void testBuiltInLoader() throws SQLException {
+    DB db = getDB();
+    BulkLoader builtIn = BulkLoaders.forDialect(db.getDialect());
+    AtomicInteger loaded = new AtomicInteger();
+    db.setBulkLoader((conn, t, rows) -> {
+      boolean ok = builtIn != null && builtIn.load(conn, t, rows);
+      if (ok) {
+        loaded.incrementAndGet();
+      }
+      return ok;
+    });
+    Table t = userTable();
+    DataSet data = newUsers(t, 3);
+    int n = getDAO().count();
+    insert(data);
+    assertEquals(n + 3, getDAO().count());
+    Dialect d = db.getDialect();
+    boolean expected = 
+        d == Dialect.H2 
+     || (d == Dialect.HSQLDB && DBConfig.getConfig().getURL().startsWith("jdbc:hsqldb:file:"));
+    assertEquals(expected ? 1 : 0, loaded.get());
+    JDBDT.assertEquals(DataSet.join(data(t, getConversion()).rows(INITIAL_DATA), data), 
+                       executeQuery(t));
+  }
+
+  @Test
+  public void testCustomLoader() {
+    AtomicInteger calls = new AtomicInteger();
+    getDB().setBulkLoader((conn, t, rows) -> {
+      for (Object[] row : rows) {
+        assertEquals(t.getColumnCount(), row.length);
+        calls.incrementAndGet();
+      }
+      return true;
+    });
+    Table t = userTable();
+    populate(newUsers(t, 5));
+    assertEquals(5, calls.get());
+  }
+
+  @Test
+  public void testCustomLoaderFallback() throws SQLException {
+    AtomicInteger calls = new AtomicInteger();
+    getDB().setBulkLoader((conn, t, rows) -> {
+      calls.incrementAndGet();
+      return false;
+    });
+    Table t = userTable();
+    DataSet data = newUsers(t, 2);
+    populate(data);
+    assertEquals(1, calls.get());
+    assertEquals(2, getDAO().count());
+  }
+
+  @Test
+  public void testThreshold() {
+    AtomicInteger calls = new AtomicInteger();
+    getDB().setBulkLoader((conn, t, rows) -> {
+      calls.incrementAndGet();
+      return false;
+    });
+    getDB().setBulkLoadThreshold(3);
+    Table t = userTable();
+    insert(newUsers(t, 2));
+    assertEquals(0, calls.get());
+    insert(newUsers(t, 3));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testEmbeddedH2() {
+    assertTrue(BulkLoaders.isEmbeddedH2("jdbc:h2:mem:test"));
+    assertTrue(BulkLoaders.isEmbeddedH2("jdbc:h2:file:./test"));
+    assertTrue(BulkLoaders.isEmbeddedH2("jdbc:h2:~/test;MODE=MySQL"));
+    assertFalse(BulkLoaders.isEmbeddedH2("jdbc:h2:tcp://localhost/~/test"));
+    assertFalse(BulkLoaders.isEmbeddedH2("jdbc:h2:ssl://localhost/~/test"));
+    assertFalse(BulkLoaders.isEmbeddedH2("jdbc:hsqldb:mem:test"));
+  }
+
+  private static Table loginNameTable() {
+    return table(UserDAO.TABLE_NAME)
+          .columns("LOGIN", "NAME")
+          .build(getDB());
+  }
+
+  private static final List<Object[]> CSV_ROWS = Arrays.asList(
+    new Object[] { "a\"b", null },
+    new Object[] { "\u00e7", "x,y" }
+  );
+
+  private static final String CSV_TEXT = "\"a\"\"b\",NULL\n\"\u00e7\",\"x,y\"\n";
+
+  @Test
+  public void testCSVReader() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    try (Reader in = new BulkLoaders.CSVReader(loginNameTable(), CSV_ROWS, "NULL", false)) {
+      // Small buffer, so that lines are read in several steps.
+      char[] buf = new char[3];
+      int count;
+      while ((count = in.read(buf, 0, buf.length)) >= 0) {
+        sb.append(buf, 0, count);
+      }
+    }
+    assertEquals(CSV_TEXT, sb.toString());
+  }
+
+  @Test
+  public void testCSVInputStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (BulkLoaders.CSVReader csv = new BulkLoaders.CSVReader(loginNameTable(), CSV_ROWS, "NULL", false)) {
+      InputStream in = csv.asInputStream();
+      int b;
+      while ((b = in.read()) >= 0) {
+        out.write(b);
+      }
+    }
+    assertArrayEquals(CSV_TEXT.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+  }
+
+  @Test
+  public void testHasText() {
+    Table t = loginNameTable();
+    assertTrue(BulkLoaders.hasText(t, CSV_ROWS));
+    assertFalse(BulkLoaders.hasText(t, Arrays.<Object[]>asList(new Object[] { "a", new byte[1] })));
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidThreshold() {
+    getDB().setBulkLoadThreshold(-1);
+  }
+}
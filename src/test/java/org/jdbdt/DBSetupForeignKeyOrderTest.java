@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBSetupForeignKeyOrderTest extends DBTestCase {
+  private static final String PARENT = "JDBDT_FK_PARENT";
+  private static final String CHILD = "JDBDT_FK_CHILD";
+  private static final String OTHER = "JDBDT_FK_OTHER";
+
+  private Table parent;
+  private Table child;
+  private Table other;
+  private ParallelSnapshotTest.SimpleDataSource xds;
+
+  @Before
+  public void setup() {
+    DB db = getDB();
+    execute(db, "CREATE TABLE " + PARENT + " (ID INTEGER PRIMARY KEY NOT NULL)");
+    execute(db, "CREATE TABLE " + CHILD 
+                + " (ID INTEGER PRIMARY KEY NOT NULL, PID INTEGER NOT NULL,"
+                + " FOREIGN KEY (PID) REFERENCES " + PARENT + "(ID))");
+    execute(db, "CREATE TABLE " + OTHER + " (ID INTEGER PRIMARY KEY NOT NULL)");
+    parent = table(PARENT).key("ID").build(db);
+    child = table(CHILD).key("ID").build(db);
+    other = table(OTHER).key("ID").build(db);
+    populate(data(parent).row(1).row(2));
+    populate(data(child).row(10, 1).row(20, 2));
+    xds = new ParallelSnapshotTest.SimpleDataSource();
+    db.enable(DB.Option.FOREIGN_KEY_ORDER);
+  }
+
+  @After
+  public void teardown() {
+    DB db = getDB();
+    db.disable(DB.Option.FOREIGN_KEY_ORDER);
+    db.setParallelPopulate(null, 0);
+    drop(child);
+    drop(parent);
+    drop(other);
+  }
+
+  @Test
+  public void testLevels() throws SQLException {
+    List<List<Table>> levels = 
+      TableDependencies.levels(getDB(), Arrays.asList(child, other, parent));
+    assertEquals(Arrays.asList(Arrays.asList(other, parent), 
+                               Arrays.asList(child)), 
+                 levels);
+  }
+
+  @Test
+  public void testPopulate() {
+    DataSet c = data(child).row(30, 3);
+    DataSet p = data(parent).row(3);
+    DataSet o = data(other).row(100).row(200);
+    populate(c, o, p);
+    assertState(c, p, o);
+    assertEquals(0, xds.connections.get());
+  }
+
+  @Test
+  public void testPopulateIfChanged() {
+    DataSet c = data(child).row(30, 3);
+    DataSet p = data(parent).row(3);
+    populate(c, p);
+    assertUnchanged(parent);
+    DataSet c2 = data(child).row(31, 3);
+    populateIfChanged(c2, p);
+    assertState(c2, p);
+  }
+
+  @Test
+  public void testPopulateIncremental() {
+    DB db = getDB();
+    db.enable(DB.Option.INCREMENTAL_POPULATE);
+    try {
+      DataSet c = data(child).row(10, 1).row(30, 3);
+      DataSet p = data(parent).row(1).row(2).row(3);
+      populate(c, p);
+      assertState(c, p);
+    }
+    finally {
+      db.disable(DB.Option.INCREMENTAL_POPULATE);
+    }
+  }
+
+  @Test
+  public void testPopulateIncrementalWithParentDeletes() {
+    DB db = getDB();
+    db.enable(DB.Option.INCREMENTAL_POPULATE);
+    try {
+      DataSet c = data(child).row(10, 1);
+      DataSet p = data(parent).row(1);
+      populate(p, c);
+      assertState(c, p);
+    }
+    finally {
+      db.disable(DB.Option.INCREMENTAL_POPULATE);
+    }
+  }
+
+  @Test
+  public void testParallelPopulate() {
+    getDB().setParallelPopulate(xds, 2);
+    DataSet c = data(child).row(30, 3).row(40, 4);
+    DataSet p = data(parent).row(3).row(4);
+    DataSet o = data(other).row(100).row(200);
+    populate(c, o, p);
+    assertState(c, p, o);
+    assertEquals(2, xds.connections.get());
+  }
+
+  @Test
+  public void testParallelPopulateNoAutoCommit() {
+    DB db = getDB();
+    db.setParallelPopulate(xds, 2);
+    db.setAutoCommit(false);
+    try {
+      DataSet c = data(child).row(30, 3);
+      DataSet p = data(parent).row(3);
+      DataSet o = data(other).row(100);
+      populate(c, o, p);
+      assertState(c, p, o);
+      assertEquals(0, xds.connections.get());
+    }
+    finally {
+      db.setAutoCommit(true);
+    }
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidThreads() {
+    getDB().setParallelPopulate(xds, 1);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.sql.Date;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBSetupIncrementalPopulateTest extends DBSetupTest {
+
+  private Table table;
+  private DataSet fixture;
+
+  @Before @Override
+  public void ensureBatchUpdateSetting() {
+    super.ensureBatchUpdateSetting();
+    getDB().enable(DB.Option.INCREMENTAL_POPULATE);
+    table = table(UserDAO.TABLE_NAME)
+           .columns(UserDAO.COLUMNS)
+           .key(UserDAO.PRIMARY_KEY)
+           .build(getDB());
+    fixture = data(table, getConversion()).rows(INITIAL_DATA);
+  }
+
+  @After
+  public void disableIncrementalPopulate() {
+    getDB().disable(DB.Option.INCREMENTAL_POPULATE, DB.Option.CHANGE_CAPTURE);
+  }
+
+  private static void changeUsers() throws SQLException {
+    User u = getTestData(EXISTING_DATA_ID1).clone();
+    u.setName("changed");
+    u.setCreated(Date.valueOf("2099-01-01"));
+    getDAO().doUpdate(u);
+    getDAO().doDelete(EXISTING_DATA_ID2);
+    getDAO().doInsert(buildNewUser());
+  }
+
+  private void assertFixture() throws SQLException {
+    assertEquals(INITIAL_DATA.length, getDAO().count());
+    for (User u : INITIAL_DATA) {
+      assertEquals(u, getDAO().query(u.getLogin()));
+    }
+    assertUnchanged(table);
+  }
+
+  @Test
+  public void testIncrementalPopulate() throws SQLException {
+    populate(fixture);
+    changeUsers();
+    populate(fixture);
+    assertFixture();
+  }
+
+  @Test
+  public void testIncrementalPopulateNoChanges() throws SQLException {
+    populate(fixture);
+    populate(fixture);
+    assertFixture();
+  }
+
+  @Test
+  public void testIncrementalPopulateFromEmptyTable() throws SQLException {
+    getDAO().doDeleteAll();
+    populate(fixture);
+    assertFixture();
+  }
+
+  @Test
+  public void testIncrementalPopulateWithChangeCapture() throws SQLException {
+    getDB().enable(DB.Option.CHANGE_CAPTURE);
+    populate(fixture);
+    changeUsers();
+    populate(fixture);
+    assertFixture();
+    changeUsers();
+    populate(fixture);
+    assertFixture();
+  }
+
+  @Test
+  public void testIncrementalPopulateKeepsUnchangedRows() throws SQLException {
+    keepsUnchangedRows();
+  }
+
+  @Test
+  public void testIncrementalPopulateKeepsUnchangedRowsWithChangeCapture() throws SQLException {
+    getDB().enable(DB.Option.CHANGE_CAPTURE);
+    keepsUnchangedRows();
+  }
+
+  private void keepsUnchangedRows() throws SQLException {
+    // The CREATED column is not part of the table definition, and is 
+    // reset to NULL if a row is deleted and inserted again.
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns("LOGIN", "NAME", "PASSWORD")
+             .key(UserDAO.PRIMARY_KEY)
+             .build(getDB());
+    DataSet data = data(t);
+    for (User u : INITIAL_DATA) {
+      data.row(u.getLogin(), u.getName(), u.getPassword());
+    }
+    populate(data);
+    Date marker = Date.valueOf("2000-01-01");
+    for (User u : INITIAL_DATA) {
+      User v = u.clone();
+      v.setCreated(marker);
+      getDAO().doUpdate(v);
+    }
+    changeUsers();
+    populate(data);
+    assertEquals(INITIAL_DATA.length, getDAO().count());
+    for (User u : INITIAL_DATA) {
+      User v = getDAO().query(u.getLogin());
+      assertEquals(u.getName(), v.getName());
+      if (u.getLogin().equals(EXISTING_DATA_ID1)) {
+        // Updated.
+        assertEquals(Date.valueOf("2099-01-01"), v.getCreated());
+      } 
+      else if (u.getLogin().equals(EXISTING_DATA_ID2)) {
+        // Inserted again.
+        assertNull(v.getCreated());
+      } 
+      else {
+        // Untouched.
+        assertEquals(marker, v.getCreated());
+      }
+    }
+  }
+
+  @Test
+  public void testNoKey() throws SQLException {
+    Table t = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .build(getDB());
+    changeUsers();
+    populate(data(t, getConversion()).rows(INITIAL_DATA));
+    assertEquals(INITIAL_DATA.length, getDAO().count());
+    for (User u : INITIAL_DATA) {
+      assertEquals(u, getDAO().query(u.getLogin()));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DBSetupMultiRowInsertTest extends DBSetupTest {
+
+  @Before @Override
+  public void ensureBatchUpdateSetting() {
+    super.ensureBatchUpdateSetting();
+    getDB().enable(DB.Option.MULTI_ROW_INSERTS);
+  }
+
+  @After
+  public void disableMultiRowInserts() {
+    getDB().disable(DB.Option.MULTI_ROW_INSERTS);
+  }
+
+  @Test
+  public void testInsertSQL() {
+    Table t = table(UserDAO.TABLE_NAME).columns("LOGIN", "NAME").build(getDB());
+    assertEquals("INSERT INTO " + UserDAO.TABLE_NAME + "(LOGIN,NAME) VALUES (?,?)", 
+                 DBSetup.insertSQL(t, 1));
+    assertEquals("INSERT INTO " + UserDAO.TABLE_NAME + "(LOGIN,NAME) VALUES (?,?),(?,?),(?,?)", 
+                 DBSetup.insertSQL(t, 3));
+  }
+
+  private static final int ROWS_PER_STATEMENT = 5;
+
+  private static Table userTable() {
+    return table(UserDAO.TABLE_NAME)
+          .columns(UserDAO.COLUMNS)
+          .build(getDB());
+  }
+
+  private static DataSet newUsers(Table t, int n) {
+    DataSet data = data(t);
+    for (int i = 0; i < n; i++) {
+      data.row(getConversion().convert(buildNewUser()));
+    }
+    return data;
+  }
+
+  @Test
+  public void testMultiRowInsert() throws SQLException {
+    Table t = userTable();
+    // Two full chunks plus a remainder of 2 rows.
+    DataSet data = newUsers(t, 2 * ROWS_PER_STATEMENT + 2);
+    DBSetup.multiRowInsert(CallInfo.create(), t, data, ROWS_PER_STATEMENT);
+    assertEquals(INITIAL_DATA.length + data.size(), getDAO().count());
+    assertState(data(t, getConversion()).rows(INITIAL_DATA).add(data));
+  }
+
+  @Test @Category(TestCategories.StatementReuse.class)
+  public void testMultiRowInsertChunks() throws SQLException {
+    Table t = userTable();
+    DataSet data = newUsers(t, 2 * ROWS_PER_STATEMENT + 2);
+    DBSetup.multiRowInsert(CallInfo.create(), t, data, ROWS_PER_STATEMENT);
+    // Pooled statements report the update count of their last execution.
+    assertEquals(ROWS_PER_STATEMENT, 
+        getDB().compile(DBSetup.insertSQL(t, ROWS_PER_STATEMENT)).getStatement().getUpdateCount());
+    assertEquals(2, 
+        getDB().compile(DBSetup.insertSQL(t, 2)).getStatement().getUpdateCount());
+  }
+
+  @Test
+  public void testMultiRowInsertInvalidRow() throws SQLException {
+    Table t = userTable();
+    DataSet data = newUsers(t, 2 * ROWS_PER_STATEMENT);
+    data.addRow(new Row(new Object[] { "login" }));
+    TestUtil.expectException(InvalidOperationException.class, 
+        () -> DBSetup.multiRowInsert(CallInfo.create(), t, data, ROWS_PER_STATEMENT));
+    // No rows inserted, not even the first chunks.
+    assertEquals(INITIAL_DATA.length, getDAO().count());
+  }
+}
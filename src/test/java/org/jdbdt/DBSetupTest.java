@@ -212,6 +212,35 @@ public class DBSetupTest extends DBTestCase {
     testDataSetDelete();
   }
   
+  private void testDataSetMerge() throws SQLException {
+    User[] users = { 
+      INITIAL_DATA[0].clone(), 
+      INITIAL_DATA[1].clone(), 
+      buildNewUser(), 
+      buildNewUser() 
+    };
+    users[0].setName("m#0");
+    users[1].setPassword("m#1");
+    int n = getDAO().count();
+    DataSet data = data(table, getConversion()).rows(users);
+    merge(data);
+    assertEquals(n + 2, getDAO().count());
+    for (User u : users) {
+      assertEquals(u, getDAO().query(u.getLogin()));
+    }
+  }
+
+  @Test
+  public void testDSMergeWithoutBatchUpdates() throws SQLException {
+    getDB().disable(DB.Option.BATCH_UPDATES);
+    testDataSetMerge();
+  }
+
+  @Test
+  public void testDSMergeWithBatchUpdates() throws SQLException {
+    testDataSetMerge();
+  }
+
   @Test @Category(TestCategories.Truncate.class)
   public void testTruncate() throws SQLException {
     truncate(table);
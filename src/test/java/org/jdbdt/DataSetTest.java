@@ -338,10 +338,11 @@ public class DataSetTest extends DBTestCase {
     Object[][] r = genData(50);
     Collections.shuffle(Arrays.asList(r));
     theSUT.rows(r).normalizeRowOrder();
+    RowHasher hasher = theSUT.getSource().getRowHasher();
     Arrays.sort(r, (a,b) 
-        -> Integer.compare(
-            new Row(a).hashCode(), 
-            new Row(b).hashCode()));
+        -> Long.compare(
+            hasher.hash(new Row(a)), 
+            hasher.hash(new Row(b))));
     assertEquals(lRow(r), theSUT.getRows());
   }
   
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+import static org.jdbdt.TestUtil.*;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DeltaResultTest extends DBTestCase {
+  private Table table;
+
+  @Before
+  public void createTable() {
+    table = table(UserDAO.TABLE_NAME).columns(UserDAO.COLUMNS).build(getDB());
+  }
+
+  @Test
+  public void testNoSnapshot() {
+    expectException(InvalidOperationException.class, () -> delta(table));
+  }
+
+  @Test
+  public void testUnchanged() {
+    takeSnapshot(table);
+    DeltaResult theSUT = delta(table);
+    assertSame(table, theSUT.getSource());
+    assertTrue(theSUT.isEmpty());
+    assertEquals(0, theSUT.getDeletedCount());
+    assertEquals(0, theSUT.getInsertedCount());
+    assertFalse(theSUT.deleted().hasNext());
+    assertFalse(theSUT.inserted().hasNext());
+  }
+
+  @Test
+  public void testInsert() throws SQLException {
+    takeSnapshot(table);
+    User u = buildNewUser();
+    getDAO().doInsert(u);
+    DeltaResult theSUT = delta(table);
+    assertFalse(theSUT.isEmpty());
+    assertEquals(0, theSUT.getDeletedCount());
+    assertEquals(1, theSUT.getInsertedCount());
+    Iterator<Object[]> itr = theSUT.inserted();
+    assertArrayEquals(rowFor(u), itr.next());
+    assertFalse(itr.hasNext());
+  }
+
+  @Test
+  public void testDelete() throws SQLException {
+    takeSnapshot(table);
+    getDAO().doDelete(EXISTING_DATA_ID1);
+    DeltaResult theSUT = delta(table);
+    assertEquals(1, theSUT.getDeletedCount());
+    assertEquals(0, theSUT.getInsertedCount());
+    Iterator<Object[]> itr = theSUT.deleted();
+    assertArrayEquals(rowFor(EXISTING_DATA_ID1), itr.next());
+    assertFalse(itr.hasNext());
+  }
+
+  @Test
+  public void testLazyEvaluation() throws SQLException {
+    takeSnapshot(table);
+    DeltaResult theSUT = delta(table);
+    getDAO().doDelete(EXISTING_DATA_ID1);
+    getDAO().doDelete(EXISTING_DATA_ID2);
+    assertEquals(2, theSUT.getDeletedCount());
+    getDAO().doDelete(EXISTING_DATA_ID3);
+    assertEquals(2, theSUT.getDeletedCount());
+    assertEquals(3, delta(table).getDeletedCount());
+  }
+
+  @Test
+  public void testRowsAreCopies() throws SQLException {
+    takeSnapshot(table);
+    getDAO().doDelete(EXISTING_DATA_ID1);
+    DeltaResult theSUT = delta(table);
+    theSUT.deleted().next()[0] = null;
+    assertArrayEquals(rowFor(EXISTING_DATA_ID1), theSUT.deleted().next());
+  }
+}
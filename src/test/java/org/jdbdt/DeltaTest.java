@@ -29,7 +29,9 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -161,4 +163,182 @@ public class DeltaTest {
     assertIteration(empty(), d.deleted());
     assertIteration(rows(7,7,7,6,6,5,0), d.inserted());
   }
+
+  Iterator<Row> pairs(Object... v) {
+    ArrayList<Row> list = new ArrayList<>();
+    for (int i = 0; i < v.length; i += 2) {
+      list.add(new Row(new Object[] { v[i], v[i+1] }));
+    }
+    return list.iterator();
+  }
+
+  static final int[] KEY = { 0 };
+
+  @Test 
+  public void testByKey1() {
+    Delta d = Delta.byKey(empty(), empty(), KEY, RowHasher.GENERIC);
+    assertTrue(d.isEmpty());
+  }
+
+  @Test 
+  public void testByKey2() {
+    Delta d = Delta.byKey(pairs(1,"a",2,"b"), pairs(2,"b",1,"a"), KEY, RowHasher.GENERIC);
+    assertTrue(d.isEmpty());
+  }
+
+  @Test 
+  public void testByKey3() {
+    Delta d = Delta.byKey(pairs(1,"a",2,"b",3,"c"), pairs(4,"d",2,"x",1,"a"), KEY, RowHasher.GENERIC);
+    assertIteration(pairs(2,"b",3,"c"), d.deleted());
+    assertIteration(pairs(4,"d",2,"x"), d.inserted());
+  }
+
+  @Test 
+  public void testByKey4() {
+    assertNull(Delta.byKey(pairs(1,"a",1,"b"), empty(), KEY, RowHasher.GENERIC));
+  }
+
+  @Test 
+  public void testByKey5() {
+    assertNull(Delta.byKey(pairs(1,"a"), pairs(1,"a",1,"b"), KEY, RowHasher.GENERIC));
+  }
+
+  @Test 
+  public void testByKey6() {
+    Delta d = Delta.byKey(pairs(1,"a",2,"b"), pairs(1,"a",2,"b",2,"c"), new int[] { 0, 1 }, RowHasher.GENERIC);
+    assertIteration(empty(), d.deleted());
+    assertIteration(pairs(2,"c"), d.inserted());
+  }
+
+  static RowOrder order(String... fields) {
+    return RowOrder.resolve(new MockDataSource("A", "B"), fields);
+  }
+
+  static Delta merge(Iterator<Row> a, Iterator<Row> b, RowOrder order) {
+    Delta.Merge m = new Delta.Merge(a, order, RowHasher.GENERIC);
+    b.forEachRemaining(m::next);
+    return m.end();
+  }
+
+  @Test 
+  public void testMerge1() {
+    Delta d = merge(empty(), empty(), order("A"));
+    assertTrue(d.isEmpty());
+  }
+
+  @Test 
+  public void testMerge2() {
+    Delta d = merge(pairs(1,"a",2,"b"), pairs(1,"a",2,"b"), order("A"));
+    assertTrue(d.isEmpty());
+  }
+
+  @Test 
+  public void testMerge3() {
+    Delta d = merge(pairs(1,"a",2,"b",3,"c"), pairs(2,"x",3,"c",4,"d"), order("A"));
+    assertIteration(pairs(1,"a",2,"b"), d.deleted());
+    assertIteration(pairs(2,"x",4,"d"), d.inserted());
+  }
+
+  @Test 
+  public void testMerge4() {
+    Delta d = merge(pairs(1,"a",1,"b",1,"b",2,"c"), pairs(1,"b",1,"c",2,"c"), order("a"));
+    assertIteration(pairs(1,"a",1,"b"), d.deleted());
+    assertIteration(pairs(1,"c"), d.inserted());
+  }
+
+  @Test 
+  public void testMerge5() {
+    Delta d = merge(pairs(3,"c",2,"b",1,"a"), pairs(3,"c",1,"a"), order("A DESC"));
+    assertIteration(pairs(2,"b"), d.deleted());
+    assertIteration(empty(), d.inserted());
+  }
+
+  @Test 
+  public void testMerge6() {
+    Delta d = merge(pairs(1,"b",2,"a"), pairs(2,"a",3,"z"), order("2 DESC", "1"));
+    assertNull(d);
+  }
+
+  @Test 
+  public void testMerge7() {
+    Delta d = merge(pairs(1,"a",2,"b"), pairs(2,"b",1,"a"), order("A"));
+    assertNull(d);
+  }
+
+  @Test 
+  public void testMerge8() {
+    Delta d = merge(pairs(1,new byte[0]), pairs(1,new byte[0]), order("B"));
+    assertNull(d);
+  }
+
+  @Test 
+  public void testMerge9() {
+    Delta d = merge(pairs(null,"a",1,"b"), pairs(null,"a",2,"c"), order("A"));
+    assertIteration(pairs(1,"b"), d.deleted());
+    assertIteration(pairs(2,"c"), d.inserted());
+  }
+
+  @Test 
+  public void testRowOrderResolution() {
+    assertNotNull(order("a asc", " b  desc "));
+    assertNotNull(order("2"));
+    assertNull(order("C"));
+    assertNull(order("3"));
+    assertNull(order("A + 1"));
+    assertNull(order("A NULLS FIRST"));
+  }
+
+  static List<Row> randomRows(Random rng, int n) {
+    ArrayList<Row> list = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      list.add(new Row(new Object[] { rng.nextInt(n), "x" + rng.nextInt(4) }));
+    }
+    return list;
+  }
+
+  static List<Row> sorted(Iterator<Row> itr) {
+    ArrayList<Row> list = new ArrayList<>();
+    itr.forEachRemaining(list::add);
+    list.sort((x, y) -> x.toString().compareTo(y.toString()));
+    return list;
+  }
+
+  @Test 
+  public void testParallel1() {
+    Delta d = Delta.parallel(new ArrayList<>(), new ArrayList<>(), RowHasher.GENERIC);
+    assertTrue(d.isEmpty());
+  }
+
+  @Test 
+  public void testParallel2() {
+    Random rng = new Random(0);
+    List<Row> a = randomRows(rng, 100000);
+    List<Row> b = randomRows(rng, 90000);
+    Delta seq = new Delta(a.iterator(), b.iterator(), RowHasher.GENERIC);
+    Delta par = Delta.parallel(a, b, RowHasher.GENERIC);
+    assertEquals(sorted(seq.deleted()), sorted(par.deleted()));
+    assertEquals(sorted(seq.inserted()), sorted(par.inserted()));
+  }
+
+  @Test 
+  public void testParallel3() {
+    Random rng = new Random(0);
+    List<Row> a = randomRows(rng, 100000);
+    List<Row> b = randomRows(rng, 100000);
+    Delta d1 = Delta.parallel(a, b, RowHasher.GENERIC);
+    Delta d2 = Delta.parallel(a, b, RowHasher.GENERIC);
+    assertIteration(d1.deleted(), d2.deleted());
+    assertIteration(d1.inserted(), d2.inserted());
+  }
+
+  @Test 
+  public void testParallel4() {
+    List<Row> a = new ArrayList<>();
+    pairs(1,"a",2,"b",2,"b",3,"c").forEachRemaining(a::add);
+    List<Row> b = new ArrayList<>();
+    pairs(2,"b",3,"c",4,"d").forEachRemaining(b::add);
+    Delta d = Delta.parallel(a, b, RowHasher.GENERIC);
+    assertEquals(sorted(pairs(1,"a",2,"b")), sorted(d.deleted()));
+    assertEquals(sorted(pairs(4,"d")), sorted(d.inserted()));
+  }
 }
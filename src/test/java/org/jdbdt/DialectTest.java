@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class DialectTest {
+
+  @Test
+  public void testOf() {
+    assertEquals(Dialect.H2, Dialect.of("H2"));
+    assertEquals(Dialect.HSQLDB, Dialect.of("HSQL Database Engine"));
+    assertEquals(Dialect.DERBY, Dialect.of("Apache Derby"));
+    assertEquals(Dialect.SQLITE, Dialect.of("SQLite"));
+    assertEquals(Dialect.POSTGRESQL, Dialect.of("PostgreSQL"));
+    assertEquals(Dialect.MYSQL, Dialect.of("MySQL"));
+    assertEquals(Dialect.OTHER, Dialect.of("Oracle"));
+    assertEquals(Dialect.OTHER, Dialect.of(null));
+  }
+
+  @Test
+  public void testDriverFetchSize() {
+    for (Dialect d : Dialect.values()) {
+      assertEquals(0, d.driverFetchSize(0));
+      assertEquals(d == Dialect.MYSQL ? Integer.MIN_VALUE : 100, d.driverFetchSize(100));
+      assertEquals(d == Dialect.POSTGRESQL, d.incrementalFetchRequiresTransaction());
+    }
+  }
+
+  @Test
+  public void testMaxInsertParameters() {
+    for (Dialect d : Dialect.values()) {
+      assertEquals(d == Dialect.OTHER, d.maxInsertParameters() == 0);
+    }
+    assertEquals(999, Dialect.SQLITE.maxInsertParameters());
+  }
+
+  @Test
+  public void testChecksumSupported() {
+    for (Dialect d : new Dialect[] { Dialect.H2, Dialect.POSTGRESQL, Dialect.MYSQL }) {
+      String sql = d.checksumSQL("SELECT A, B FROM T WHERE A > ?", Arrays.asList("A", "B"));
+      assertNotNull(sql);
+      assertTrue(sql.startsWith("SELECT COUNT(*), SUM("));
+      assertTrue(sql.endsWith("FROM (SELECT A, B FROM T WHERE A > ?) t) u"));
+    }
+  }
+
+  @Test
+  public void testChecksumUnsupported() {
+    for (Dialect d : new Dialect[] { Dialect.HSQLDB, Dialect.DERBY, Dialect.SQLITE, Dialect.OTHER }) {
+      assertNull(d.checksumSQL("SELECT A FROM T", Arrays.asList("A")));
+    }
+  }
+
+  @Test
+  public void testChecksumInvalidLabels() {
+    assertNull(Dialect.H2.checksumSQL("SELECT A, A FROM T", Arrays.asList("A", "a")));
+    assertNull(Dialect.H2.checksumSQL("SELECT 1 AS \"x\"\"\" FROM T", Arrays.asList("x\"")));
+    assertNull(Dialect.MYSQL.checksumSQL("SELECT 1 AS `x``` FROM T", Arrays.asList("x`")));
+  }
+
+  @Test
+  public void testChangeCaptureSupported() {
+    for (Dialect d : new Dialect[] { Dialect.H2, Dialect.HSQLDB, Dialect.DERBY, Dialect.SQLITE }) {
+      assertNotNull(d.captureTableSQL("C", "T", Arrays.asList("K1", "K2")));
+      Map<String, String> triggers = d.captureTriggerSQL("C", "T", Arrays.asList("K1", "K2"));
+      assertEquals(d == Dialect.H2 ? 1 : 3, triggers.size());
+      for (Map.Entry<String, String> e : triggers.entrySet()) {
+        assertTrue(e.getValue().startsWith("CREATE TRIGGER " + e.getKey() + " AFTER "));
+      }
+    }
+  }
+
+  @Test
+  public void testChangeCaptureUnsupported() {
+    for (Dialect d : new Dialect[] { Dialect.POSTGRESQL, Dialect.MYSQL, Dialect.OTHER }) {
+      assertNull(d.captureTableSQL("C", "T", Arrays.asList("K")));
+      assertTrue(d.captureTriggerSQL("C", "T", Arrays.asList("K")).isEmpty());
+    }
+  }
+
+  @Test
+  public void testMergeSQL() {
+    List<String> cols = Arrays.asList("K", "A", "B");
+    List<String> keys = Arrays.asList("K");
+    List<String> params = new ArrayList<>();
+    assertEquals("INSERT INTO T (K, A, B) VALUES (?,?,?) ON CONFLICT (K) DO UPDATE SET A=EXCLUDED.A, B=EXCLUDED.B",
+                 Dialect.POSTGRESQL.mergeSQL("T", cols, keys, params));
+    assertEquals(cols, params);
+    params.clear();
+    assertEquals("INSERT INTO T (K, A, B) VALUES (?,?,?) ON DUPLICATE KEY UPDATE A=VALUES(A), B=VALUES(B)",
+                 Dialect.MYSQL.mergeSQL("T", cols, keys, params));
+    assertEquals(cols, params);
+    params.clear();
+    assertEquals("MERGE INTO T AS T USING SYSIBM.SYSDUMMY1 ON T.K=? "
+                 + "WHEN MATCHED THEN UPDATE SET A=?, B=? "
+                 + "WHEN NOT MATCHED THEN INSERT (K, A, B) VALUES (?,?,?)",
+                 Dialect.DERBY.mergeSQL("T", cols, keys, params));
+    assertEquals(Arrays.asList("K", "A", "B", "K", "A", "B"), params);
+  }
+
+  @Test
+  public void testMergeSQLKeyOnly() {
+    List<String> keys = Arrays.asList("K");
+    assertEquals("INSERT INTO T (K) VALUES (?) ON CONFLICT (K) DO NOTHING",
+                 Dialect.SQLITE.mergeSQL("T", keys, keys, new ArrayList<>()));
+    assertEquals("INSERT INTO T (K) VALUES (?) ON DUPLICATE KEY UPDATE K=VALUES(K)",
+                 Dialect.MYSQL.mergeSQL("T", keys, keys, new ArrayList<>()));
+    assertFalse(Dialect.HSQLDB.mergeSQL("T", keys, keys, new ArrayList<>()).contains("WHEN MATCHED"));
+  }
+
+  @Test
+  public void testMergeUnsupported() {
+    assertNull(Dialect.OTHER.mergeSQL("T", Arrays.asList("K"), Arrays.asList("K"), new ArrayList<>()));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FingerprintSetTest {
+
+  static Row row(Object... data) {
+    return new Row(data);
+  }
+
+  static boolean remove(FingerprintSet set, Row r) {
+    return set.remove(new FingerprintSet.Encoder().digest(r));
+  }
+
+  @Test
+  public void testEmpty() {
+    FingerprintSet theSUT = new FingerprintSet(Collections.emptyList());
+    assertTrue(theSUT.isEmpty());
+    assertEquals(0, theSUT.size());
+    assertEquals(0, theSUT.entries());
+    assertFalse(remove(theSUT, row(1)));
+  }
+
+  @Test
+  public void testRemove() {
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(row(1, "a"), row(2, "b")));
+    assertEquals(2, theSUT.size());
+    assertTrue(remove(theSUT, row(2, "b")));
+    assertFalse(remove(theSUT, row(2, "b")));
+    assertFalse(remove(theSUT, row(1, "b")));
+    assertTrue(remove(theSUT, row(1, "a")));
+    assertTrue(theSUT.isEmpty());
+  }
+
+  @Test
+  public void testMultiplicity() {
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(row(1), row(1), row(2)));
+    assertEquals(3, theSUT.size());
+    assertEquals(2, theSUT.entries());
+    assertEquals(2, theSUT.count(0));
+    assertTrue(remove(theSUT, row(1)));
+    assertTrue(remove(theSUT, row(1)));
+    assertFalse(remove(theSUT, row(1)));
+    assertEquals(1, theSUT.size());
+    assertEquals(0, theSUT.count(0));
+  }
+
+  @Test
+  public void testCopy() {
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(row(1), row(2)));
+    FingerprintSet copy = theSUT.copy();
+    assertTrue(remove(copy, row(1)));
+    assertEquals(1, copy.size());
+    assertEquals(2, theSUT.size());
+    assertTrue(remove(theSUT, row(1)));
+  }
+
+  @Test
+  public void testTypes() {
+    Row[] rows = {
+      row((Object) null),
+      row(1),
+      row(1L),
+      row("1"),
+      row(new BigDecimal("1")),
+      row(1.0),
+      row(1.0f),
+      row(true),
+      row((short) 1),
+      row((byte) 1),
+      row(new Timestamp(1)),
+      row(new Date(1)),
+      row((Object) new byte[] { 1 }),
+      row(null, "1"),
+      row("", "1"),
+      row("1", "")
+    };
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(rows));
+    assertEquals(rows.length, theSUT.entries());
+    for (Row r : rows) {
+      assertTrue(remove(theSUT, new Row(r.data().clone())));
+    }
+    assertTrue(theSUT.isEmpty());
+  }
+
+  @Test
+  public void testAdd() {
+    FingerprintSet theSUT = new FingerprintSet();
+    for (int i = 0; i < 1000; i++) {
+      theSUT.add(row(i % 100));
+    }
+    assertEquals(1000, theSUT.size());
+    assertEquals(100, theSUT.entries());
+    theSUT.trimToSize();
+    assertTrue(remove(theSUT, row(99)));
+    assertEquals(999, theSUT.size());
+  }
+
+  @Test
+  public void testAddAll() {
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(row(1), row(2)));
+    theSUT.addAll(new FingerprintSet(Arrays.asList(row(2), row(3))));
+    assertEquals(4, theSUT.size());
+    assertEquals(3, theSUT.entries());
+    assertTrue(remove(theSUT, row(2)));
+    assertTrue(remove(theSUT, row(2)));
+    assertFalse(remove(theSUT, row(2)));
+  }
+
+  @Test
+  public void testHexString() {
+    FingerprintSet theSUT = new FingerprintSet(Arrays.asList(row(1), row(2)));
+    assertTrue(theSUT.toHexString(0).matches("[0-9a-f]{32}"));
+    assertNotEquals(theSUT.toHexString(0), theSUT.toHexString(1));
+  }
+
+  @Test
+  public void testGrowth() {
+    final int n = 10000;
+    ArrayList<Row> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(row(i, "v" + i));
+    }
+    FingerprintSet theSUT = new FingerprintSet(rows);
+    assertEquals(n, theSUT.entries());
+    for (int i = n - 1; i >= 0; i--) {
+      assertTrue(remove(theSUT, row(i, "v" + i)));
+    }
+    assertTrue(theSUT.isEmpty());
+  }
+}
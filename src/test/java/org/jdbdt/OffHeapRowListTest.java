@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class OffHeapRowListTest {
+
+  private static final int COLUMNS = 4;
+
+  private OffHeapRowList theSUT;
+
+  @Before
+  public void setup() {
+    // Small segments, so that rows span several segments.
+    theSUT = new OffHeapRowList(COLUMNS, 64);
+  }
+
+  @After
+  public void teardown() {
+    theSUT.seal();
+  }
+
+  private static Row row(Object... data) {
+    return new Row(data);
+  }
+
+  private static List<Row> sampleRows(int n) {
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(i % 5 == 0 ? 
+          row(null, null, null, null)
+        : row(i, "row " + i, new BigDecimal(i).movePointLeft(2), new java.sql.Date(i * 86400000L)));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testEmpty() {
+    assertTrue(theSUT.isEmpty());
+    assertFalse(theSUT.iterator().hasNext());
+  }
+
+  @Test
+  public void testAdd() {
+    List<Row> expected = sampleRows(100);
+    theSUT.addAll(expected);
+    theSUT.seal();
+    assertEquals(expected.size(), theSUT.size());
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testValueTypes() {
+    Timestamp ts = new Timestamp(123456789L);
+    ts.setNanos(123456789);
+    Object marker = new Object();
+    List<Row> expected = Arrays.asList(
+      row(1, 2L, (short) 3, (byte) 4),
+      row(1.5, 2.5f, true, false),
+      row(ts, new java.sql.Date(86400000L), new Time(3600000L), new Date(1L)),
+      row(new byte[] { 1, 2, 3 }, new BigDecimal("-12345678901234567890.123"), marker, ""),
+      row("ção", "€😀", "\ud800", "\u0000x")
+    );
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+    for (int i = 0; i < expected.size(); i++) {
+      Object[] e = expected.get(i).data();
+      Object[] a = theSUT.get(i).data();
+      for (int c = 0; c < COLUMNS; c++) {
+        assertEquals(e[c].getClass(), a[c].getClass());
+      }
+    }
+    assertSame(marker, theSUT.get(3).data()[2]);
+  }
+
+  @Test
+  public void testLargeRow() {
+    char[] chars = new char[1000];
+    Arrays.fill(chars, '€');
+    Row r = row(new String(chars), null, 1, null);
+    theSUT.add(r);
+    theSUT.add(r);
+    assertEquals(Arrays.asList(r, r), theSUT);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testAddAfterSeal() {
+    theSUT.seal();
+    theSUT.add(row(1, 2, 3, 4));
+  }
+
+  @Test(expected=IndexOutOfBoundsException.class)
+  public void testGetInvalidIndex() {
+    theSUT.addAll(sampleRows(3));
+    theSUT.get(3);
+  }
+}
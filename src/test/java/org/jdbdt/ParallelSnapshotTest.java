@@ -0,0 +1,227 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ParallelSnapshotTest extends DBTestCase {
+  private static final String TNAME = "ParallelSnapshotTest";
+  private static final int ROWS = 1000;
+  private static final int PARTITIONS = 4;
+
+  static final class SimpleDataSource implements javax.sql.DataSource {
+    final AtomicInteger connections = new AtomicInteger();
+    @Override
+    public Connection getConnection() throws SQLException {
+      connections.incrementAndGet();
+      return DriverManager.getConnection(DBConfig.getConfig().getURL());
+    }
+    @Override
+    public Connection getConnection(String user, String pass) throws SQLException {
+      return getConnection();
+    }
+    @Override
+    public PrintWriter getLogWriter() {
+      return null;
+    }
+    @Override
+    public void setLogWriter(PrintWriter out) { }
+    @Override
+    public void setLoginTimeout(int seconds) { }
+    @Override
+    public int getLoginTimeout() {
+      return 0;
+    }
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+      throw new SQLException("Not a wrapper.");
+    }
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+      return false;
+    }
+  }
+
+  private SimpleDataSource xds;
+  private Table table;
+
+  @Before
+  public void setup() throws SQLException {
+    try (Statement s = getDB().getConnection().createStatement()) {
+      dropTable(s);
+      s.execute("CREATE TABLE " + TNAME + " (ID INTEGER PRIMARY KEY NOT NULL, V VARCHAR(10))");
+    }
+    table = table(TNAME).key("ID").build(getDB());
+    DataSet data = builder(table)
+                   .sequence("ID", i -> i * 7 - 3000)
+                   .sequence("V", i -> "v" + i)
+                   .generate(ROWS)
+                   .data();
+    insert(data);
+    xds = new SimpleDataSource();
+    getDB().setParallelSnapshots(xds, PARTITIONS);
+  }
+
+  @After
+  public void teardown() throws SQLException {
+    getDB().setParallelSnapshots(null, 0);
+    try (Statement s = getDB().getConnection().createStatement()) {
+      dropTable(s);
+    }
+  }
+
+  private static void dropTable(Statement s) {
+    try {
+      s.execute("DROP TABLE " + TNAME);
+    }
+    catch (SQLException e) {
+      // table does not exist
+    }
+  }
+
+  @Test
+  public void testBounds() {
+    assertArrayEquals(new long[] { 0, 25, 50, 75 }, ParallelSnapshot.bounds(0, 99, 4));
+    assertArrayEquals(new long[] { 5, 5, 6 }, ParallelSnapshot.bounds(5, 6, 3));
+    long[] b = ParallelSnapshot.bounds(Long.MIN_VALUE, Long.MAX_VALUE, 2);
+    assertEquals(Long.MIN_VALUE, b[0]);
+    assertEquals(0L, b[1]);
+  }
+
+  @Test
+  public void testSnapshot() {
+    DataSet snapshot = takeSnapshot(table);
+    assertEquals(PARTITIONS, xds.connections.get());
+    assertEquals(ROWS, snapshot.size());
+    JDBDT.assertEquals(executeQuery(table), snapshot);
+  }
+
+  @Test
+  public void testOffHeapSnapshot() {
+    getDB().enable(DB.Option.OFF_HEAP_SNAPSHOTS);
+    try {
+      DataSet snapshot = takeSnapshot(table);
+      assertTrue(snapshot.getRows() instanceof OffHeapRowList);
+      assertEquals(ROWS, snapshot.size());
+      JDBDT.assertEquals(executeQuery(table), snapshot);
+    }
+    finally {
+      getDB().disable(DB.Option.OFF_HEAP_SNAPSHOTS);
+    }
+  }
+
+  @Test
+  public void testColumnarSnapshot() {
+    getDB().enable(DB.Option.COLUMNAR_SNAPSHOTS);
+    try {
+      DataSet snapshot = takeSnapshot(table);
+      assertTrue(snapshot.getRows() instanceof ColumnarRowList);
+      assertEquals(ROWS, snapshot.size());
+      JDBDT.assertEquals(executeQuery(table), snapshot);
+    }
+    finally {
+      getDB().disable(DB.Option.COLUMNAR_SNAPSHOTS);
+    }
+  }
+
+  @Test
+  public void testFingerprintSnapshot() {
+    getDB().enable(DB.Option.FINGERPRINT_SNAPSHOTS);
+    try {
+      DataSet snapshot = takeSnapshot(table);
+      assertTrue(snapshot.getRows() instanceof FingerprintRowList);
+      assertEquals(ROWS, table.getSnapshotFingerprints().size());
+      assertUnchanged(table);
+    }
+    finally {
+      getDB().disable(DB.Option.FINGERPRINT_SNAPSHOTS);
+    }
+  }
+
+  @Test
+  public void testDelta() {
+    takeSnapshot(table);
+    DataSet deleted = data(table).row(-3000, "v0");
+    DataSet inserted = data(table).row(1000000, "x");
+    delete(deleted);
+    insert(inserted);
+    assertDelta(deleted, inserted);
+  }
+
+  @Test
+  public void testNonNumericKey() {
+    Table t = table(UserDAO.TABLE_NAME).columns(UserDAO.COLUMNS).key("LOGIN").build(getDB());
+    takeSnapshot(t);
+    assertEquals(0, xds.connections.get());
+  }
+
+  @Test
+  public void testEmptyTable() {
+    deleteAll(table);
+    takeSnapshot(table);
+    assertEquals(0, xds.connections.get());
+    assertEmpty(table);
+  }
+
+  @Test
+  public void testNoAutoCommit() {
+    DB db = getDB();
+    db.setAutoCommit(false);
+    try {
+      takeSnapshot(table);
+      assertEquals(0, xds.connections.get());
+    }
+    finally {
+      db.setAutoCommit(true);
+    }
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidPartitions() {
+    getDB().setParallelSnapshots(xds, 1);
+  }
+}
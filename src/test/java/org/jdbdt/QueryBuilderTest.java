@@ -285,4 +285,31 @@ public class QueryBuilderTest extends DBTestCase {
     assertDataSet(expected, actual);
     assertTrue(expected.sameDataAs(actual));
   }
+
+  @Test
+  public void testExecWithFetchSizeAndTimeout() {
+    Query q =
+        select(UserDAO.COLUMNS)
+        .from(UserDAO.TABLE_NAME)
+        .fetchSize(2)
+        .queryTimeout(10)
+        .build(getDB());
+    assertEquals(2, q.getFetchSize());
+    assertEquals(10, q.getQueryTimeout());
+    DataSet actual = executeQuery(q);
+    DataSet expected = 
+        data(q, getConversion())
+        .rows(INITIAL_DATA);
+    assertDataSet(expected, actual);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidFetchSize() {
+    select(UserDAO.COLUMNS).fetchSize(-1);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidQueryTimeout() {
+    select(UserDAO.COLUMNS).queryTimeout(-1);
+  }
 }
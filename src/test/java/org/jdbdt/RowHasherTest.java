@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.Timestamp;
+import java.util.HashSet;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RowHasherTest {
+
+  static final JDBCType[] TYPES = {
+    JDBCType.INTEGER, JDBCType.BIGINT, JDBCType.DOUBLE, JDBCType.DECIMAL,
+    JDBCType.VARCHAR, JDBCType.TIMESTAMP, JDBCType.BOOLEAN, JDBCType.VARBINARY
+  };
+
+  static final RowHasher THE_SUT = new RowHasher(TYPES);
+
+  static Object[] data() {
+    return new Object[] {
+      1, 2L, 3.0, new BigDecimal("4.00"), "5", 
+      Timestamp.valueOf("2017-01-01 00:00:00.123"), true, new byte[] { 6, 7 }
+    };
+  }
+
+  static void assertEqualRows(RowHasher h, Object[] a, Object[] b) {
+    Row r1 = new Row(a), r2 = new Row(b);
+    assertEquals(r1, r2);
+    assertTrue(h.equal(r1, r2));
+    assertEquals(h.hash(r1), h.hash(r2));
+  }
+
+  static void assertDistinctRows(RowHasher h, Object[] a, Object[] b) {
+    Row r1 = new Row(a), r2 = new Row(b);
+    assertNotEquals(r1, r2);
+    assertFalse(h.equal(r1, r2));
+  }
+
+  @Test
+  public void testEqual1() {
+    assertEqualRows(THE_SUT, data(), data());
+  }
+
+  @Test
+  public void testEqual2() {
+    assertEqualRows(THE_SUT, new Object[TYPES.length], new Object[TYPES.length]);
+  }
+
+  @Test
+  public void testEqual3() {
+    assertEqualRows(RowHasher.GENERIC, data(), data());
+  }
+
+  @Test
+  public void testEqual4() {
+    // Values of unexpected types
+    Object[] a = { 1L, 2, 3.0f, 4, 5, new Date(0L), "true", new int[] { 6 } };
+    Object[] b = { 1L, 2, 3.0f, 4, 5, new Date(0L), "true", new int[] { 6 } };
+    assertEqualRows(THE_SUT, a, b);
+  }
+
+  @Test
+  public void testDistinct() {
+    for (int i = 0; i < TYPES.length; i++) {
+      Object[] a = data();
+      Object[] b = data();
+      b[i] = null;
+      assertDistinctRows(THE_SUT, a, b);
+      assertDistinctRows(THE_SUT, b, a);
+    }
+  }
+
+  @Test
+  public void testDistinctTypes() {
+    Object[] a = data();
+    Object[] b = data();
+    b[0] = 1L;
+    b[1] = 2;
+    b[3] = new BigDecimal("4.0");
+    assertDistinctRows(THE_SUT, a, b);
+  }
+
+  @Test
+  public void testHashDistribution() {
+    HashSet<Long> hashes = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      hashes.add(THE_SUT.hash(new Row(new Object[] { i, (long) i })));
+    }
+    assertEquals(10000, hashes.size());
+  }
+}
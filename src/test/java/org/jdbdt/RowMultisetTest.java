@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RowMultisetTest {
+
+  RowMultiset theSUT;
+
+  @Before
+  public void setup() {
+    theSUT = new RowMultiset(RowHasher.GENERIC);
+  }
+
+  static Row row(int v) {
+    return new Row(new Object[] { v });
+  }
+
+  List<Row> live() {
+    ArrayList<Row> list = new ArrayList<>();
+    for (int e = 0; e < theSUT.entries(); e++) {
+      if (theSUT.count(e) != 0) {
+        list.add(theSUT.row(e));
+      }
+    }
+    return list;
+  }
+
+  @Test
+  public void testEmpty() {
+    assertTrue(theSUT.isEmpty());
+    assertEquals(0, theSUT.entries());
+  }
+
+  @Test
+  public void testCounts() {
+    theSUT.update(row(1), 1);
+    theSUT.update(row(2), -1);
+    theSUT.update(row(1), 2);
+    assertFalse(theSUT.isEmpty());
+    assertEquals(2, theSUT.entries());
+    assertEquals(3, theSUT.count(0));
+    assertEquals(-1, theSUT.count(1));
+  }
+
+  @Test
+  public void testUpdateResult() {
+    assertEquals(1, theSUT.update(row(1), 1));
+    assertEquals(3, theSUT.update(row(1), 2));
+    assertEquals(-1, theSUT.update(row(2), -1));
+    assertEquals(0, theSUT.update(row(2), 1));
+    assertEquals(0, theSUT.update(row(1), 0));
+    assertEquals(3, theSUT.count(0));
+  }
+
+  @Test
+  public void testDiscard() {
+    theSUT.update(row(1), 1);
+    theSUT.update(row(1), -1);
+    assertTrue(theSUT.isEmpty());
+    assertEquals(0, theSUT.count(0));
+    assertNull(theSUT.row(0));
+  }
+
+  @Test
+  public void testInsertionOrder() {
+    theSUT.update(row(1), 1);
+    theSUT.update(row(2), 1);
+    theSUT.update(row(3), 1);
+    theSUT.update(row(1), -1);
+    theSUT.update(row(1), 1);
+    ArrayList<Row> expected = new ArrayList<>();
+    expected.add(row(2));
+    expected.add(row(3));
+    expected.add(row(1));
+    assertEquals(expected, live());
+  }
+
+  @Test
+  public void testGrowth() {
+    final int n = 10000;
+    ArrayList<Row> expected = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      theSUT.update(row(i), 1);
+      expected.add(row(i));
+    }
+    assertEquals(expected, live());
+  }
+
+  @Test
+  public void testChurn() {
+    final int n = 10000;
+    ArrayList<Row> expected = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      theSUT.update(row(i), 1);
+      theSUT.update(row(i - 5), -1);
+      if (i % 100 == 0) {
+        theSUT.update(row(-i), 1);
+        expected.add(row(-i));
+      }
+    }
+    for (int i = n - 5; i < n; i++) {
+      expected.add(row(i));
+    }
+    for (int i = -5; i < 0; i++) {
+      expected.add(row(i));
+    }
+    List<Row> actual = live();
+    assertEquals(expected.size(), actual.size());
+    assertTrue(actual.containsAll(expected));
+    assertTrue(theSUT.entries() < n);
+  }
+}
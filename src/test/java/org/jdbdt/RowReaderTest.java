@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RowReaderTest extends DBTestCase {
+  private static final String TNAME = "RowReaderTest";
+
+  private Table table;
+
+  @Before
+  public void createTable() throws SQLException {
+    try (Statement s = getDB().getConnection().createStatement()) {
+      dropTable(s);
+      s.execute("CREATE TABLE " + TNAME 
+          + " (I INTEGER, B BIGINT, S SMALLINT, D DOUBLE PRECISION, V VARCHAR(10))");
+      s.execute("INSERT INTO " + TNAME + " VALUES (NULL, NULL, NULL, NULL, NULL)");
+      s.execute("INSERT INTO " + TNAME + " VALUES (0, 0, 0, 0, '')");
+      s.execute("INSERT INTO " + TNAME + " VALUES (1, 12345678901, -1, 1.5, 'abc')");
+      s.execute("INSERT INTO " + TNAME + " VALUES (NULL, NULL, NULL, NULL, NULL)");
+      s.execute("INSERT INTO " + TNAME + " VALUES (-1000, -1, 300, -0.25, 'x')");
+      s.execute("INSERT INTO " + TNAME + " VALUES (0, 0, 0, 0, NULL)");
+    }
+    table = table(TNAME).build(getDB());
+  }
+
+  @After
+  public void removeTable() throws SQLException {
+    try (Statement s = getDB().getConnection().createStatement()) {
+      dropTable(s);
+    }
+  }
+
+  private static void dropTable(Statement s) {
+    try {
+      s.execute("DROP TABLE " + TNAME);
+    }
+    catch (SQLException e) {
+      // table does not exist
+    }
+  }
+
+  private List<Object[]> read(boolean useReader) throws SQLException {
+    List<Object[]> rows = new ArrayList<>();
+    try (PreparedStatement stmt = getDB().getConnection().prepareStatement(table.getSQLForQuery());
+         ResultSet rs = stmt.executeQuery()) {
+      RowReader theSUT = table.newRowReader();
+      int n = table.getColumnCount();
+      while (rs.next()) {
+        if (useReader) {
+          rows.add(theSUT.read(rs, new Object[n]));
+        } 
+        else {
+          Object[] data = new Object[n];
+          for (int i = 0; i < n; i++) {
+            data[i] = rs.getObject(i + 1);
+          }
+          rows.add(data);
+        }
+      }
+      if (useReader && getDB().getDialect().hasStaticColumnTypes()) {
+        for (int i = 0; i < n; i++) {
+          assertNotNull(theSUT.getAccessor(i));
+        }
+        assertEquals(RowReader.Accessor.STRING, theSUT.getAccessor(4));
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  public void testSameValuesAsGetObject() throws SQLException {
+    List<Object[]> expected = read(false);
+    List<Object[]> actual = read(true);
+    assertEquals(expected.size(), actual.size());
+    for (int r = 0; r < expected.size(); r++) {
+      Object[] e = expected.get(r);
+      Object[] a = actual.get(r);
+      assertArrayEquals(e, a);
+      for (int c = 0; c < e.length; c++) {
+        if (e[c] != null) {
+          assertEquals(e[c].getClass(), a[c].getClass());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSnapshot() throws SQLException {
+    takeSnapshot(table);
+    try (Statement s = getDB().getConnection().createStatement()) {
+      s.execute("UPDATE " + TNAME + " SET I = 2 WHERE I = 1");
+    }
+    assertEquals(1, delta(table).getDeletedCount());
+    assertEquals(1, delta(table).getInsertedCount());
+  }
+
+  @Test
+  public void testAccessorOf() {
+    assertEquals(RowReader.Accessor.INT, RowReader.Accessor.of(JDBCType.INTEGER, 1));
+    assertEquals(RowReader.Accessor.LONG, RowReader.Accessor.of(JDBCType.INTEGER, 1L));
+    assertEquals(RowReader.Accessor.SHORT, RowReader.Accessor.of(JDBCType.SMALLINT, (short) 1));
+    assertEquals(RowReader.Accessor.DOUBLE, RowReader.Accessor.of(JDBCType.FLOAT, 1.0));
+    assertEquals(RowReader.Accessor.BOOLEAN, RowReader.Accessor.of(JDBCType.BOOLEAN, true));
+    assertEquals(RowReader.Accessor.STRING, RowReader.Accessor.of(JDBCType.VARCHAR, "a"));
+    assertEquals(RowReader.Accessor.OBJECT, RowReader.Accessor.of(JDBCType.DECIMAL, 1));
+    assertEquals(RowReader.Accessor.OBJECT, RowReader.Accessor.of(JDBCType.VARCHAR, 1));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+import static org.jdbdt.JDBDT.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RowStreamTest extends DBTestCase {
+  private Table table;
+
+  @Before
+  public void createTable() {
+    table = table(UserDAO.TABLE_NAME).columns(UserDAO.COLUMNS).build(getDB());
+  }
+
+  private static Set<List<Object>> expectedRows() {
+    Set<List<Object>> rows = new HashSet<>();
+    for (User u : INITIAL_DATA) {
+      rows.add(Arrays.asList(getConversion().convert(u)));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testForEachRow() {
+    List<Object[]> rows = new ArrayList<>();
+    forEachRow(table, rows::add);
+    assertEquals(INITIAL_DATA.length, rows.size());
+    assertEquals(expectedRows(), 
+                 rows.stream().map(Arrays::asList).collect(Collectors.toSet()));
+  }
+
+  @Test
+  public void testForEachRowReusingBuffer() {
+    List<Object[]> arrays = new ArrayList<>();
+    Set<List<Object>> rows = new HashSet<>();
+    forEachRow(table, r -> { 
+      arrays.add(r); 
+      rows.add(new ArrayList<>(Arrays.asList(r)));
+    }, true);
+    assertEquals(INITIAL_DATA.length, arrays.size());
+    for (Object[] r : arrays) {
+      assertSame(arrays.get(0), r);
+    }
+    assertEquals(expectedRows(), rows);
+  }
+
+  @Test
+  public void testStream() {
+    try (Stream<Object[]> s = stream(table)) {
+      assertEquals(expectedRows(), 
+                   s.map(Arrays::asList).collect(Collectors.toSet()));
+    }
+  }
+
+  @Test
+  public void testStreamPartiallyConsumed() {
+    try (Stream<Object[]> s = stream(table)) {
+      assertEquals(2, s.limit(2).count());
+    }
+    // Database resources are released by closing the stream.
+    assertEquals(INITIAL_DATA.length, stream(table).count());
+  }
+
+  @Test
+  public void testStreamWithStatementReuse() {
+    Query q = select(UserDAO.COLUMNS).from(UserDAO.TABLE_NAME).build(getDB());
+    try (Stream<Object[]> s = stream(q)) {
+      // Same SQL executed while stream is open.
+      assertEquals(INITIAL_DATA.length, executeQuery(q).size());
+      assertEquals(INITIAL_DATA.length, s.count());
+    }
+  }
+
+  @Test
+  public void testStreamEmpty() {
+    Query q = select(UserDAO.COLUMNS)
+              .from(UserDAO.TABLE_NAME)
+              .where("1 = 0")
+              .build(getDB());
+    assertEquals(0, stream(q).count());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) Eduardo R. B. Marques
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.jdbdt;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@SuppressWarnings("javadoc")
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SpillRowListTest {
+
+  private static final int THRESHOLD = 10;
+
+  private SpillRowList theSUT;
+
+  @Before
+  public void setup() {
+    theSUT = new SpillRowList(3, THRESHOLD);
+  }
+
+  private static Row row(Object... data) {
+    return new Row(data);
+  }
+
+  private static List<Row> sampleRows(int n) {
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      rows.add(i % 5 == 0 ? 
+          row(null, null, null)
+        : row(i, "row " + i, new BigDecimal(i).movePointLeft(2)));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testBelowThreshold() {
+    List<Row> expected = sampleRows(THRESHOLD);
+    theSUT.addAll(expected);
+    assertEquals(0, theSUT.spilled());
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testAboveThreshold() {
+    List<Row> expected = sampleRows(10000);
+    theSUT.addAll(expected);
+    assertEquals(10000 - THRESHOLD, theSUT.spilled());
+    assertEquals(expected.size(), theSUT.size());
+    assertEquals(expected, theSUT);
+    for (int i = 0; i < expected.size(); i += 997) {
+      assertEquals(expected.get(i), theSUT.get(i));
+    }
+  }
+
+  @Test
+  public void testInterleavedReadsAndWrites() {
+    List<Row> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Row r = row(i, "row " + i, null);
+      expected.add(r);
+      theSUT.add(r);
+      assertEquals(r, theSUT.get(i));
+      assertEquals(expected, theSUT);
+    }
+  }
+
+  @Test
+  public void testLargeRows() {
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'x');
+    List<Row> expected = sampleRows(THRESHOLD);
+    expected.add(row(1, new String(chars), null));
+    expected.add(row(2, "small", null));
+    expected.add(row(3, new String(chars), null));
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+  }
+
+  @Test
+  public void testClear() {
+    theSUT.addAll(sampleRows(100));
+    theSUT.clear();
+    assertTrue(theSUT.isEmpty());
+    List<Row> expected = sampleRows(20);
+    theSUT.addAll(expected);
+    assertEquals(expected, theSUT);
+  }
+
+  @Test(expected=ConcurrentModificationException.class)
+  public void testConcurrentModification() {
+    theSUT.addAll(sampleRows(20));
+    Iterator<Row> itr = theSUT.iterator();
+    itr.next();
+    theSUT.add(row(1, "", null));
+    itr.next();
+  }
+}
@@ -56,6 +56,72 @@ public class TableTest extends DBTestCase {
         .rows(INITIAL_DATA);
     assertDataSet(expected, actual);
   }
-  
-  
+
+  @Test
+  public void testFetchSizeAndTimeoutDefaults() {
+    DB db = getDB();
+    assertEquals(db.getFetchSize(), theSUT.getFetchSize());
+    assertEquals(db.getQueryTimeout(), theSUT.getQueryTimeout());
+  }
+
+  @Test
+  public void testFetchSizeAndTimeoutFromDB() {
+    DB db = getDB();
+    db.setFetchSize(1);
+    db.setQueryTimeout(10);
+    try {
+      assertEquals(1, theSUT.getFetchSize());
+      assertEquals(10, theSUT.getQueryTimeout());
+      testQueryExecution();
+    }
+    finally {
+      db.setFetchSize(0);
+      db.setQueryTimeout(0);
+    }
+  }
+
+  @Test
+  public void testFetchSizeAndTimeoutFromBuilder() {
+    theSUT = table(UserDAO.TABLE_NAME)
+             .columns(UserDAO.COLUMNS)
+             .fetchSize(2)
+             .queryTimeout(5)
+             .build(getDB());
+    assertEquals(2, theSUT.getFetchSize());
+    assertEquals(5, theSUT.getQueryTimeout());
+    testQueryExecution();
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidFetchSizeForDB() {
+    getDB().setFetchSize(-1);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidQueryTimeoutForDB() {
+    getDB().setQueryTimeout(-1);
+  }
+
+  @Test(expected=InvalidOperationException.class)
+  public void testInvalidFetchSizeForBuilder() {
+    table(UserDAO.TABLE_NAME).fetchSize(-1);
+  }
+
+  @Test
+  public void testLazyMetaData() {
+    Table t = table("TableTestLazy").build(getDB());
+    execute(getDB(), "CREATE TABLE TableTestLazy (X INTEGER, Y INTEGER)");
+    try {
+      assertEquals(2, t.getColumnCount());
+    }
+    finally {
+      drop(t);
+    }
+  }
+
+  @Test(expected=DBExecutionException.class)
+  public void testLazyMetaDataError() {
+    Table t = table("TableTestNoSuchTable").build(getDB());
+    t.getColumns();
+  }
 }